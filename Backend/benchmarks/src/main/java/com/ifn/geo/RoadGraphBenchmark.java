@@ -0,0 +1,146 @@
+package com.ifn.geo;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest paths on the shipped road graph (static/road_graph.js), with the Dijkstra the
+ * offline router runs in the browser (Frontend/src/services/offlineRouter.ts), here on the
+ * CSR arrays of RoadNetwork.Graph. Also measures loading the graph file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoadGraphBenchmark {
+
+    private static final int PAIRS = 64;
+
+    private RoadNetwork.Graph graph;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    // Reused between queries, as a router serving many requests would
+    private double[] dist;
+    private int[] heap;
+    private int[] heapPos;
+
+    @Setup
+    public void setUp() {
+        graph = network().graph();
+        int n = graph.size();
+        dist = new double[n];
+        heap = new int[n];
+        heapPos = new int[n];
+
+        // Random pairs of nodes that have edges, fixed seed so runs are comparable
+        SplittableRandom random = new SplittableRandom(42);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for (int k = 0; k < PAIRS; k++) {
+            sources[k] = randomConnectedNode(random);
+            targets[k] = randomConnectedNode(random);
+        }
+    }
+
+    @Benchmark
+    public double shortestPath() {
+        int k = next++ & (PAIRS - 1);
+        return dijkstra(sources[k], targets[k]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public RoadNetwork.Graph loadGraph() {
+        return network().graph();
+    }
+
+    private static RoadNetwork network() {
+        return new RoadNetwork(new ClassPathResource("static/road_graph.js"),
+                new ClassPathResource("static/roads_geojson.js"));
+    }
+
+    private int randomConnectedNode(SplittableRandom random) {
+        int i;
+        do {
+            i = random.nextInt(graph.size());
+        } while (graph.edgeStart()[i] == graph.edgeStart()[i + 1]);
+        return i;
+    }
+
+    /** Distance in metres from source to target, or +∞ when unreachable. */
+    double dijkstra(int source, int target) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(heapPos, -1);
+        int size = 0;
+        dist[source] = 0;
+        heap[size] = source;
+        heapPos[source] = size++;
+
+        int[] edgeStart = graph.edgeStart();
+        int[] edgeTo = graph.edgeTo();
+        float[] edgeDist = graph.edgeDist();
+        while (size > 0) {
+            int u = heap[0];
+            heapPos[u] = -2;   // settled
+            if (u == target) return dist[u];
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                heapPos[last] = 0;
+                siftDown(0, size);
+            }
+            for (int e = edgeStart[u]; e < edgeStart[u + 1]; e++) {
+                int v = edgeTo[e];
+                if (heapPos[v] == -2) continue;
+                double alt = dist[u] + edgeDist[e];
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    if (heapPos[v] == -1) {
+                        heap[size] = v;
+                        heapPos[v] = size++;
+                    }
+                    siftUp(heapPos[v]);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (dist[heap[parent]] <= dist[node]) break;
+            heap[i] = heap[parent];
+            heapPos[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+
+    private void siftDown(int i, int size) {
+        int node = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && dist[heap[child + 1]] < dist[heap[child]]) child++;
+            if (dist[node] <= dist[heap[child]]) break;
+            heap[i] = heap[child];
+            heapPos[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+}
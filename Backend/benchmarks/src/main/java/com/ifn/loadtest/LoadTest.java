@@ -0,0 +1,471 @@
+package com.ifn.loadtest;
+
+import com.ifn.Ifn2026Application;
+import com.ifn.config.ConcurrencyLimitedDataSource;
+import com.ifn.config.ReplicaRoutingDataSource;
+import com.ifn.service.RefreshNotifier;
+import com.ifn.service.DataVersionService;
+import com.ifn.tools.SyntheticData;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+/**
+ * End-to-end load test: boots the application on an in-memory H2 database in PostgreSQL mode,
+ * fills it with SyntheticData and replays the traffic of a field campaign over HTTP:
+ *
+ *   dashboard  GET /api/dashboard/all (with a JWT)
+ *   map        GET /api/placettes/geojson?bbox=… around a random placette, GET /api/plots/geojson
+ *   import     POST /api/import/zip of a Collect export, every import-every seconds
+ *   sse        sse subscribers on /api/dashboard/events; latency from the first refresh trigger
+ *              (import or /notify) of a window to the delivery of its event
+ *
+ * Virtual users run a closed loop over dashboard and map requests. Throughput and latency
+ * percentiles per request type are printed and written as JSON to out, together with what the
+ * server held during the measurement: platform threads, SSE subscribers, SQL permits in use
+ * and callers waiting for one (ConcurrencyLimitedDataSource), and reads served by the replica
+ * when --app.datasource.replica.url is given (ReplicaRoutingDataSource).
+ *
+ *   java -cp target/benchmarks.jar com.ifn.loadtest.LoadTest --plots=10000 --users=32 --duration=60
+ *
+ * Other --app.* / --spring.* arguments are passed to the application (e.g.
+ * --app.refresh.min-interval-ms=500). Platform and virtual request threads compare with
+ *
+ *   … --sse=5000 --users=300 --spring.threads.virtual.enabled=false
+ *   … --sse=5000 --users=300 --spring.threads.virtual.enabled=true
+ */
+public class LoadTest {
+
+    private final Map<String, String> options = new LinkedHashMap<>(Map.of(
+        "plots", "10000", "seed", "42", "users", "16", "duration", "60", "warmup", "10",
+        "sse", "50", "import-every", "5", "import-plots", "200", "notify-every", "7",
+        "out", "target/loadtest-result.json"));
+    private final Map<String, Object> appProperties = new LinkedHashMap<>();
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final Map<String, Recorder> recorders = new ConcurrentSkipListMap<>();
+    private final Map<String, Object> server = new LinkedHashMap<>();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    // SSE: first trigger of the open refresh window, and the trigger of each event id
+    private final AtomicLong pendingTrigger = new AtomicLong();
+    private final Map<String, Long> eventTriggers = new ConcurrentHashMap<>();
+    private final List<java.util.stream.Stream<String>> streams = new CopyOnWriteArrayList<>();
+
+    private String base;
+    private String token;
+    private String syncSecret;
+    private SyntheticData data;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run(args);
+    }
+
+    private void run(String[] args) throws Exception {
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv[0].startsWith("app.") || kv[0].startsWith("spring.") || kv[0].startsWith("logging.")) {
+                appProperties.put(kv[0], kv.length > 1 ? kv[1] : "true");
+            } else if (options.containsKey(kv[0]) && kv.length == 2) {
+                options.put(kv[0], kv[1]);
+            } else {
+                throw new IllegalArgumentException("Option inconnue : " + arg);
+            }
+        }
+        data = new SyntheticData(SyntheticData.Options.of(intOption("plots")).withSeed(Long.parseLong(options.get("seed"))));
+
+        try (ConfigurableApplicationContext context = start()) {
+            long seedStart = System.currentTimeMillis();
+            data.insert(context.getBean(JdbcTemplate.class));
+            context.getBean(DataVersionService.class).bump();
+            Integer plotRows = context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM plot", Integer.class);
+            System.out.printf("[loadtest] %d placettes, %d plots générés en %d ms%n",
+                    data.options().plots(), plotRows, System.currentTimeMillis() - seedStart);
+
+            base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            syncSecret = context.getEnvironment().getProperty("app.sync.secret");
+            token = login(context.getEnvironment().getProperty("app.users.admin.password"));
+
+            traffic(context);
+        }
+        report();
+    }
+
+    private ConfigurableApplicationContext start() throws IOException {
+        Path tmp = Files.createTempDirectory("ifn-loadtest");
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        props.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        props.put("spring.datasource.username", "sa");
+        props.put("spring.datasource.password", "");
+        props.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        props.put("spring.jpa.hibernate.ddl-auto", "create");
+        props.put("spring.jpa.defer-datasource-initialization", "true");
+        props.put("spring.sql.init.mode", "always");
+        props.put("spring.sql.init.schema-locations", "classpath:loadtest/schema-h2.sql");
+        props.put("server.port", "0");
+        props.put("app.dashboard.materialized-views.enabled", "false");
+        props.put("app.field-package.cache-dir", tmp.resolve("packages").toString());
+        props.put("app.tiles.cache-dir", tmp.resolve("tiles").toString());
+        props.put("server.shutdown", "immediate");
+        props.put("logging.level.root", "WARN");
+        // Requests and SSE streams cut by the end of the run
+        props.put("logging.level.org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver", "ERROR");
+        props.putAll(appProperties);
+        // As command-line arguments, which take precedence over application.properties
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(Ifn2026Application.class).run(args);
+    }
+
+    // ─── Traffic ──────────────────────────────────────────────────────────────
+
+    private void traffic(ConfigurableApplicationContext context) throws InterruptedException {
+        int users = intOption("users");
+        int warmup = intOption("warmup");
+        int duration = intOption("duration");
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch subscribed = new CountDownLatch(intOption("sse"));
+            for (int s = 0; s < intOption("sse"); s++) threads.submit(() -> subscriber(subscribed));
+            subscribed.await(30, TimeUnit.SECONDS);
+
+            for (int u = 0; u < users; u++) {
+                long seed = u;
+                threads.submit(() -> user(new SplittableRandom(seed)));
+            }
+            threads.submit(this::importer);
+            threads.submit(this::notifier);
+
+            System.out.printf("[loadtest] %d utilisateurs, %d abonnés SSE : préchauffage %d s, mesure %d s%n",
+                    users, intOption("sse"), warmup, duration);
+            Thread.sleep(warmup * 1000L);
+            ServerMonitor monitor = new ServerMonitor(context);
+            threads.submit(monitor);
+            recording = true;
+            long start = System.nanoTime();
+            Thread.sleep(duration * 1000L);
+            recording = false;
+            long elapsed = System.nanoTime() - start;
+            server.putAll(monitor.summary());
+            recorders.values().forEach(r -> r.elapsedNanos = elapsed);
+            running = false;
+            streams.forEach(java.util.stream.Stream::close);   // blocked SSE reads ignore interrupts
+            threads.shutdownNow();
+        }
+    }
+
+    private void user(SplittableRandom random) {
+        while (running) {
+            double pick = random.nextDouble();
+            if (pick < 0.4) {
+                get("dashboard.all", "/api/dashboard/all", true);
+            } else if (pick < 0.9) {
+                // Map pan: a ~10 km window around a random placette
+                Object[] p = data.programme(random.nextInt(data.options().plots()));
+                double lon = (double) p[1], lat = (double) p[2];
+                get("map.placettes", String.format(Locale.ROOT, "/api/placettes/geojson?bbox=%.5f,%.5f,%.5f,%.5f",
+                        lon - 0.05, lat - 0.05, lon + 0.05, lat + 0.05), false);
+            } else {
+                get("map.plots", "/api/plots/geojson", false);
+            }
+        }
+    }
+
+    private void importer() {
+        int every = intOption("import-every");
+        int size = intOption("import-plots");
+        SplittableRandom random = new SplittableRandom(7);
+        while (running) {
+            int from = random.nextInt(Math.max(1, data.options().plots() - size));
+            byte[] zip = data.collectZip(from, from + size);
+            String boundary = "loadtest" + System.nanoTime();
+            byte[] body = multipart(boundary, "file", "collect-export.zip", zip);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/import/zip"))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .timeout(Duration.ofMinutes(5))
+                    .build();
+            if (send("import.zip", request)) pendingTrigger.compareAndSet(0, System.nanoTime());
+            sleep(every * 1000L);
+        }
+    }
+
+    /** The Python sync script's POST /api/dashboard/notify. */
+    private void notifier() {
+        while (running) {
+            sleep(intOption("notify-every") * 1000L);
+            pendingTrigger.compareAndSet(0, System.nanoTime());
+            send("dashboard.notify", HttpRequest.newBuilder(URI.create(base + "/api/dashboard/notify"))
+                    .header("X-Sync-Secret", syncSecret)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+        }
+    }
+
+    private void subscriber(CountDownLatch subscribed) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/dashboard/events"))
+                .header("Accept", "text/event-stream")
+                .GET().build();
+        try {
+            HttpResponse<java.util.stream.Stream<String>> response = http.send(request, HttpResponse.BodyHandlers.ofLines());
+            streams.add(response.body());
+            subscribed.countDown();
+            String id = null;
+            Iterator<String> lines = response.body().iterator();
+            while (running && lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith("id:")) {
+                    id = line.substring(3).trim();
+                } else if (line.startsWith("data:") && id != null) {
+                    long now = System.nanoTime();
+                    // The first subscriber to see an event claims the trigger of its window
+                    long trigger = eventTriggers.computeIfAbsent(id, k -> pendingTrigger.getAndSet(0));
+                    if (trigger != 0 && recording) recorder("sse.refresh").record(now - trigger, true);
+                    id = null;
+                } else if (line.isEmpty()) {
+                    id = null;
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            subscribed.countDown();
+            if (recording) recorder("sse.refresh").record(0, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Samples the server every 100 ms while recording. */
+    private final class ServerMonitor implements Runnable {
+        private final ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        private final RefreshNotifier notifier;
+        private final ConcurrencyLimitedDataSource limiter;
+        private final ReplicaRoutingDataSource routing;
+        private final long waitStart;
+        private int maxSubscribers;
+        private int maxActive;
+        private int maxWaiting;
+
+        ServerMonitor(ConfigurableApplicationContext context) {
+            notifier = context.getBean(RefreshNotifier.class);
+            limiter = limiter(context.getBean(DataSource.class));
+            routing = context.getBean(DataSource.class) instanceof ReplicaRoutingDataSource r ? r : null;
+            waitStart = limiter == null ? 0 : limiter.waitNanos();
+            mx.resetPeakThreadCount();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                if (recording) {
+                    synchronized (this) {
+                        maxSubscribers = Math.max(maxSubscribers, notifier.subscribers());
+                        if (limiter != null) {
+                            maxActive = Math.max(maxActive, limiter.active());
+                            maxWaiting = Math.max(maxWaiting, limiter.waiting());
+                        }
+                    }
+                }
+                sleep(100);
+            }
+        }
+
+        synchronized Map<String, Object> summary() {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("threads_plateforme_max", mx.getPeakThreadCount());
+            s.put("abonnes_sse_max", maxSubscribers);
+            if (limiter != null) {
+                s.put("sql_permis", limiter.maxConcurrency());
+                s.put("sql_actifs_max", maxActive);
+                s.put("sql_en_attente_max", maxWaiting);
+                s.put("sql_attente_totale_ms", (limiter.waitNanos() - waitStart) / 1_000_000);
+                s.put("sql_rejets", limiter.rejected());
+            }
+            if (routing != null) {
+                s.put("lectures_replique", routing.replicaReads());
+                s.put("replis_primaire", routing.fallbacks());
+            }
+            return s;
+        }
+
+        private static ConcurrencyLimitedDataSource limiter(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                        ? dataSource.unwrap(ConcurrencyLimitedDataSource.class) : null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+    }
+
+    // ─── HTTP ─────────────────────────────────────────────────────────────────
+
+    private void get(String name, String path, boolean auth) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofMinutes(1)).GET();
+        if (auth) request.header("Authorization", "Bearer " + token);
+        send(name, request.build());
+    }
+
+    private boolean send(String name, HttpRequest request) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                body.transferTo(OutputStreamSink.INSTANCE);
+            }
+            ok = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (recording) recorder(name).record(System.nanoTime() - start, ok);
+        return ok;
+    }
+
+    private String login(String password) throws IOException, InterruptedException {
+        String body = json.writeValueAsString(Map.of("username", "admin", "password", password));
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode node = json.readTree(response.body());
+        if (!node.has("token")) throw new IllegalStateException("Connexion impossible : " + response.body());
+        return node.get("token").asString();
+    }
+
+    private static byte[] multipart(String boundary, String field, String filename, byte[] content) {
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + field + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/zip\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        return body;
+    }
+
+    /** Discards response bodies after reading them fully, as a browser would download them. */
+    private static final class OutputStreamSink extends java.io.OutputStream {
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+    }
+
+    // ─── Report ───────────────────────────────────────────────────────────────
+
+    private Recorder recorder(String name) {
+        return recorders.computeIfAbsent(name, k -> new Recorder());
+    }
+
+    /** Latencies of one request type, in nanoseconds. */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private volatile long elapsedNanos;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+
+        synchronized Map<String, Object> summary() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("requetes", count);
+            s.put("erreurs", errors);
+            s.put("debit_par_s", seconds > 0 ? Math.round(count / seconds * 10) / 10.0 : 0.0);
+            s.put("p50_ms", percentile(sorted, 0.50));
+            s.put("p90_ms", percentile(sorted, 0.90));
+            s.put("p95_ms", percentile(sorted, 0.95));
+            s.put("p99_ms", percentile(sorted, 0.99));
+            s.put("max_ms", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+            return s;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0.0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return Math.round(sorted[Math.max(0, index)] / 1e4) / 100.0;
+        }
+    }
+
+    private void report() throws IOException {
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%n%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "requête", "nb", "err", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        recorders.forEach((name, recorder) -> {
+            Map<String, Object> s = recorder.summary();
+            results.put(name, s);
+            System.out.printf(Locale.ROOT, "%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    s.get("requetes"), s.get("erreurs"), s.get("debit_par_s"), s.get("p50_ms"), s.get("p90_ms"),
+                    s.get("p95_ms"), s.get("p99_ms"), s.get("max_ms"));
+        });
+
+        System.out.println();
+        server.forEach((k, v) -> System.out.printf("%-24s %s%n", k, v));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("options", options);
+        out.put("proprietes", appProperties);
+        out.put("resultats", results);
+        out.put("serveur", server);
+        Path file = Path.of(options.get("out"));
+        if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+        json.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), out);
+        System.out.println("[loadtest] résultats : " + file.toAbsolutePath());
+    }
+
+    // ─── Helpers ──────────────────────────────────────────────────────────────
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
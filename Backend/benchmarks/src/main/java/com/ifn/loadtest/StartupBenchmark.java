@@ -0,0 +1,241 @@
+package com.ifn.loadtest;
+
+import com.ifn.tools.SyntheticData;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup benchmark: starts the packaged application as a fresh JVM several times per
+ * variant and measures, from process launch, the time to
+ *
+ *   login      first successful POST /api/auth/login
+ *   dashboard  first GET /api/dashboard/all served with that token
+ *
+ * Variants go from the plain jar to the startup profile (mvn -Pstartup verify in Backend/):
+ *
+ *   jar          java -jar target/ifn_2026-0.0.1-SNAPSHOT.jar
+ *   extrait      the jar extracted to target/application/
+ *   cds          + -XX:SharedArchiveFile=application.jsa
+ *   cds+aot      + -Dspring.aot.enabled=true
+ *   cds+aot+lazy + -Dspring.profiles.active=startup
+ *
+ * The application runs on an in-memory H2 database (loadtest/schema-h2.sql) holding a small
+ * SyntheticData campaign, so the times exclude PostgreSQL connection set-up but include
+ * Hibernate and the first dashboard queries.
+ *
+ *   java -cp target/benchmarks.jar com.ifn.loadtest.StartupBenchmark --runs=5
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+    private final Map<String, String> options = new LinkedHashMap<>(Map.of(
+        "jar", "../target/ifn_2026-0.0.1-SNAPSHOT.jar", "app", "../target/application",
+        "runs", "5", "timeout", "180", "plots", "1000", "variants", "jar,extrait,cds,cds+aot,cds+aot+lazy",
+        "out", "target/startup-result.json"));
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final JsonMapper json = JsonMapper.builder().build();
+    private Path work;
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run(args);
+    }
+
+    private void run(String[] args) throws Exception {
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (!options.containsKey(kv[0]) || kv.length != 2) throw new IllegalArgumentException("Option inconnue : " + arg);
+            options.put(kv[0], kv[1]);
+        }
+        work = Files.createTempDirectory("ifn-startup");
+        try (InputStream schema = StartupBenchmark.class.getResourceAsStream("/loadtest/schema-h2.sql")) {
+            Files.copy(Objects.requireNonNull(schema), work.resolve("init-h2.sql"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        writeData(new SyntheticData(SyntheticData.Options.of(Integer.parseInt(options.get("plots")))));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%-14s %4s %12s %12s %12s %12s%n",
+                "variante", "n", "spring s", "login ms", "dashboard ms", "min–max ms");
+        for (String variant : options.get("variants").split(",")) {
+            List<Run> runs = new ArrayList<>();
+            for (int i = 0; i < Integer.parseInt(options.get("runs")); i++) {
+                runs.add(start(variant));
+            }
+            Map<String, Object> s = summary(runs);
+            results.put(variant, s);
+            System.out.printf(Locale.ROOT, "%-14s %4d %12.2f %12d %12d %7d–%d%n", variant, runs.size(),
+                    s.get("spring_s"), s.get("login_ms"), s.get("dashboard_ms"), s.get("dashboard_min_ms"), s.get("dashboard_max_ms"));
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("options", options);
+        out.put("java", Runtime.version().toString());
+        out.put("processeurs", Runtime.getRuntime().availableProcessors());
+        out.put("resultats", results);
+        Path file = Path.of(options.get("out"));
+        if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+        json.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), out);
+        System.out.println("[startup] résultats : " + file.toAbsolutePath());
+    }
+
+    /** The campaign as INSERT statements, appended to the schema run by each started application. */
+    private void writeData(SyntheticData data) throws IOException {
+        try (Writer out = Files.newBufferedWriter(work.resolve("init-h2.sql"), StandardOpenOption.APPEND)) {
+            String programme = "INSERT INTO ifn_programme (" + String.join(",", SyntheticData.PROGRAMME_COLUMNS) + ") VALUES ";
+            String plot = "INSERT INTO plot (" + String.join(",", SyntheticData.PLOT_DB_COLUMNS) + ") VALUES ";
+            List<IOException> failed = new ArrayList<>();
+            data.forEachProgramme(row -> write(out, programme, row, failed));
+            data.forEachPlot(0, data.options().plots(), row -> write(out, plot, row, failed));
+            if (!failed.isEmpty()) throw failed.getFirst();
+        }
+    }
+
+    private static void write(Writer out, String insert, Object[] row, List<IOException> failed) {
+        StringBuilder sql = new StringBuilder(insert).append('(');
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) sql.append(',');
+            Object v = row[i];
+            if (v == null) sql.append("NULL");
+            else if (v instanceof Number) sql.append(v);
+            else if (v instanceof Timestamp t) sql.append("TIMESTAMP '").append(t).append('\'');
+            else sql.append('\'').append(v.toString().replace("'", "''")).append('\'');
+        }
+        try {
+            out.write(sql.append(");\n").toString());
+        } catch (IOException e) {
+            failed.add(e);
+        }
+    }
+
+    // ─── One start ────────────────────────────────────────────────────────────
+
+    /** Start-up times of one run, in milliseconds; spring is the time logged by Spring Boot. */
+    private record Run(long loginMs, long dashboardMs, double springSeconds) {}
+
+    private Run start(String variant) throws IOException, InterruptedException {
+        Path app = Path.of(options.get("app")).toAbsolutePath();
+        Path jar = Path.of(options.get("jar")).toAbsolutePath();
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (variant.contains("cds")) command.add("-XX:SharedArchiveFile=application.jsa");
+        if (variant.contains("aot")) command.add("-Dspring.aot.enabled=true");
+        if (variant.contains("lazy")) command.add("-Dspring.profiles.active=startup");
+        command.add("-jar");
+        // Run from target/application/ like the training run: CDS checks the class path as given
+        command.add(variant.equals("jar") ? jar.toString() : jar.getFileName().toString());
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String db = "startup" + System.nanoTime();
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:" + db + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                // Run by Hibernate once it created the tables: with AOT, spring.sql.init ordering
+                // (defer-datasource-initialization) is fixed at build time
+                "--spring.jpa.properties.jakarta.persistence.sql-load-script-source=file:" + work.resolve("init-h2.sql"),
+                "--spring.jpa.properties.hibernate.hbm2ddl.import_files_sql_extractor=org.hibernate.tool.schema.internal.script.MultiLineSqlScriptExtractor",
+                "--app.dashboard.materialized-views.enabled=false",
+                "--app.field-package.cache-dir=" + work.resolve("packages"),
+                "--app.tiles.cache-dir=" + work.resolve("tiles"),
+                "--app.export.cache-dir=" + work.resolve("export"),
+                "--app.users.admin.password=startup",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ifn.Ifn2026Application=INFO"));
+
+        Path log = work.resolve(variant.replace('+', '-') + ".log");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(app.toFile()).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            String base = "http://localhost:" + port;
+            long deadline = start + Duration.ofSeconds(Long.parseLong(options.get("timeout"))).toNanos();
+            String token = null;
+            long loginAt = 0;
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                if (token == null) {
+                    token = login(base);
+                    loginAt = System.nanoTime();
+                } else if (dashboard(base, token)) {
+                    long dashboardAt = System.nanoTime();
+                    return new Run((loginAt - start) / 1_000_000, (dashboardAt - start) / 1_000_000, springSeconds(log));
+                }
+                if (token == null) Thread.sleep(10);
+            }
+            throw new IllegalStateException("Démarrage « " + variant + " » sans réponse, voir " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private String login(String base) throws InterruptedException {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"startup\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? json.readTree(response.body()).get("token").asString() : null;
+        } catch (IOException e) {
+            return null;            // not listening yet
+        }
+    }
+
+    private boolean dashboard(String base, String token) throws InterruptedException {
+        try {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(base + "/api/dashboard/all"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET().build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static double springSeconds(Path log) throws IOException {
+        Matcher m = STARTED.matcher(Files.readString(log));
+        return m.find() ? Double.parseDouble(m.group(1)) : Double.NaN;
+    }
+
+    // ─── Report ───────────────────────────────────────────────────────────────
+
+    /** Medians over the runs, and the spread of the dashboard time. */
+    private static Map<String, Object> summary(List<Run> runs) {
+        long[] login = runs.stream().mapToLong(Run::loginMs).sorted().toArray();
+        long[] dashboard = runs.stream().mapToLong(Run::dashboardMs).sorted().toArray();
+        double[] spring = runs.stream().mapToDouble(Run::springSeconds).sorted().toArray();
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("executions", runs.size());
+        s.put("spring_s", spring[spring.length / 2]);
+        s.put("login_ms", login[login.length / 2]);
+        s.put("dashboard_ms", dashboard[dashboard.length / 2]);
+        s.put("dashboard_min_ms", dashboard[0]);
+        s.put("dashboard_max_ms", dashboard[dashboard.length - 1]);
+        return s;
+    }
+}
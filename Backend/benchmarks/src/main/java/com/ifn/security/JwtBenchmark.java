@@ -0,0 +1,53 @@
+package com.ifn.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token handling: signing, full signature verification (JwtUtil.parse) and the
+ * per-request path through TokenVerifier's cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private TokenVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-benchmark-secret-benchmark-secret-0123456789", 3_600_000, Clock.systemUTC());
+        verifier = new TokenVerifier(jwtUtil, new SimpleMeterRegistry(), Clock.systemUTC(), 10_000);
+        token = jwtUtil.generate("admin");
+        verifier.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generate("admin");
+    }
+
+    @Benchmark
+    public Object parse() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return jwtUtil.isValid(token);
+    }
+
+    @Benchmark
+    public Optional<String> verifyCached() {
+        return verifier.verify(token);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ifn.service;
+
+import com.ifn.entity.IfnProgramme;
+import com.ifn.entity.Plot;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IfnProgrammeService.toGeoJson / PlotService.toGeoJson, alone and followed by the JSON
+ * serialisation the controllers hand to Jackson, at 1k / 10k / 100k features.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GeoJsonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int features;
+
+    // toGeoJson reads neither the repositories nor the index
+    private final IfnProgrammeService programmeService = new IfnProgrammeService(null, null, null);
+    private final PlotService plotService = new PlotService(null, null);
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    private List<IfnProgramme> placettes;
+    private List<Plot> plots;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        placettes = new ArrayList<>(features);
+        plots = new ArrayList<>(features);
+        for (int i = 0; i < features; i++) {
+            double lon = -6.9 + random.nextDouble() * 1.6;
+            double lat = 33.6 + random.nextDouble() * 1.2;
+
+            IfnProgramme p = new IfnProgramme();
+            p.setNumPlacette(String.valueOf(100000 + i));
+            p.setXCentre(lon);
+            p.setYCentre(lat);
+            p.setAltitude(random.nextInt(1, 2500));
+            p.setPente(random.nextInt(0, 60));
+            p.setExposition(random.nextInt(0, 360));
+            p.setStrateCartographique("CHL" + random.nextInt(1, 9));
+            p.setEssenceGroup("Chênes");
+            p.setEssenceAbr("CHL");
+            p.setDranef("Rabat-Salé-Kénitra");
+            p.setDpanef("Kénitra");
+            p.setEquipe("Equipe N°" + (1 + i % 12));
+            p.setXRepere(lon + 0.0005);
+            p.setYRepere(lat + 0.0005);
+            p.setDistanceRepere(random.nextDouble() * 80);
+            p.setAzimutRepere(random.nextDouble() * 400);
+            p.setDescriptionRepere("Borne kilométrique");
+            placettes.add(p);
+
+            Plot plot = new Plot();
+            plot.setPlotNo(p.getNumPlacette());
+            plot.setPlotCoordinateCenterX(lon + 0.00005);
+            plot.setPlotCoordinateCenterY(lat - 0.00005);
+            plot.setPlotElevation(p.getAltitude());
+            plot.setPlotPente(p.getPente() + 0.5);
+            plot.setPlotExposition(p.getExposition());
+            plot.setPlotStratum(p.getStrateCartographique());
+            plot.setStrateTerrainEssence("Chêne liège");
+            plot.setPlotDranef(p.getDranef());
+            plot.setPlotDpanef(p.getDpanef());
+            plot.setPlotValide(random.nextBoolean());
+            plot.setPlotRepereCoordX(p.getXRepere());
+            plot.setPlotRepereCoordY(p.getYRepere());
+            plot.setPlotDistanceCentre(p.getDistanceRepere());
+            plot.setPlotAzimutCentre(random.nextInt(0, 400));
+            plot.setPlotAccessibilite(random.nextInt(0, 2));
+            plots.add(plot);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> programmeToGeoJson() {
+        return programmeService.toGeoJson(placettes);
+    }
+
+    @Benchmark
+    public byte[] programmeToGeoJsonBytes() {
+        return json.writeValueAsBytes(programmeService.toGeoJson(placettes));
+    }
+
+    @Benchmark
+    public Map<String, Object> plotToGeoJson() {
+        return plotService.toGeoJson(plots);
+    }
+
+    @Benchmark
+    public byte[] plotToGeoJsonBytes() {
+        return json.writeValueAsBytes(plotService.toGeoJson(plots));
+    }
+}
@@ -0,0 +1,95 @@
+package com.ifn.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing of a Collect plot export (ImportService.parse) and the per-cell type
+ * coercion it relies on (ImportService.convert). Scores are rows (resp. cells) per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+
+    static final int ROWS = 10_000;
+    static final int CELLS = 4_096;
+
+    /** Column types as read from information_schema for the plot table (subset). */
+    private final Map<String, String> colTypes = new LinkedHashMap<>();
+
+    private byte[] csv;
+    private String[] values;
+    private String[] types;
+
+    @Setup
+    public void setUp() {
+        colTypes.put("plot_no", "character varying");
+        colTypes.put("plot_coordinate_center_x", "double precision");
+        colTypes.put("plot_coordinate_center_y", "double precision");
+        colTypes.put("plot_elevation", "integer");
+        colTypes.put("plot_pente", "double precision");
+        colTypes.put("plot_exposition", "integer");
+        colTypes.put("plot_stratum", "character varying");
+        colTypes.put("strate_terrain_essence", "character varying");
+        colTypes.put("plot_accessibilite", "integer");
+        colTypes.put("plot_center", "boolean");
+        colTypes.put("plot_valide", "boolean");
+
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder(String.join(",", colTypes.keySet()))
+                .append(",collect_only_column\n");
+        for (int i = 0; i < ROWS; i++) {
+            sb.append(100000 + i).append(',')
+              .append(-6.9 + random.nextDouble() * 1.6).append(',')
+              .append(33.6 + random.nextDouble() * 1.2).append(',')
+              .append(random.nextInt(1, 2500)).append(',')
+              .append(random.nextInt(0, 60)).append(".5,")      // integer-looking doubles are common
+              .append(random.nextInt(0, 360)).append(',')
+              .append("CHL").append(random.nextInt(1, 9)).append(',')
+              .append("\"Chêne liège, taillis\",")
+              .append(random.nextInt(0, 2)).append(',')
+              .append(random.nextBoolean() ? "true" : "0").append(',')
+              .append(random.nextBoolean() ? "oui" : "").append(',')
+              .append("ignored\n");
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        String[][] samples = {
+            {"1234", "integer"}, {"12.0", "integer"}, {"abc", "integer"},
+            {"-6.54321", "double precision"}, {"n/a", "double precision"},
+            {"true", "boolean"}, {"oui", "boolean"}, {"Chêne liège", "character varying"}, {" ", "integer"}
+        };
+        values = new String[CELLS];
+        types = new String[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            String[] s = samples[random.nextInt(samples.length)];
+            values[i] = s[0];
+            types[i] = s[1];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportService.ParsedCsv parseCsv() throws IOException {
+        return ImportService.parse(csv, colTypes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void convert(Blackhole bh) {
+        for (int i = 0; i < CELLS; i++) {
+            bh.consume(ImportService.convert(values[i], types[i]));
+        }
+    }
+}
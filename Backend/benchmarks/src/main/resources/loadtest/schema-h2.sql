@@ -0,0 +1,91 @@
+-- ─────────────────────────────────────────────────────────────────────────────
+-- H2 (MODE=PostgreSQL, DATABASE_TO_LOWER=TRUE) stand-in for the PostgreSQL objects the load
+-- and startup tests exercise. Runs after Hibernate created ifn_programme and plot from the entities.
+--
+-- The v_* dashboard views are not versioned in db/; these definitions return the columns
+-- the dashboard reads, so their cost is only indicative of the PostgreSQL ones.
+-- ─────────────────────────────────────────────────────────────────────────────
+
+-- PostgreSQL DATE(timestamp); compiled by H2, so the script needs nothing on the classpath
+CREATE ALIAS IF NOT EXISTS "date" AS '
+java.sql.Date date(java.sql.Timestamp t) {
+    return t == null ? null : java.sql.Date.valueOf(t.toLocalDateTime().toLocalDate());
+}';
+
+-- add_plot_kind.sql
+ALTER TABLE plot ADD COLUMN IF NOT EXISTS plot_kind VARCHAR(2)
+    GENERATED ALWAYS AS (
+        CASE WHEN plot_no LIKE '%CS' THEN 'CS'
+             WHEN plot_no LIKE '%C'  THEN 'C'
+             ELSE 'R' END
+    );
+ALTER TABLE plot ADD COLUMN IF NOT EXISTS plot_no_base VARCHAR(50)
+    GENERATED ALWAYS AS (
+        CASE WHEN plot_no LIKE '%CS' THEN LEFT(plot_no, LENGTH(plot_no) - 2)
+             WHEN plot_no LIKE '%C'  THEN LEFT(plot_no, LENGTH(plot_no) - 1)
+             ELSE plot_no END
+    );
+-- Set by a trigger in PostgreSQL (create_trigger_date_modified.sql)
+ALTER TABLE plot ALTER COLUMN date_modified SET DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_plot_kind_date_modified ON plot (plot_kind, date_modified);
+CREATE INDEX IF NOT EXISTS idx_plot_no_base_kind ON plot (plot_no_base, plot_kind);
+
+CREATE VIEW IF NOT EXISTS plot_controle AS
+SELECT p.* FROM plot p WHERE p.plot_kind = 'C';
+
+-- Collect tree table (columns of SyntheticData.TREE_COLUMNS)
+CREATE TABLE IF NOT EXISTS tree (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    plot_plot_no       VARCHAR(50),
+    tree_no            INTEGER,
+    tree_species_code  VARCHAR(10),
+    tree_dbh           DOUBLE PRECISION,
+    tree_height        DOUBLE PRECISION
+);
+CREATE INDEX IF NOT EXISTS idx_tree_plot_plot_no ON tree (plot_plot_no);
+
+-- create_plot_validation.sql
+CREATE TABLE IF NOT EXISTS plot_validation (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    plot_no       VARCHAR(50)  NOT NULL,
+    rule          VARCHAR(50)  NOT NULL,
+    severity      VARCHAR(20)  NOT NULL,
+    message       TEXT,
+    measure       DOUBLE PRECISION,
+    validated_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_plot_validation_plot_no ON plot_validation (plot_no);
+
+-- ─── Dashboard views ─────────────────────────────────────────────────────────
+
+CREATE VIEW IF NOT EXISTS v_kpi_global AS
+SELECT COUNT(prog.num_placette)                                       AS total_programme,
+       COUNT(pl.plot_no)                                              AS total_visitees,
+       COUNT(prog.num_placette) - COUNT(pl.plot_no)                   AS restantes,
+       ROUND(COUNT(pl.plot_no) * 100.0 / NULLIF(COUNT(prog.num_placette), 0), 1) AS pct_avancement
+FROM ifn_programme prog
+LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R';
+
+CREATE VIEW IF NOT EXISTS v_visites_par_jour AS
+SELECT d.date_visite, d.nb_placettes,
+       SUM(d.nb_placettes) OVER (ORDER BY d.date_visite) AS cumul_placettes
+FROM (SELECT DATE(date_modified) AS date_visite, COUNT(*) AS nb_placettes
+      FROM plot WHERE plot_kind = 'R' GROUP BY DATE(date_modified)) d;
+
+CREATE VIEW IF NOT EXISTS v_moy_jour_equipe AS
+SELECT DATE(pl.date_modified) AS date_visite, prog.equipe, COUNT(*) AS nb_placettes
+FROM ifn_programme prog
+JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R'
+GROUP BY DATE(pl.date_modified), prog.equipe;
+
+CREATE VIEW IF NOT EXISTS v_controle_par_equipe AS
+SELECT prog.equipe, COUNT(*) AS nb_controle
+FROM ifn_programme prog
+JOIN plot pl ON pl.plot_no_base = prog.num_placette AND pl.plot_kind = 'C'
+GROUP BY prog.equipe;
+
+CREATE VIEW IF NOT EXISTS v_controle_service_par_equipe AS
+SELECT prog.equipe, COUNT(*) AS nb_controle_service
+FROM ifn_programme prog
+JOIN plot pl ON pl.plot_no_base = prog.num_placette AND pl.plot_kind = 'CS'
+GROUP BY prog.equipe;
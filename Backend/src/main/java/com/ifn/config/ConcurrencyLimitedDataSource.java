@@ -0,0 +1,148 @@
+package com.ifn.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the connections checked out at the same time, whatever the number of request threads.
+ *
+ * A caller takes a permit before getting a connection and gives it back when the connection is
+ * closed. Permits are handed out in arrival order; a caller still waiting after acquire-timeout
+ * gets an SQLTransientConnectionException, which Spring translates to a
+ * CannotGetJdbcConnectionException.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final int maxConcurrency;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitedDataSource(DataSource target, int maxConcurrency, long acquireTimeoutMs) {
+        super(target);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // ─── Stats (see MetricsConfig) ────────────────────────────────────────────
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /** Connections currently checked out through this limiter. */
+    public int active() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /** Callers waiting for a permit. */
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    public long acquired() {
+        return acquired.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /** Total time spent waiting for a permit, in nanoseconds. */
+    public long waitNanos() {
+        return waitNanos.sum();
+    }
+
+    /** Closes the pool behind, as Spring would have without this wrapper. */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) pool.close();
+    }
+
+    // ─── Internals ────────────────────────────────────────────────────────────
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            ok = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente d'une connexion interrompue", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!ok) {
+            rejected.increment();
+            throw new SQLTransientConnectionException(
+                    "Aucune connexion disponible après " + acquireTimeoutMs + " ms ("
+                            + maxConcurrency + " requêtes SQL simultanées au plus)");
+        }
+        acquired.increment();
+    }
+
+    /** The connection, giving its permit back on the first close(). */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConcurrencyLimitedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) permits.release();
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,57 @@
+package com.ifn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // SQL concurrency cap (app.db.max-concurrency), independent of the number of request threads:
+    // with virtual threads every request gets its own thread, so the database is what must be bounded.
+    // With app.datasource.replica.url, reads are routed to a second pool (ReplicaRoutingDataSource).
+    @Bean
+    public static BeanPostProcessor dataSourceDecorator(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource
+                        || bean instanceof ReplicaRoutingDataSource) {
+                    return bean;
+                }
+                DataSource primary = dataSource;
+                int maxConcurrency = environment.getProperty("app.db.max-concurrency", Integer.class, 0);
+                if (maxConcurrency > 0) {
+                    long acquireTimeoutMs = environment.getProperty("app.db.acquire-timeout-ms", Long.class, 10_000L);
+                    primary = new ConcurrencyLimitedDataSource(primary, maxConcurrency, acquireTimeoutMs);
+                }
+
+                String replicaUrl = environment.getProperty("app.datasource.replica.url", "");
+                if (replicaUrl.isBlank()) return primary;
+                return new ReplicaRoutingDataSource(primary, replicaPool(environment, replicaUrl),
+                        environment.getProperty("app.datasource.replica.max-lag-seconds", Double.class, 30.0),
+                        environment.getProperty("app.datasource.replica.lag-check-ms", Long.class, 5_000L),
+                        environment.getRequiredProperty("app.datasource.replica.lag-query"),
+                        environment.getRequiredProperty("app.datasource.replica.primary-position-query"),
+                        environment.getRequiredProperty("app.datasource.replica.position-query"));
+            }
+        };
+    }
+
+    // Started on first use, so a replica that is down does not prevent the service from starting
+    private static HikariDataSource replicaPool(Environment environment, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setJdbcUrl(url);
+        pool.setUsername(environment.getProperty("app.datasource.replica.username"));
+        pool.setPassword(environment.getProperty("app.datasource.replica.password"));
+        pool.setMaximumPoolSize(environment.getProperty("app.datasource.replica.maximum-pool-size", Integer.class, 10));
+        pool.setConnectionTimeout(environment.getProperty("app.datasource.replica.connection-timeout-ms", Long.class, 2_000L));
+        pool.setReadOnly(true);
+        return pool;
+    }
+}
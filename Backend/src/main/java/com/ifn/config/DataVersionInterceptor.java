@@ -0,0 +1,35 @@
+package com.ifn.config;
+
+import com.ifn.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GETs on data endpoints from the current data version.
+ *
+ * Sets a strong ETag and Last-Modified on every response; when If-None-Match
+ * (or If-Modified-Since) matches, replies 304 before the controller runs any query.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+        if (!"GET".equals(req.getMethod()) && !"HEAD".equals(req.getMethod())) return true;
+
+        DataVersionService.Version v = dataVersion.current();
+        // Browsers must revalidate every time, but may reuse the body on 304
+        res.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Round down to the second: Last-Modified has no sub-second precision
+        long lastModified = v.modifiedAt() / 1000 * 1000;
+        return !new ServletWebRequest(req, res).checkNotModified(v.etag(), lastModified);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ifn.config;
+
+import com.ifn.controller.AuthController;
+import com.ifn.controller.DashboardController;
+import com.ifn.service.SyncService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LazyInitConfig {
+
+    // Beans created at startup even with spring.main.lazy-initialization=true (startup profile):
+    // the dashboard and login path with their dependencies, and beans declaring @Scheduled jobs,
+    // which are only scheduled once the bean exists.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DashboardController.class, AuthController.class, SyncService.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ifn.config;
+
+import com.ifn.service.RefreshNotifier;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfig {
+
+    // Browsers connected to /api/dashboard/events; Hikari and HTTP metrics come with Actuator
+    @Bean
+    public MeterBinder sseSubscribers(RefreshNotifier notifier) {
+        return registry -> Gauge.builder("sse.subscribers", notifier, RefreshNotifier::subscribers)
+                .description("Browsers subscribed to dashboard refresh events")
+                .register(registry);
+    }
+
+    // SQL concurrency limiter (DataSourceConfig), when app.db.max-concurrency is set
+    @Bean
+    public MeterBinder dbConcurrency(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitedDataSource limiter;
+            try {
+                if (!dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)) return;
+                limiter = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("db.concurrency.active", limiter, ConcurrencyLimitedDataSource::active)
+                    .description("Connections checked out through the SQL concurrency limiter")
+                    .register(registry);
+            Gauge.builder("db.concurrency.waiting", limiter, ConcurrencyLimitedDataSource::waiting)
+                    .description("Callers waiting for a connection permit")
+                    .register(registry);
+            Gauge.builder("db.concurrency.max", limiter, ConcurrencyLimitedDataSource::maxConcurrency)
+                    .description("Connection permits")
+                    .register(registry);
+            FunctionCounter.builder("db.concurrency.acquired", limiter, ConcurrencyLimitedDataSource::acquired)
+                    .description("Connection permits granted")
+                    .register(registry);
+            FunctionCounter.builder("db.concurrency.rejected", limiter, ConcurrencyLimitedDataSource::rejected)
+                    .description("Callers that timed out waiting for a connection permit")
+                    .register(registry);
+            FunctionCounter.builder("db.concurrency.wait", limiter,
+                            l -> l.waitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .baseUnit("seconds")
+                    .description("Total time spent waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+
+    // Read replica (DataSourceConfig), when app.datasource.replica.url is set; its pool is
+    // reported as hikaricp.* with pool=replica
+    @Bean
+    public MeterBinder dbReplica(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ReplicaRoutingDataSource routing)) return;
+            if (routing.replica() instanceof HikariDataSource pool) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            Gauge.builder("db.replica.lag", routing, ReplicaRoutingDataSource::lagSeconds)
+                    .baseUnit("seconds")
+                    .description("Last measured replication lag of the read replica")
+                    .register(registry);
+            Gauge.builder("db.replica.up", routing, r -> r.replicaUp() ? 1 : 0)
+                    .description("1 while reads go to the replica, 0 while they fall back to the primary")
+                    .register(registry);
+            FunctionCounter.builder("db.replica.reads", routing, ReplicaRoutingDataSource::replicaReads)
+                    .description("Connections served by the read replica")
+                    .register(registry);
+            FunctionCounter.builder("db.replica.fallbacks", routing, ReplicaRoutingDataSource::fallbacks)
+                    .description("Reads sent to the primary because the replica lagged or was unreachable")
+                    .register(registry);
+        };
+    }
+}
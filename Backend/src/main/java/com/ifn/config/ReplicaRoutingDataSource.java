@@ -0,0 +1,237 @@
+package com.ifn.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends reads to a replica pool and everything else to the primary pool.
+ *
+ * A connection goes to the replica inside a read-only transaction, or outside any transaction
+ * while the current request is routed to the replica (see RouteInterceptor). Route.PRIMARY pins a
+ * request to the primary. The target is chosen when the connection is first used, once the
+ * transaction's read-only flag is known.
+ *
+ * Reads fall back to the primary while the replica lags more than maxLagSeconds or refuses
+ * connections. The lag is read with lagQuery, at most every lagCheckMs, on a background thread;
+ * until the first check succeeds reads stay on the primary.
+ *
+ * Reads also stay on the primary until the replica has replayed past the last fence: fence()
+ * records the primary's WAL position (primaryPositionQuery) and is called on every data version
+ * bump, before the new version is visible. A response stamped with a version, or a snapshot cached
+ * under it, therefore never holds rows older than that version. The replica's replay position
+ * (replicaPositionQuery) is read with the lag.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final double maxLagSeconds;
+    private final long lagCheckMs;
+    private final String lagQuery;
+    private final String primaryPositionQuery;
+    private final String replicaPositionQuery;
+
+    private final AtomicLong lastCheck = new AtomicLong();
+    private final ReentrantLock lagLock = new ReentrantLock();
+    private volatile boolean replicaUp;
+    private volatile double lagSeconds = Double.NaN;
+    // WAL positions in bytes; -1 until read (the fence is then read on the next lag check)
+    private final AtomicLong fencePosition = new AtomicLong(-1);
+    private volatile long replayedPosition = -1;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    double maxLagSeconds, long lagCheckMs, String lagQuery,
+                                    String primaryPositionQuery, String replicaPositionQuery) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagCheckMs = lagCheckMs;
+        this.lagQuery = lagQuery;
+        this.primaryPositionQuery = primaryPositionQuery;
+        this.replicaPositionQuery = replicaPositionQuery;
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+    }
+
+    // ─── Request routing ──────────────────────────────────────────────────────
+
+    /** Routes the current thread's connections until clearRoute(). */
+    public static void setRoute(Route route) {
+        ROUTE.set(route);
+    }
+
+    public static void clearRoute() {
+        ROUTE.remove();
+    }
+
+    /** Whether a connection asked for now should read from the replica, replica health aside. */
+    static boolean wantsReplica() {
+        Route route = ROUTE.get();
+        if (route == Route.PRIMARY) return false;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return route == Route.REPLICA;
+    }
+
+    // ─── Stats (see MetricsConfig) ────────────────────────────────────────────
+
+    public DataSource replica() {
+        return replica;
+    }
+
+    public boolean replicaUp() {
+        return replicaUp;
+    }
+
+    /** Last measured replica lag in seconds, NaN when unknown. */
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    public long replicaReads() {
+        return replicaReads.sum();
+    }
+
+    /** Reads sent to the primary because the replica lagged or was unreachable. */
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    // ─── Fence ────────────────────────────────────────────────────────────────
+
+    /**
+     * Records the primary's current WAL position: reads stay on the primary until a lag check
+     * sees the replica past it. When the position cannot be read, reads stay on the primary
+     * until the next lag check reads it.
+     */
+    public void fence() {
+        try (Connection c = primary.getConnection()) {
+            long position = position(c, primaryPositionQuery);
+            fencePosition.accumulateAndGet(position, Math::max);
+        } catch (SQLException e) {
+            fencePosition.set(-1);
+            log.warn("Position WAL du primaire illisible : lectures sur le primaire ({})", e.getMessage());
+        }
+    }
+
+    /** Whether the replica had replayed past the last fence at the last lag check. */
+    boolean replicaCaughtUp() {
+        long fence = fencePosition.get();
+        return fence >= 0 && replayedPosition >= fence;
+    }
+
+    private static long position(Connection c, String query) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(query)) {
+            if (!rs.next()) throw new SQLException("Aucune position WAL : " + query);
+            long position = rs.getLong(1);
+            return rs.wasNull() ? -1 : position;
+        }
+    }
+
+    // ─── Replica lag ──────────────────────────────────────────────────────────
+
+    /**
+     * Measures the replica lag and replay position now; reads use the replica again once it is
+     * within maxLagSeconds and past the last fence.
+     */
+    void checkLag() {
+        lagLock.lock();
+        try {
+            lastCheck.set(System.currentTimeMillis());
+            if (fencePosition.get() < 0) fence();
+            boolean wasUp = replicaUp;
+            try (Connection c = replica.getConnection();
+                 Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery(lagQuery)) {
+                lagSeconds = rs.next() ? rs.getDouble(1) : Double.NaN;
+                replayedPosition = position(c, replicaPositionQuery);
+                replicaUp = lagSeconds <= maxLagSeconds;
+                if (!replicaUp && wasUp) {
+                    log.warn("Réplique en retard de {} s (max {} s) : lectures sur le primaire", lagSeconds, maxLagSeconds);
+                }
+            } catch (SQLException e) {
+                lagSeconds = Double.NaN;
+                replicaUp = false;
+                if (wasUp) log.warn("Réplique indisponible : lectures sur le primaire ({})", e.getMessage());
+            }
+            if (replicaUp && !wasUp) log.info("Réplique à jour ({} s de retard) : lectures sur la réplique", lagSeconds);
+        } finally {
+            lagLock.unlock();
+        }
+    }
+
+    private void checkLagIfDue() {
+        long last = lastCheck.get();
+        long now = System.currentTimeMillis();
+        if (now - last >= lagCheckMs && lastCheck.compareAndSet(last, now)) {
+            Thread.ofVirtual().name("replica-lag").start(this::checkLag);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (replica instanceof AutoCloseable c) c.close();
+        if (primary instanceof AutoCloseable c) c.close();
+    }
+
+    /** Picks the pool when the lazy connection is first used. */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!wantsReplica()) return primary.getConnection();
+            checkLagIfDue();
+            if (!replicaUp || !replicaCaughtUp()) {
+                fallbacks.increment();
+                return primary.getConnection();
+            }
+            try {
+                Connection c = replica.getConnection();
+                replicaReads.increment();
+                return c;
+            } catch (SQLException e) {
+                if (replicaUp) log.warn("Réplique indisponible : lectures sur le primaire ({})", e.getMessage());
+                replicaUp = false;
+                fallbacks.increment();
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+
+        // Pool metadata (Hikari, ConcurrencyLimitedDataSource) is the primary's
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+}
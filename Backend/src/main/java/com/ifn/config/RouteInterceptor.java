@@ -0,0 +1,35 @@
+package com.ifn.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Routes the database connections of matching requests to the replica or the primary
+ * (ReplicaRoutingDataSource). Without a replica the route is ignored.
+ */
+public class RouteInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReplicaRoutingDataSource.Route route;
+
+    public RouteInterceptor(ReplicaRoutingDataSource.Route route) {
+        this.route = route;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+        ReplicaRoutingDataSource.setRoute(route);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.clearRoute();
+    }
+
+    // Asynchronous responses finish on another thread: release this one now
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest req, HttpServletResponse res, Object handler) {
+        ReplicaRoutingDataSource.clearRoute();
+    }
+}
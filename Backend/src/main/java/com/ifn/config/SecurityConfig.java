@@ -12,6 +12,8 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Clock;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -22,6 +24,12 @@ public class SecurityConfig {
         this.jwtFilter = jwtFilter;
     }
 
+    /** Time source for token issue and expiry; static, as the filter chain depends on its users. */
+    @Bean
+    static Clock clock() {
+        return Clock.systemUTC();
+    }
+
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -34,6 +42,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/dashboard/events").permitAll()
                 .requestMatchers("/api/dashboard/notify").permitAll()     // sync script, secured by secret header
                 .requestMatchers("/api/dashboard/**").authenticated()     // only dashboard needs JWT
+                .requestMatchers(HttpMethod.POST, "/api/tiles/seed").authenticated()   // upstream bulk download
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 .anyRequest().permitAll()
             )
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,69 @@
+package com.ifn.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves the offline bundle from classpath:/static (app.static.location).
+ *
+ *   /assets/**  — content-hashed Vite output: cached one year, immutable.
+ *   /**         — index.html, sw-tiles.js, road_graph.js, roads_geojson.js, logo:
+ *                 always revalidated, with a content ETag so tablets get 304 until the file changes.
+ *
+ * Both chains pick the .br / .gz variant written at build time by StaticPrecompressor
+ * according to Accept-Encoding. Replaces Spring Boot's default "/**" static mapping.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private final String location;
+
+    /** Content hash per resource URL — bundled files never change while the JAR runs. */
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    public StaticResourceConfig(@Value("${app.static.location:classpath:/static/}") String location) {
+        this.location = location;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations(location + "assets/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/**")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.noCache())
+                .setEtagGenerator(this::etag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+
+    private String etag(Resource resource) {
+        try {
+            return etags.computeIfAbsent(resource.getURL().toString(), url -> {
+                try (InputStream in = resource.getInputStream()) {
+                    return DigestUtils.md5DigestAsHex(in);
+                } catch (IOException e) {
+                    return null;
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ifn.config;
+
+import com.ifn.service.TileService;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+public class TileConfig {
+
+    // Upstream URL templates of the tile proxy: app.tiles.source.<name>=https://…/{z}/{x}/{y}.png,
+    // and app.tiles.seedable=<name>,… the sources whose terms allow bulk prefetching
+    @Bean
+    public TileService.TileSources tileSources(Environment environment) {
+        Binder binder = Binder.get(environment);
+        Map<String, String> urls = binder
+                .bind("app.tiles.source", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        Set<String> seedable = binder
+                .bind("app.tiles.seedable", Bindable.setOf(String.class))
+                .orElse(Set.of());
+        return new TileService.TileSources(Map.copyOf(urls), Set.copyOf(seedable));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ifn.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionInterceptor dataVersionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Read replica (app.datasource.replica.url): dashboard and map reads. They stay on the primary
+        // until the replica has replayed up to the data version below (DataVersionService fences it
+        // on every bump), so a response never carries rows older than its ETag. Tablet sync stays
+        // on the primary.
+        registry.addInterceptor(new RouteInterceptor(ReplicaRoutingDataSource.Route.REPLICA))
+                .addPathPatterns("/api/dashboard/**", "/api/placettes/geojson", "/api/plots/geojson", "/api/plots/controle/geojson", "/api/drift/geojson")
+                .excludePathPatterns("/api/dashboard/events", "/api/dashboard/notify");
+        registry.addInterceptor(new RouteInterceptor(ReplicaRoutingDataSource.Route.PRIMARY))
+                .addPathPatterns("/api/sync/**");
+
+        // Conditional GET (ETag / Last-Modified) on every data endpoint.
+        // /api/plots/** also covers /api/plots/controle/**.
+        registry.addInterceptor(dataVersionInterceptor)
+                .addPathPatterns("/api/dashboard/**", "/api/placettes/**", "/api/plots/**", "/api/dendro/**", "/api/drift/**", "/api/export/**", "/api/packages/**")
+                .excludePathPatterns("/api/dashboard/events", "/api/dashboard/notify", "/api/dashboard/views");
+    }
+}
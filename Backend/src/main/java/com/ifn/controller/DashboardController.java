@@ -10,20 +10,26 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ifn.service.DashboardViewService;
+import com.ifn.service.DataVersionService;
+import com.ifn.service.MeteredJdbc;
+import com.ifn.service.PlacetteFilter;
+import com.ifn.service.PlacetteStatusService;
 import com.ifn.service.RefreshNotifier;
+import com.ifn.service.RefreshScheduler;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * REST controller exposing pre-computed PostgreSQL views for the IFN dashboard.
+ * v_* views are read through DashboardViewService, which serves their materialised copies.
  *
  * Base URL: /api/dashboard
  */
@@ -33,7 +39,12 @@ import java.util.Map;
 public class DashboardController {
 
     private final JdbcTemplate jdbc;
+    private final MeteredJdbc metered;
     private final RefreshNotifier refreshNotifier;
+    private final RefreshScheduler refreshScheduler;
+    private final DataVersionService dataVersion;
+    private final PlacetteStatusService placetteStatus;
+    private final DashboardViewService views;
 
     @Value("${app.sync.secret}")
     private String syncSecret;
@@ -49,34 +60,45 @@ public class DashboardController {
     /**
      * POST /api/dashboard/notify
      * Called by the Python sync script after a successful upsert.
-     * Fires an SSE refresh event to all connected browsers.
+     * Queues an SSE refresh event for all connected browsers (coalesced by RefreshScheduler).
      */
     @PostMapping("/notify")
     public ResponseEntity<Void> notify(
         @RequestHeader(value = "X-Sync-Secret", required = false) String secret
     ) {
         if (!syncSecret.equals(secret)) return ResponseEntity.status(403).build();
-        refreshNotifier.notifyRefresh();
+        dataVersion.bump();
+        refreshScheduler.requestRefresh();
         return ResponseEntity.ok().build();
     }
 
     /**
-     * On service startup, wait 5 seconds for browsers to reconnect then notify them.
+     * On service startup, notify browsers once the first refresh window closes.
+     * Browsers reconnecting meanwhile already get a refresh from subscribe().
      */
     @EventListener(ApplicationReadyEvent.class)
     public void onStartup() {
-        new Thread(() -> {
-            try { Thread.sleep(5_000); } catch (InterruptedException ignored) {}
-            refreshNotifier.notifyRefresh();
-        }).start();
+        refreshScheduler.requestRefresh();
     }
 
     /**
      * Every day at 00:01 — push a refresh event to all connected browsers.
+     * Also invalidates ETags: some views depend on the current date.
      */
     @Scheduled(cron = "0 1 0 * * *")
     public void dailyRefresh() {
-        refreshNotifier.notifyRefresh();
+        dataVersion.bump();
+        refreshScheduler.requestRefresh();
+    }
+
+    /**
+     * GET /api/dashboard/views
+     * Refresh state of the materialised dashboard views: source in use (mv_* or live v_*),
+     * last refresh time and duration, staleness and last error.
+     */
+    @GetMapping("/views")
+    public ResponseEntity<List<Map<String, Object>>> getViews() {
+        return ResponseEntity.ok(views.status());
     }
 
     /**
@@ -86,16 +108,16 @@ public class DashboardController {
      */
     @GetMapping("/kpi")
     public ResponseEntity<Map<String, Object>> getKpi() {
-        List<Map<String, Object>> rows = jdbc.queryForList("SELECT * FROM v_kpi_global");
+        List<Map<String, Object>> rows = views.read("v_kpi_global", "*", null);
         if (rows.isEmpty()) return ResponseEntity.ok(Map.of());
 
         Map<String, Object> kpi = new java.util.LinkedHashMap<>(rows.get(0));
 
-        // Control plots: 'C' = inter-team control, 'CS' = service control
-        Long nbControle = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM plot WHERE plot_no LIKE '%C' AND plot_no NOT LIKE '%CS'", Long.class);
-        Long nbControleService = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM plot WHERE plot_no LIKE '%CS'", Long.class);
+        // Control plots: 'C' = inter-team control, 'CS' = service control (plot.plot_kind, see add_plot_kind.sql)
+        Long nbControle = metered.queryForObject("dashboard.kpi.nb_controle",
+                "SELECT COUNT(*) FROM plot WHERE plot_kind = 'C'", Long.class);
+        Long nbControleService = metered.queryForObject("dashboard.kpi.nb_controle_service",
+                "SELECT COUNT(*) FROM plot WHERE plot_kind = 'CS'", Long.class);
         long ctrl   = nbControle        != null ? nbControle        : 0L;
         long ctrlCS = nbControleService  != null ? nbControleService  : 0L;
 
@@ -103,14 +125,14 @@ public class DashboardController {
         long totalVisitees = ((Number) kpi.get("total_visitees")).longValue();
         long totalProgramme = ((Number) kpi.get("total_programme")).longValue();
         // Count distinct working days directly — same logic as v_visites_par_jour
-        Long nbJoursRaw = jdbc.queryForObject(
-                "SELECT COUNT(DISTINCT DATE(date_modified)) FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'",
+        Long nbJoursRaw = metered.queryForObject("dashboard.kpi.nb_jours",
+                "SELECT COUNT(DISTINCT DATE(date_modified)) FROM plot WHERE plot_kind = 'R'",
                 Long.class);
         long nbJours = nbJoursRaw != null ? nbJoursRaw : 1L;
 
         // Last realized plot date
-        java.time.LocalDate lastVisit = jdbc.queryForObject(
-                "SELECT MAX(DATE(date_modified)) FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'",
+        java.time.LocalDate lastVisit = metered.queryForObject("dashboard.kpi.derniere_visite",
+                "SELECT MAX(DATE(date_modified)) FROM plot WHERE plot_kind = 'R'",
                 java.time.LocalDate.class);
 
         kpi.put("nb_controle",         ctrl);
@@ -143,18 +165,18 @@ public class DashboardController {
                 "  ROUND(COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) * 1.0 / " +
                 "        NULLIF(COUNT(DISTINCT DATE(pl.date_modified)), 0), 1)                AS moy_par_jour " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)";
-        return ResponseEntity.ok(jdbc.queryForList(sql));
+        return ResponseEntity.ok(metered.queryForList("dashboard.equipes", sql));
     }
 
     /**
      * GET /api/dashboard/strates
      * Progress per cartographic stratum.
      * Visited count comes from plot.plot_stratum (first 3 chars matched to strate_cartographique),
-     * excluding control plots (plot_no LIKE '%C').
+     * excluding control plots (plot_kind <> 'R').
      */
     @GetMapping("/strates")
     public ResponseEntity<List<Map<String, Object>>> getStrates() {
@@ -167,11 +189,11 @@ public class DashboardController {
                 "        * 100.0 / NULLIF(COUNT(prog.num_placette), 0), 1)                    AS pct_avancement " +
                 "FROM ifn_programme prog " +
                 "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "  AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "  AND pl.plot_kind = 'R' " +
                 "WHERE prog.strate_cartographique IS NOT NULL " +
                 "GROUP BY prog.strate_cartographique " +
                 "ORDER BY total_visite DESC, total_programme DESC";
-        return ResponseEntity.ok(jdbc.queryForList(sql));
+        return ResponseEntity.ok(metered.queryForList("dashboard.strates", sql));
     }
 
     /**
@@ -183,7 +205,7 @@ public class DashboardController {
     public ResponseEntity<Map<String, Object>> getAccessibilite() {
         // Global — exclude control plots; split plot_accessibility_a_pied into 3 distance categories
         // 0 = < 100 m  |  1 = 100–500 m  |  2 = > 500 m
-        Map<String, Object> raw = jdbc.queryForMap(
+        Map<String, Object> raw = metered.queryForMap("dashboard.accessibilite.global",
                 "SELECT " +
                 "  COUNT(*) AS total_visitees, " +
                 "  SUM(CASE WHEN plot_accessibilite        = 1 THEN 1 ELSE 0 END) AS nb_accessible, " +
@@ -191,7 +213,7 @@ public class DashboardController {
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 0 THEN 1 ELSE 0 END) AS nb_a_pied_0, " +
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 1 THEN 1 ELSE 0 END) AS nb_a_pied_1, " +
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 2 THEN 1 ELSE 0 END) AS nb_a_pied_2  " +
-                "FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'");
+                "FROM plot WHERE plot_kind = 'R'");
 
         long total      = ((Number) raw.get("total_visitees")).longValue();
         long accessible = ((Number) raw.get("nb_accessible")).longValue();
@@ -200,7 +222,7 @@ public class DashboardController {
         global.put("pct_accessible", total > 0 ? (accessible * 100.0 / total) : 0.0);
 
         // Per-equipe — same 3-category split, excluding control plots
-        List<Map<String, Object>> equipeRows = jdbc.queryForList(
+        List<Map<String, Object>> equipeRows = metered.queryForList("dashboard.accessibilite.equipes",
                 "SELECT prog.equipe, " +
                 "  COUNT(*) AS total_visite, " +
                 "  SUM(CASE WHEN pl.plot_accessibilite        = 1 THEN 1 ELSE 0 END) AS nb_accessible, " +
@@ -211,7 +233,7 @@ public class DashboardController {
                 "  ROUND(SUM(CASE WHEN pl.plot_accessibilite = 1 THEN 1 ELSE 0 END) * 100.0 / COUNT(*), 1) AS pct_accessible " +
                 "FROM ifn_programme prog " +
                 "JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "WHERE pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "WHERE pl.plot_kind = 'R' " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)");
 
@@ -228,10 +250,10 @@ public class DashboardController {
      */
     @GetMapping("/temporel")
     public ResponseEntity<Map<String, Object>> getTemporel() {
-        List<Map<String, Object>> parJour    = jdbc.queryForList("SELECT * FROM v_visites_par_jour ORDER BY date_visite");
-        List<Map<String, Object>> moyEquipe  = jdbc.queryForList("SELECT * FROM v_moy_jour_equipe ORDER BY date_visite, equipe");
+        List<Map<String, Object>> parJour    = views.read("v_visites_par_jour", "*", "date_visite");
+        List<Map<String, Object>> moyEquipe  = views.read("v_moy_jour_equipe", "*", "date_visite, equipe");
         // Per-team productivity: nb_jours = distinct working days per team (not global)
-        List<Map<String, Object>> productivite = jdbc.queryForList(
+        List<Map<String, Object>> productivite = metered.queryForList("dashboard.temporel.productivite",
                 "SELECT prog.equipe, " +
                 "  COUNT(prog.num_placette)                                                  AS total_affecte, " +
                 "  COUNT(pl.plot_no)                                                         AS total_visite, " +
@@ -242,15 +264,15 @@ public class DashboardController {
                 "       NULLIF(ROUND(COUNT(pl.plot_no) * 1.0 / " +
                 "              NULLIF(COUNT(DISTINCT DATE(pl.date_modified)), 0), 1), 0))    AS jours_restants_estimes " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)");
         // SREA control team: C plots only (not CS), grouped by day
-        List<Map<String, Object>> sreaParJour = jdbc.queryForList(
+        List<Map<String, Object>> sreaParJour = metered.queryForList("dashboard.temporel.srea_par_jour",
                 "SELECT DATE(date_modified) AS date_visite, COUNT(*) AS nb_visite " +
                 "FROM plot " +
-                "WHERE plot_no LIKE '%C' AND plot_no NOT LIKE '%CS' " +
+                "WHERE plot_kind = 'C' " +
                 "GROUP BY DATE(date_modified) " +
                 "ORDER BY date_visite");
 
@@ -265,7 +287,7 @@ public class DashboardController {
     /**
      * GET /api/dashboard/essences
      * Visited plot counts grouped by strate_terrain_essence (field-recorded species code).
-     * Excludes control plots (plot_no LIKE '%C').
+     * Excludes control plots (plot_kind <> 'R').
      */
     @GetMapping("/essences")
     public ResponseEntity<List<Map<String, Object>>> getEssences() {
@@ -273,10 +295,10 @@ public class DashboardController {
                 "SELECT COALESCE(pl.strate_terrain_essence, 'Non recensé') AS essence, COUNT(*) AS total_visite " +
                 "FROM ifn_programme prog " +
                 "JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "  AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "  AND pl.plot_kind = 'R' " +
                 "GROUP BY COALESCE(pl.strate_terrain_essence, 'Non recensé') " +
                 "ORDER BY total_visite DESC";
-        return ResponseEntity.ok(jdbc.queryForList(sql));
+        return ResponseEntity.ok(metered.queryForList("dashboard.essences", sql));
     }
 
     /**
@@ -292,11 +314,11 @@ public class DashboardController {
                 "  COUNT(pl.plot_no) AS nb_visite " +
                 "FROM ifn_programme prog " +
                 "JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "  AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "  AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe, COALESCE(pl.strate_terrain_essence, 'Non recensé') " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER), nb_visite DESC";
-        return ResponseEntity.ok(jdbc.queryForList(sql));
+        return ResponseEntity.ok(metered.queryForList("dashboard.strates_par_equipe", sql));
     }
 
     /**
@@ -315,60 +337,62 @@ public class DashboardController {
                 "        * 100.0 / NULLIF(COUNT(prog.num_placette), 0), 1)                        AS pct_avancement " +
                 "FROM ifn_programme prog " +
                 "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "                 AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "                 AND pl.plot_kind = 'R' " +
                 "WHERE prog.essence_group IS NOT NULL " +
                 "GROUP BY prog.essence_group " +
                 "ORDER BY total_visite DESC, total_programme DESC";
-        return ResponseEntity.ok(jdbc.queryForList(sql));
+        return ResponseEntity.ok(metered.queryForList("dashboard.groupes", sql));
     }
 
     /**
      * GET /api/dashboard/map
-     * GeoJSON FeatureCollection joining ifn_programme + plot.
-     * Each feature carries statut (visitee/programmee) and accessibility fields.
+     * GeoJSON FeatureCollection of ifn_programme, each feature carrying its visit statut
+     * (programmee/visitee/controle) and accessibility fields.
+     * Statuses come precomputed from PlacetteStatusService; only ifn_programme is queried.
      */
     @GetMapping("/map")
     public ResponseEntity<Map<String, Object>> getMapData() {
-        // Two separate joins: regular visit (exact match) + control visit (num_placette + 'C')
+        Map<String, PlacetteStatusService.Status> statuses = placetteStatus.current();
         String sql =
-                "SELECT p.num_placette, p.x_centre AS lon, p.y_centre AS lat, " +
-                "p.equipe, p.strate_cartographique AS strate, p.essence_group, p.dpanef, " +
-                "p.altitude, p.pente, p.x_repere, p.y_repere, " +
-                "p.description_repere, p.distance_repere, p.azimut_repere, " +
-                "CASE WHEN cs.plot_no  IS NOT NULL THEN 'controle' " +
-                "     WHEN ctrl.plot_no IS NOT NULL THEN 'controle' " +
-                "     WHEN reg.plot_no  IS NOT NULL THEN 'visitee' " +
-                "     ELSE 'programmee' END AS statut, " +
-                "COALESCE(reg.plot_accessibilite, ctrl.plot_accessibilite, cs.plot_accessibilite) AS accessibilite, " +
-                "COALESCE(reg.plot_accessibility_a_pied, ctrl.plot_accessibility_a_pied, cs.plot_accessibility_a_pied) AS a_pied, " +
-                "COALESCE(reg.date_modified, ctrl.date_modified, cs.date_modified) AS date_modified " +
-                "FROM ifn_programme p " +
-                "LEFT JOIN plot reg  ON reg.plot_no  = p.num_placette " +
-                "LEFT JOIN plot ctrl ON ctrl.plot_no = p.num_placette || 'C' " +
-                "LEFT JOIN plot cs   ON cs.plot_no   = p.num_placette || 'CS' " +
-                "WHERE p.x_centre IS NOT NULL AND p.y_centre IS NOT NULL";
-
-        List<Map<String, Object>> rows = jdbc.queryForList(sql);
-        List<Map<String, Object>> features = new ArrayList<>(rows.size());
-
-        for (Map<String, Object> row : rows) {
-            double lon = ((Number) row.get("lon")).doubleValue();
-            double lat = ((Number) row.get("lat")).doubleValue();
+                "SELECT num_placette, x_centre, y_centre, " +
+                "equipe, strate_cartographique, essence_group, dpanef, " +
+                "altitude, pente, x_repere, y_repere, " +
+                "description_repere, distance_repere, azimut_repere " +
+                "FROM ifn_programme " +
+                "WHERE x_centre IS NOT NULL AND y_centre IS NOT NULL";
+
+        List<Map<String, Object>> features = metered.timed("dashboard.map", () -> jdbc.query(sql, (rs, rowNum) -> {
+            String num = rs.getString("num_placette");
+            PlacetteStatusService.Status st = statuses.get(num);
 
             Map<String, Object> geometry = new LinkedHashMap<>();
             geometry.put("type", "Point");
-            geometry.put("coordinates", new double[]{lon, lat});
-
-            Map<String, Object> props = new LinkedHashMap<>(row);
-            props.remove("lon");
-            props.remove("lat");
+            geometry.put("coordinates", new double[]{rs.getDouble("x_centre"), rs.getDouble("y_centre")});
+
+            Map<String, Object> props = new LinkedHashMap<>();
+            props.put("num_placette",       num);
+            props.put("equipe",             rs.getString("equipe"));
+            props.put("strate",             rs.getString("strate_cartographique"));
+            props.put("essence_group",      rs.getString("essence_group"));
+            props.put("dpanef",             rs.getString("dpanef"));
+            props.put("altitude",           rs.getObject("altitude"));
+            props.put("pente",              rs.getObject("pente"));
+            props.put("x_repere",           rs.getObject("x_repere"));
+            props.put("y_repere",           rs.getObject("y_repere"));
+            props.put("description_repere", rs.getString("description_repere"));
+            props.put("distance_repere",    rs.getObject("distance_repere"));
+            props.put("azimut_repere",      rs.getObject("azimut_repere"));
+            props.put("statut",             st != null ? st.statut() : PlacetteFilter.PROGRAMMEE);
+            props.put("accessibilite",      st != null ? st.accessibilite() : null);
+            props.put("a_pied",             st != null ? st.aPied() : null);
+            props.put("date_modified",      st != null ? st.dateModified() : null);
 
             Map<String, Object> feature = new LinkedHashMap<>();
             feature.put("type", "Feature");
             feature.put("geometry", geometry);
             feature.put("properties", props);
-            features.add(feature);
-        }
+            return feature;
+        }));
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("type", "FeatureCollection");
@@ -384,7 +408,7 @@ public class DashboardController {
     @GetMapping("/controle-par-equipe")
     public ResponseEntity<List<Map<String, Object>>> getControleParEquipe() {
         return ResponseEntity.ok(
-            jdbc.queryForList("SELECT equipe, nb_controle FROM v_controle_par_equipe")
+            views.read("v_controle_par_equipe", "equipe, nb_controle", null)
         );
     }
 
@@ -395,7 +419,7 @@ public class DashboardController {
     @GetMapping("/controle-service-par-equipe")
     public ResponseEntity<List<Map<String, Object>>> getControleServiceParEquipe() {
         return ResponseEntity.ok(
-            jdbc.queryForList("SELECT equipe, nb_controle_service FROM v_controle_service_par_equipe")
+            views.read("v_controle_service_par_equipe", "equipe, nb_controle_service", null)
         );
     }
 
@@ -409,23 +433,23 @@ public class DashboardController {
         Map<String, Object> result = new LinkedHashMap<>();
 
         // ── KPI ──────────────────────────────────────────────────────────────
-        List<Map<String, Object>> kpiRows = jdbc.queryForList("SELECT * FROM v_kpi_global");
+        List<Map<String, Object>> kpiRows = views.read("v_kpi_global", "*", null);
         Map<String, Object> kpi = kpiRows.isEmpty() ? new LinkedHashMap<>() : new LinkedHashMap<>(kpiRows.get(0));
 
-        Long nbControle = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM plot WHERE plot_no LIKE '%C' AND plot_no NOT LIKE '%CS'", Long.class);
-        Long nbControleService = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM plot WHERE plot_no LIKE '%CS'", Long.class);
+        Long nbControle = metered.queryForObject("dashboard.kpi.nb_controle",
+                "SELECT COUNT(*) FROM plot WHERE plot_kind = 'C'", Long.class);
+        Long nbControleService = metered.queryForObject("dashboard.kpi.nb_controle_service",
+                "SELECT COUNT(*) FROM plot WHERE plot_kind = 'CS'", Long.class);
         long ctrl   = nbControle       != null ? nbControle       : 0L;
         long ctrlCS = nbControleService != null ? nbControleService : 0L;
         long totalVisitees  = kpi.isEmpty() ? 0L : ((Number) kpi.get("total_visitees")).longValue();
         long totalProgramme = kpi.isEmpty() ? 0L : ((Number) kpi.get("total_programme")).longValue();
-        Long nbJoursRaw2 = jdbc.queryForObject(
-                "SELECT COUNT(DISTINCT DATE(date_modified)) FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'",
+        Long nbJoursRaw2 = metered.queryForObject("dashboard.kpi.nb_jours",
+                "SELECT COUNT(DISTINCT DATE(date_modified)) FROM plot WHERE plot_kind = 'R'",
                 Long.class);
         long nbJours = nbJoursRaw2 != null ? nbJoursRaw2 : 1L;
-        java.time.LocalDate lastVisit = jdbc.queryForObject(
-                "SELECT MAX(DATE(date_modified)) FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'",
+        java.time.LocalDate lastVisit = metered.queryForObject("dashboard.kpi.derniere_visite",
+                "SELECT MAX(DATE(date_modified)) FROM plot WHERE plot_kind = 'R'",
                 java.time.LocalDate.class);
         kpi.put("nb_controle",         ctrl);
         kpi.put("nb_controle_service", ctrlCS);
@@ -438,7 +462,7 @@ public class DashboardController {
         result.put("kpi", kpi);
 
         // ── Equipes ───────────────────────────────────────────────────────────
-        result.put("equipes", jdbc.queryForList(
+        result.put("equipes", metered.queryForList("dashboard.equipes",
                 "SELECT prog.equipe, " +
                 "  COUNT(prog.num_placette) AS total_affecte, " +
                 "  COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) AS total_visite, " +
@@ -447,69 +471,69 @@ public class DashboardController {
                 "  COUNT(DISTINCT DATE(pl.date_modified)) AS nb_jours, " +
                 "  ROUND(COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) * 1.0 / NULLIF(COUNT(DISTINCT DATE(pl.date_modified)), 0), 1) AS moy_par_jour " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)"));
 
         // ── Strates ───────────────────────────────────────────────────────────
-        result.put("strates", jdbc.queryForList(
+        result.put("strates", metered.queryForList("dashboard.strates",
                 "SELECT prog.strate_cartographique AS strate, " +
                 "  COUNT(prog.num_placette) AS total_programme, " +
                 "  COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) AS total_visite, " +
                 "  ROUND(COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) * 100.0 / NULLIF(COUNT(prog.num_placette), 0), 1) AS pct_avancement " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.strate_cartographique IS NOT NULL " +
                 "GROUP BY prog.strate_cartographique " +
                 "ORDER BY total_visite DESC, total_programme DESC"));
 
         // ── Essences ──────────────────────────────────────────────────────────
-        result.put("essences", jdbc.queryForList(
+        result.put("essences", metered.queryForList("dashboard.essences",
                 "SELECT COALESCE(pl.strate_terrain_essence, 'Non recensé') AS essence, COUNT(*) AS total_visite " +
                 "FROM ifn_programme prog " +
-                "JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "GROUP BY COALESCE(pl.strate_terrain_essence, 'Non recensé') " +
                 "ORDER BY total_visite DESC"));
 
         // ── Groupes ───────────────────────────────────────────────────────────
-        result.put("groupes", jdbc.queryForList(
+        result.put("groupes", metered.queryForList("dashboard.groupes",
                 "SELECT prog.essence_group AS groupe, " +
                 "  COUNT(prog.num_placette) AS total_programme, " +
                 "  COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) AS total_visite, " +
                 "  ROUND(COALESCE(SUM(CASE WHEN pl.plot_no IS NOT NULL THEN 1 ELSE 0 END), 0) * 100.0 / NULLIF(COUNT(prog.num_placette), 0), 1) AS pct_avancement " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.essence_group IS NOT NULL " +
                 "GROUP BY prog.essence_group " +
                 "ORDER BY total_visite DESC, total_programme DESC"));
 
         // ── Strates par équipe ────────────────────────────────────────────────
-        result.put("stratesParEquipe", jdbc.queryForList(
+        result.put("stratesParEquipe", metered.queryForList("dashboard.strates_par_equipe",
                 "SELECT prog.equipe, " +
                 "  COALESCE(pl.strate_terrain_essence, 'Non recensé') AS essence, " +
                 "  COUNT(pl.plot_no) AS nb_visite " +
                 "FROM ifn_programme prog " +
-                "JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe, COALESCE(pl.strate_terrain_essence, 'Non recensé') " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER), nb_visite DESC"));
 
         // ── Accessibilité ─────────────────────────────────────────────────────
-        Map<String, Object> rawAcc = jdbc.queryForMap(
+        Map<String, Object> rawAcc = metered.queryForMap("dashboard.accessibilite.global",
                 "SELECT COUNT(*) AS total_visitees, " +
                 "  SUM(CASE WHEN plot_accessibilite        = 1 THEN 1 ELSE 0 END) AS nb_accessible, " +
                 "  SUM(CASE WHEN plot_accessibilite        = 0 THEN 1 ELSE 0 END) AS nb_inaccessible, " +
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 0 THEN 1 ELSE 0 END) AS nb_a_pied_0, " +
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 1 THEN 1 ELSE 0 END) AS nb_a_pied_1, " +
                 "  SUM(CASE WHEN plot_accessibility_a_pied = 2 THEN 1 ELSE 0 END) AS nb_a_pied_2 " +
-                "FROM plot WHERE plot_no NOT LIKE '%C' AND plot_no NOT LIKE '%CS'");
+                "FROM plot WHERE plot_kind = 'R'");
         long accTotal      = ((Number) rawAcc.get("total_visitees")).longValue();
         long accAccessible = ((Number) rawAcc.get("nb_accessible")).longValue();
         Map<String, Object> globalAcc = new LinkedHashMap<>(rawAcc);
         globalAcc.put("pct_accessible", accTotal > 0 ? (accAccessible * 100.0 / accTotal) : 0.0);
 
-        List<Map<String, Object>> equipesAcc = jdbc.queryForList(
+        List<Map<String, Object>> equipesAcc = metered.queryForList("dashboard.accessibilite.equipes",
                 "SELECT prog.equipe, COUNT(*) AS total_visite, " +
                 "  SUM(CASE WHEN pl.plot_accessibilite        = 1 THEN 1 ELSE 0 END) AS nb_accessible, " +
                 "  SUM(CASE WHEN pl.plot_accessibilite        = 0 THEN 1 ELSE 0 END) AS nb_inaccessible, " +
@@ -519,7 +543,7 @@ public class DashboardController {
                 "  ROUND(SUM(CASE WHEN pl.plot_accessibilite = 1 THEN 1 ELSE 0 END) * 100.0 / COUNT(*), 1) AS pct_accessible " +
                 "FROM ifn_programme prog " +
                 "JOIN plot pl ON pl.plot_no = prog.num_placette " +
-                "WHERE pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "WHERE pl.plot_kind = 'R' " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)");
 
@@ -530,9 +554,9 @@ public class DashboardController {
 
         // ── Temporel ──────────────────────────────────────────────────────────
         Map<String, Object> temporel = new LinkedHashMap<>();
-        temporel.put("visitesParJour",   jdbc.queryForList("SELECT * FROM v_visites_par_jour ORDER BY date_visite"));
-        temporel.put("moyParJourEquipe", jdbc.queryForList("SELECT * FROM v_moy_jour_equipe ORDER BY date_visite, equipe"));
-        temporel.put("productivite", jdbc.queryForList(
+        temporel.put("visitesParJour",   views.read("v_visites_par_jour", "*", "date_visite"));
+        temporel.put("moyParJourEquipe", views.read("v_moy_jour_equipe", "*", "date_visite, equipe"));
+        temporel.put("productivite", metered.queryForList("dashboard.temporel.productivite",
                 "SELECT prog.equipe, COUNT(prog.num_placette) AS total_affecte, " +
                 "  COUNT(pl.plot_no) AS total_visite, " +
                 "  COUNT(DISTINCT DATE(pl.date_modified)) AS nb_jours, " +
@@ -540,19 +564,19 @@ public class DashboardController {
                 "  CEIL((COUNT(prog.num_placette) - COUNT(pl.plot_no)) * 1.0 / " +
                 "       NULLIF(ROUND(COUNT(pl.plot_no) * 1.0 / NULLIF(COUNT(DISTINCT DATE(pl.date_modified)), 0), 1), 0)) AS jours_restants_estimes " +
                 "FROM ifn_programme prog " +
-                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_no NOT LIKE '%C' AND pl.plot_no NOT LIKE '%CS' " +
+                "LEFT JOIN plot pl ON pl.plot_no = prog.num_placette AND pl.plot_kind = 'R' " +
                 "WHERE prog.equipe IS NOT NULL " +
                 "GROUP BY prog.equipe " +
                 "ORDER BY CAST(REGEXP_REPLACE(prog.equipe, '.*N°(\\d+).*', '\\1') AS INTEGER)"));
-        temporel.put("sreaParJour", jdbc.queryForList(
+        temporel.put("sreaParJour", metered.queryForList("dashboard.temporel.srea_par_jour",
                 "SELECT DATE(date_modified) AS date_visite, COUNT(*) AS nb_visite " +
-                "FROM plot WHERE (plot_no LIKE '%C' OR plot_no LIKE '%CS') " +
+                "FROM plot WHERE plot_kind IN ('C', 'CS') " +
                 "GROUP BY DATE(date_modified) ORDER BY date_visite"));
         result.put("temporel", temporel);
 
         // ── Contrôle par équipe ───────────────────────────────────────────────
-        result.put("controleParEquipe",        jdbc.queryForList("SELECT equipe, nb_controle FROM v_controle_par_equipe"));
-        result.put("controleServiceParEquipe", jdbc.queryForList("SELECT equipe, nb_controle_service FROM v_controle_service_par_equipe"));
+        result.put("controleParEquipe",        views.read("v_controle_par_equipe", "equipe, nb_controle", null));
+        result.put("controleServiceParEquipe", views.read("v_controle_service_par_equipe", "equipe, nb_controle_service", null));
 
         return ResponseEntity.ok(result);
     }
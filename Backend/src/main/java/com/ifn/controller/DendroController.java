@@ -0,0 +1,38 @@
+package com.ifn.controller;
+
+import com.ifn.service.DendroService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST controller for dendrometric results computed from the tree table.
+ *
+ * Base URL: /api/dendro
+ */
+@RestController
+@RequestMapping("/api/dendro")
+@RequiredArgsConstructor
+public class DendroController {
+
+    private final DendroService dendroService;
+
+    /**
+     * GET /api/dendro/summary
+     * Stems (n_ha), basal area (g_ha_m2), volume (v_ha_m3) per hectare and quadratic mean
+     * diameter (dg_cm) over regular plots, in total and per strate, essence and dpanef.
+     * Served from memory; recomputed only after a data change.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> getSummary() {
+        try {
+            return ResponseEntity.ok(dendroService.summary());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ifn.controller;
+
+import com.ifn.service.GpsDriftService;
+import com.ifn.service.GpsDriftService.Drift;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * REST controller for the GPS drift between programmed and surveyed plot centres.
+ *
+ * Base URL: /api/drift
+ */
+@RestController
+@RequestMapping("/api/drift")
+@RequiredArgsConstructor
+public class DriftController {
+
+    private static final Map<String, Comparator<Drift>> SORTS = Map.of(
+        "distance", Comparator.comparingDouble(Drift::distanceM),
+        "bearing",  Comparator.comparingDouble(Drift::bearing),
+        "z",        Comparator.comparingDouble(Drift::robustZ),
+        "plot_no",  Comparator.comparing(Drift::plotNo),
+        "equipe",   Comparator.comparing(Drift::equipe, Comparator.nullsLast(Comparator.naturalOrder()))
+    );
+
+    private final GpsDriftService driftService;
+
+    /**
+     * GET /api/drift
+     * Drift of every visit with surveyed coordinates.
+     *   ?sort=distance|bearing|z|plot_no|equipe   (default distance)
+     *   ?order=asc|desc                          (default desc)
+     *   ?equipe=   ?outliers=true   ?limit=
+     */
+    @GetMapping
+    public ResponseEntity<?> getAll(
+            @RequestParam(defaultValue = "distance") String sort,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String equipe,
+            @RequestParam(defaultValue = "false") boolean outliers,
+            @RequestParam(required = false) Integer limit) {
+
+        Comparator<Drift> comparator = SORTS.get(sort);
+        if (comparator == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Tri inconnu : " + sort));
+        }
+        if ("desc".equalsIgnoreCase(order)) comparator = comparator.reversed();
+
+        GpsDriftService.Result result = driftService.current();
+        List<Drift> matching = filter(result.drifts(), equipe, outliers).toList();
+        Stream<Drift> rows = matching.stream().sorted(comparator);
+        if (limit != null && limit > 0) rows = rows.limit(limit);
+        List<Map<String, Object>> list = rows.map(DriftController::toProperties).toList();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", matching.size());   // before limit
+        body.put("vector_api", result.vector());
+        body.put("duree_ms", result.durationMs());
+        body.put("rows", list);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * GET /api/drift/equipes
+     * Median, 95th percentile and maximum drift per equipe, with the number of outliers.
+     */
+    @GetMapping("/equipes")
+    public ResponseEntity<List<GpsDriftService.EquipeStats>> getEquipes() {
+        return ResponseEntity.ok(driftService.current().equipes());
+    }
+
+    /**
+     * GET /api/drift/geojson
+     * Map layer: one LineString per visit, from the programmed to the surveyed centre.
+     * Optional filters: ?equipe=  ?outliers=true
+     */
+    @GetMapping("/geojson")
+    public ResponseEntity<Map<String, Object>> getGeoJson(
+            @RequestParam(required = false) String equipe,
+            @RequestParam(defaultValue = "false") boolean outliers) {
+
+        List<Map<String, Object>> features = filter(driftService.current().drifts(), equipe, outliers)
+                .map(d -> {
+                    Map<String, Object> geometry = new LinkedHashMap<>();
+                    geometry.put("type", "LineString");
+                    geometry.put("coordinates", List.of(
+                            List.of(d.progLon(), d.progLat()),
+                            List.of(d.plotLon(), d.plotLat())));
+
+                    Map<String, Object> feature = new LinkedHashMap<>();
+                    feature.put("type", "Feature");
+                    feature.put("geometry", geometry);
+                    feature.put("properties", toProperties(d));
+                    return feature;
+                })
+                .toList();
+
+        Map<String, Object> collection = new LinkedHashMap<>();
+        collection.put("type", "FeatureCollection");
+        collection.put("totalFeatures", features.size());
+        collection.put("features", features);
+        return ResponseEntity.ok(collection);
+    }
+
+    private static Stream<Drift> filter(List<Drift> drifts, String equipe, boolean outliers) {
+        return drifts.stream()
+                .filter(d -> equipe == null || equipe.isBlank() || equipe.equals(d.equipe()))
+                .filter(d -> !outliers || d.outlier());
+    }
+
+    private static Map<String, Object> toProperties(Drift d) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("plot_no",       d.plotNo());
+        p.put("plot_kind",     d.kind());
+        p.put("equipe",        d.equipe());
+        p.put("distance_m",    d.distanceM());
+        p.put("vincenty_m",    Double.isNaN(d.vincentyM()) ? null : d.vincentyM());
+        p.put("azimut",        d.bearing());
+        p.put("z",             d.robustZ());
+        p.put("aberrant",      d.outlier());
+        return p;
+    }
+}
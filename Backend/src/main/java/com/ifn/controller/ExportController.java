@@ -0,0 +1,74 @@
+package com.ifn.controller;
+
+import com.ifn.service.ExportService;
+import com.ifn.service.ExportService.Format;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming exports for GIS tools.
+ *
+ * Base URL: /api/export
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * GET /api/export/{table}.{format}
+     *   table:  plots | controles | placettes | tree
+     *   format: csv | geojsonl | gpkg
+     *   ?gzip=true             (csv, geojsonl) compressed download, .gz appended to the file name
+     *   ?after=&lt;key&gt;           (csv, geojsonl) resume after the last plot_no / num_placette received;
+     *                          400 for tree, whose plot_plot_no is shared by the trees of a plot
+     * A GeoPackage is served from a file cached per data version and accepts Range requests.
+     */
+    @GetMapping("/{table}.{format}")
+    public ResponseEntity<?> export(
+            @PathVariable String table,
+            @PathVariable String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String after) throws IOException {
+
+        ExportService.Source source;
+        Format f;
+        try {
+            source = exportService.source(table);
+            f = Format.of(format);
+            exportService.checkResume(source, after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        if (f == Format.GPKG) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(table + ".gpkg"))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(MediaType.parseMediaType(f.contentType))
+                    .body(new FileSystemResource(exportService.geoPackage(source)));
+        }
+
+        String fileName = table + "." + f.extension + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> exportService.write(source, f, after, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(fileName))
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : f.contentType))
+                .body(body);
+    }
+
+    private static String attachment(String fileName) {
+        return ContentDisposition.attachment().filename(fileName).build().toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ifn.controller;
+
+import com.ifn.service.FieldPackageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline field packages, one per equipe.
+ *
+ * Base URL: /api/packages
+ */
+@RestController
+@RequestMapping("/api/packages")
+@RequiredArgsConstructor
+public class FieldPackageController {
+
+    private final FieldPackageService packageService;
+
+    /**
+     * GET /api/packages
+     * Equipes and the packages already built for the current placettes.
+     */
+    @GetMapping
+    public Map<String, Object> list() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("equipes", packageService.equipes());
+        result.put("paquets", packageService.ready().stream().map(FieldPackageController::toMap).toList());
+        return result;
+    }
+
+    /**
+     * POST /api/packages/build
+     * Builds the packages of every equipe in parallel; up-to-date packages are reused.
+     */
+    @PostMapping("/build")
+    public List<Map<String, Object>> buildAll() {
+        return packageService.buildAll().stream().map(FieldPackageController::toMap).toList();
+    }
+
+    /**
+     * GET /api/packages/download?equipe=...
+     * The equipe's ZIP, built on first request after a data change.
+     * A query parameter since equipe names may contain '/'.
+     */
+    @GetMapping("/download")
+    public ResponseEntity<?> download(@RequestParam String equipe) {
+        FieldPackageService.Package p;
+        try {
+            p = packageService.get(equipe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+        String fileName = "paquet_" + p.file().getFileName();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .header(HttpHeaders.ETAG, p.etag())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(new FileSystemResource(p.file()));
+    }
+
+    private static Map<String, Object> toMap(FieldPackageService.Package p) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("equipe", p.equipe());
+        m.put("version", p.fingerprint());
+        m.put("taille_octets", p.sizeBytes());
+        m.put("duree_ms", p.buildMs());
+        return m;
+    }
+}
@@ -2,11 +2,11 @@ package com.ifn.controller;
 
 import com.ifn.entity.IfnProgramme;
 import com.ifn.service.IfnProgrammeService;
+import com.ifn.service.PlacetteFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,31 +23,79 @@ public class IfnProgrammeController {
 
     /**
      * GET /api/placettes
-     * Returns all placettes, with optional filters:
+     * Returns all placettes matching every given filter (criteria are combined with AND):
      *   ?dpanef=Kénitra
      *   ?dranef=Rabat-Salé-Kénitra
      *   ?equipe=Equipe+Kénitra+(N°01/26)
      *   ?strate=QsH
-     *   ?essence=Quercus+suber
+     *   ?essence=Ta            (essence_abr)
+     *   ?groupe=Chêne-liège    (essence_group)
+     *   ?bbox=minLon,minLat,maxLon,maxLat
+     *   ?statut=programmee|visitee|controle
      */
     @GetMapping
-    public ResponseEntity<List<IfnProgramme>> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(required = false) String dpanef,
             @RequestParam(required = false) String dranef,
             @RequestParam(required = false) String equipe,
             @RequestParam(required = false) String strate,
-            @RequestParam(required = false) String essence) {
-
-        List<IfnProgramme> result;
+            @RequestParam(required = false) String essence,
+            @RequestParam(required = false) String groupe,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) String statut) {
+        try {
+            PlacetteFilter filter = PlacetteFilter.of(dpanef, dranef, equipe, strate, essence, groupe, bbox, statut);
+            return ResponseEntity.ok(service.search(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-        if (dpanef != null)       result = service.findByDpanef(dpanef);
-        else if (dranef != null)  result = service.findByDranef(dranef);
-        else if (equipe != null)  result = service.findByEquipe(equipe);
-        else if (strate != null)  result = service.findByStrate(strate);
-        else if (essence != null) result = service.findByEssence(essence);
-        else                      result = service.findAll();
+    /**
+     * GET /api/placettes/facets
+     * Counts per value of dpanef, dranef, equipe, strate_cartographique, essence_group,
+     * essence_abr and statut. Each facet is counted under every active filter except its own.
+     * Accepts the same filters as GET /api/placettes.
+     * Returns { total: N, facets: { dpanef: { "Kénitra": 412, … }, … } }.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false) String dpanef,
+            @RequestParam(required = false) String dranef,
+            @RequestParam(required = false) String equipe,
+            @RequestParam(required = false) String strate,
+            @RequestParam(required = false) String essence,
+            @RequestParam(required = false) String groupe,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) String statut) {
+        try {
+            PlacetteFilter filter = PlacetteFilter.of(dpanef, dranef, equipe, strate, essence, groupe, bbox, statut);
+            return service.facets(filter)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(503).body(Map.of("error", "Index des placettes indisponible")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-        return ResponseEntity.ok(result);
+    /**
+     * GET /api/placettes/page
+     * Keyset-paginated listing ordered by num_placette, constant cost per page:
+     *   ?cursor=<"next" of the previous page>   (omit for the first page)
+     *   ?limit=500                              (max 5000)
+     *   ?fields=a,b,c                           (subset of the projection fields)
+     * Returns { items: [...], next: "<cursor>" | null }.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(service.page(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -72,25 +120,24 @@ public class IfnProgrammeController {
 
     /**
      * GET /api/placettes/geojson
-     * Returns all placettes (or filtered subset) as a GeoJSON FeatureCollection.
+     * Returns the placettes matching every given filter as a GeoJSON FeatureCollection.
+     * Accepts the same filters as GET /api/placettes.
      */
     @GetMapping("/geojson")
-    public ResponseEntity<Map<String, Object>> getGeoJson(
+    public ResponseEntity<?> getGeoJson(
             @RequestParam(required = false) String dpanef,
             @RequestParam(required = false) String dranef,
             @RequestParam(required = false) String equipe,
             @RequestParam(required = false) String strate,
-            @RequestParam(required = false) String essence) {
-
-        List<IfnProgramme> placettes;
-
-        if (dpanef != null)       placettes = service.findByDpanef(dpanef);
-        else if (dranef != null)  placettes = service.findByDranef(dranef);
-        else if (equipe != null)  placettes = service.findByEquipe(equipe);
-        else if (strate != null)  placettes = service.findByStrate(strate);
-        else if (essence != null) placettes = service.findByEssence(essence);
-        else                      placettes = service.findAll();
-
-        return ResponseEntity.ok(service.toGeoJson(placettes));
+            @RequestParam(required = false) String essence,
+            @RequestParam(required = false) String groupe,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) String statut) {
+        try {
+            PlacetteFilter filter = PlacetteFilter.of(dpanef, dranef, equipe, strate, essence, groupe, bbox, statut);
+            return ResponseEntity.ok(service.toGeoJson(service.search(filter)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 }
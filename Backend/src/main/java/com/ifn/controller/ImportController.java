@@ -1,7 +1,8 @@
 package com.ifn.controller;
 
+import com.ifn.service.DataVersionService;
 import com.ifn.service.ImportService;
-import com.ifn.service.RefreshNotifier;
+import com.ifn.service.RefreshScheduler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +18,8 @@ import java.util.Map;
 public class ImportController {
 
     private final ImportService importService;
-    private final RefreshNotifier refreshNotifier;
+    private final RefreshScheduler refreshScheduler;
+    private final DataVersionService dataVersion;
 
     /**
      * POST /api/import/zip
@@ -34,7 +36,8 @@ public class ImportController {
         }
         try {
             Map<String, Object> result = importService.importZip(file);
-            refreshNotifier.notifyRefresh();
+            dataVersion.bump();
+            refreshScheduler.requestRefresh();
             return ResponseEntity.ok(result);
         } catch (IOException e) {
             return ResponseEntity.internalServerError()
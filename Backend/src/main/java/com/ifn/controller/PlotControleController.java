@@ -1,5 +1,6 @@
 package com.ifn.controller;
 
+import com.ifn.service.ControlComparisonService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -8,7 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
 /**
- * REST controller for controlled placettes (plot_no ending with 'C').
+ * REST controller for controlled placettes (plot_kind = 'C', i.e. plot_no ending with 'C').
  * Queries the plot_controle view.
  *
  * Base URL: /api/plots/controle
@@ -19,6 +20,7 @@ import java.util.*;
 public class PlotControleController {
 
     private final JdbcTemplate jdbc;
+    private final ControlComparisonService comparisonService;
 
     // ─── List ──────────────────────────────────────────────────────────────────
 
@@ -62,6 +64,40 @@ public class PlotControleController {
         return ResponseEntity.ok(rows);
     }
 
+    // ─── Comparison with the regular visit ─────────────────────────────────────
+
+    /**
+     * GET /api/plots/controle/comparaison
+     * Each C / CS control compared with the regular visit of the same placette:
+     * altitude, pente, exposition, strate, accessibilite, nb_tiges, diametre_moyen.
+     * Optional filters: ?equipe=  ?horsTolerance=true (only pairs with a violation)
+     */
+    @GetMapping("/comparaison")
+    public ResponseEntity<Map<String, Object>> getComparaison(
+            @RequestParam(required = false) String equipe,
+            @RequestParam(defaultValue = "false") boolean horsTolerance) {
+
+        List<ControlComparisonService.Comparison> pairs = comparisonService.comparisons().stream()
+                .filter(c -> equipe == null || equipe.isBlank() || equipe.equals(c.equipe()))
+                .filter(c -> !horsTolerance || c.violations() > 0)
+                .toList();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("tolerances", comparisonService.tolerances());
+        body.put("total", pairs.size());
+        body.put("paires", pairs);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * GET /api/plots/controle/comparaison/equipes
+     * Tolerance violations aggregated per equipe of the controlled placette.
+     */
+    @GetMapping("/comparaison/equipes")
+    public ResponseEntity<List<Map<String, Object>>> getComparaisonEquipes() {
+        return ResponseEntity.ok(comparisonService.byEquipe());
+    }
+
     // ─── Single ────────────────────────────────────────────────────────────────
 
     /**
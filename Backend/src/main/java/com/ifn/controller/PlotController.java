@@ -1,8 +1,9 @@
 package com.ifn.controller;
 
 import com.ifn.entity.Plot;
+import com.ifn.service.DataVersionService;
 import com.ifn.service.PlotService;
-import com.ifn.service.RefreshNotifier;
+import com.ifn.service.RefreshScheduler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,7 +25,8 @@ import java.util.Map;
 public class PlotController {
 
     private final PlotService service;
-    private final RefreshNotifier refreshNotifier;
+    private final RefreshScheduler refreshScheduler;
+    private final DataVersionService dataVersion;
 
     /**
      * GET /api/plots
@@ -46,6 +48,26 @@ public class PlotController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * GET /api/plots/page
+     * Keyset-paginated listing ordered by plot_no, constant cost per page:
+     *   ?cursor=<"next" of the previous page>   (omit for the first page)
+     *   ?limit=500                              (max 5000)
+     *   ?fields=a,b,c                           (subset of the projection fields)
+     * Returns { items: [...], next: "<cursor>" | null }.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(service.page(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/plots/{plotNo}
      * Returns a single surveyed plot by its primary key.
@@ -79,7 +101,8 @@ public class PlotController {
         }
         try {
             Map<String, Integer> result = service.importCsv(file);
-            refreshNotifier.notifyRefresh();
+            dataVersion.bump();
+            refreshScheduler.requestRefresh();
             return ResponseEntity.ok(result);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body(Map.of("inserted", -1, "updated", -1));
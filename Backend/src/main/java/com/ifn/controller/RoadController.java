@@ -0,0 +1,73 @@
+package com.ifn.controller;
+
+import com.ifn.service.RoadLodService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Road layer simplified per zoom level.
+ *
+ * Base URL: /api/roads
+ */
+@RestController
+@RequestMapping("/api/roads")
+@RequiredArgsConstructor
+public class RoadController {
+
+    private static final CacheControl ONE_DAY = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    private final RoadLodService roadLodService;
+
+    /**
+     * GET /api/roads?bbox=minLon,minLat,maxLon,maxLat&amp;zoom=12
+     * GeoJSON FeatureCollection of the roads crossing bbox, simplified for the zoom level.
+     */
+    @GetMapping
+    public ResponseEntity<?> roads(@RequestParam List<Double> bbox, @RequestParam int zoom) {
+        if (bbox.size() != 4) {
+            return ResponseEntity.badRequest().body(Map.of("error", "bbox attend 4 valeurs : minLon,minLat,maxLon,maxLat"));
+        }
+        double[] box = bbox.stream().mapToDouble(Double::doubleValue).toArray();
+        return ResponseEntity.ok()
+                .cacheControl(ONE_DAY)
+                .contentType(MediaType.parseMediaType(RoadLodService.Format.GEOJSON.contentType))
+                .body(roadLodService.geoJson(box, zoom));
+    }
+
+    /**
+     * GET /api/roads/tiles/{z}/{x}/{y}.{format}
+     *   format: mvt (Mapbox Vector Tile, layer "routes") | geojson
+     */
+    @GetMapping("/tiles/{z}/{x}/{y}.{format}")
+    public ResponseEntity<?> tile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y,
+            @PathVariable String format) {
+        try {
+            RoadLodService.Format f = RoadLodService.Format.of(format);
+            return ResponseEntity.ok()
+                    .cacheControl(ONE_DAY)
+                    .contentType(MediaType.parseMediaType(f.contentType))
+                    .body(roadLodService.tile(z, x, y, f));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/roads/lod
+     * Per zoom level: simplification tolerance, roads and vertices kept.
+     */
+    @GetMapping("/lod")
+    public List<Map<String, Object>> levels() {
+        return roadLodService.levels();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ifn.controller;
+
+import com.ifn.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Delta sync for the field tablets.
+ *
+ * Base URL: /api/sync
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * GET /api/sync/changes?since=&lt;version&gt;
+     * Placettes and plots upserted or deleted since the version returned by the previous call,
+     * with the status of the placettes concerned. Without since (or with an expired version)
+     * everything is returned and "complet" is true.
+     * Gzip-compressed when the client accepts it.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Map<String, Object> changes = syncService.changes(since).orElse(null);
+        if (changes == null) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "Table sync_change_log absente (db/create_sync_change_log.sql)"));
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024)) {
+                    jsonMapper.writeValue(zipped, changes);
+                }
+            } else {
+                jsonMapper.writeValue(out, changes);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ifn.controller;
+
+import com.ifn.service.TileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Basemap tile proxy with a shared MBTiles cache.
+ *
+ * Tiles:  /tiles/{source}/{z}/{x}/{y}
+ * Admin:  /api/tiles
+ */
+@RestController
+@RequiredArgsConstructor
+public class TileController {
+
+    private final TileService tileService;
+
+    /**
+     * GET /tiles/{source}/{z}/{x}/{y}
+     * Leaflet URL template: /tiles/osm/{z}/{x}/{y} (an extension on y, e.g. 12.png, is ignored).
+     * 404 when upstream has no such tile, 502 when upstream fails.
+     */
+    @GetMapping("/tiles/{source}/{z}/{x}/{y}")
+    public ResponseEntity<?> tile(
+            @PathVariable String source,
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable String y) {
+        int row;
+        try {
+            int dot = y.indexOf('.');
+            row = Integer.parseInt(dot < 0 ? y : y.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Tuile invalide : " + y));
+        }
+
+        try {
+            return tileService.tile(source, z, x, row)
+                    .<ResponseEntity<?>>map(t -> ResponseEntity.ok()
+                            .cacheControl(CacheControl.maxAge(Duration.ofDays(7)).cachePublic())
+                            .header("X-Tile-Cache", t.cached() ? "HIT" : "MISS")
+                            .contentType(MediaType.parseMediaType(t.contentType()))
+                            .body(t.data()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (UncheckedIOException e) {
+            return ResponseEntity.status(502).body(Map.of("error", "Serveur de tuiles indisponible : " + e.getCause().getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/tiles
+     * Sources, cache size and hit/miss counters per source, and seeding jobs.
+     */
+    @GetMapping("/api/tiles")
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sources", tileService.stats());
+        result.put("prechargements", tileService.jobs().stream().map(TileService.SeedJob::toMap).toList());
+        return result;
+    }
+
+    /**
+     * POST /api/tiles/seed?source=&lt;seedable source&gt;&amp;minZoom=10&amp;maxZoom=16
+     *   &amp;equipe=...                      the equipe's placettes plus a buffer, or
+     *   &amp;bbox=minLon,minLat,maxLon,maxLat
+     * Starts a background prefetch; returns the job (202). Requires a JWT, and the source must be
+     * listed in app.tiles.seedable (400 otherwise).
+     */
+    @PostMapping("/api/tiles/seed")
+    public ResponseEntity<Map<String, Object>> seed(
+            @RequestParam String source,
+            @RequestParam int minZoom,
+            @RequestParam int maxZoom,
+            @RequestParam(required = false) String equipe,
+            @RequestParam(required = false) List<Double> bbox) {
+        try {
+            TileService.SeedJob job;
+            if (equipe != null) {
+                job = tileService.seedEquipe(source, equipe, minZoom, maxZoom);
+            } else if (bbox != null && bbox.size() == 4) {
+                job = tileService.seed(source, bbox.stream().mapToDouble(Double::doubleValue).toArray(), minZoom, maxZoom);
+            } else {
+                return ResponseEntity.badRequest().body(Map.of("error", "Paramètre equipe ou bbox (4 valeurs) requis"));
+            }
+            return ResponseEntity.accepted().body(job.toMap());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/tiles/seed/{id}
+     * Progress of a seeding job.
+     */
+    @GetMapping("/api/tiles/seed/{id}")
+    public ResponseEntity<Map<String, Object>> seedJob(@PathVariable String id) {
+        return tileService.job(id)
+                .map(j -> ResponseEntity.ok(j.toMap()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ifn.controller;
+
+import com.ifn.service.PlotValidationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller for the plot validation rules (com.ifn.validation).
+ *
+ * Base URL: /api/validation
+ */
+@RestController
+@RequestMapping("/api/validation")
+@RequiredArgsConstructor
+public class ValidationController {
+
+    private final PlotValidationService validationService;
+
+    /**
+     * GET /api/validation/report
+     * Violations stored by the last validation of each plot.
+     * Optional filters: ?rule=  ?severity=erreur|avertissement  ?dranef=  ?plotNo=
+     */
+    @GetMapping("/report")
+    public ResponseEntity<?> getReport(
+            @RequestParam(required = false) String rule,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String dranef,
+            @RequestParam(required = false) String plotNo) {
+        return validationService.report(rule, severity, dranef, plotNo)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(503)
+                        .body(Map.of("error", "Table plot_validation absente (db/create_plot_validation.sql)")));
+    }
+
+    /**
+     * POST /api/validation/run
+     * Re-validates every plot; returns violation counts per rule.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run() {
+        return ResponseEntity.ok(validationService.validateAll());
+    }
+}
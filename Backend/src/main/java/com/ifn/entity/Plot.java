@@ -15,6 +15,15 @@ public class Plot {
     @Column(name = "plot_no", length = 50)
     private String plotNo;
 
+    // ─── Classification (generated columns, add_plot_kind.sql) ─────────────────
+    // 'R' regular visit, 'C' inter-team control, 'CS' service control
+    @Column(name = "plot_kind", length = 2, insertable = false, updatable = false)
+    private String plotKind;
+
+    // plot_no without the C / CS suffix (= ifn_programme.num_placette)
+    @Column(name = "plot_no_base", length = 50, insertable = false, updatable = false)
+    private String plotNoBase;
+
     // ─── Location ──────────────────────────────────────────────────────────────
     @Column(name = "plot_coordinate_center_x")
     private Double plotCoordinateCenterX;
@@ -0,0 +1,65 @@
+package com.ifn.geo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Haversine distances and initial bearings over parallel primitive arrays.
+ *
+ * Uses the JDK Vector API (VectorGeodesic) when the jar was built with -Pvector and the JVM was
+ * started with --add-modules jdk.incubator.vector, the scalar formulas of {@link Geodesic}
+ * otherwise. Both give the same results to within floating-point rounding.
+ */
+public final class GeodesicBatch {
+
+    private static final MethodHandle VECTOR = vectorPath();
+
+    private GeodesicBatch() {}
+
+    /** True when {@link #compute} can take the SIMD path. */
+    public static boolean vectorAvailable() {
+        return VECTOR != null;
+    }
+
+    /**
+     * distance[i] (m) and bearing[i] (degrees from north) from point 1 to point 2, for i < n.
+     *
+     * @param useVector false forces the scalar path
+     */
+    public static void compute(double[] lon1, double[] lat1, double[] lon2, double[] lat2,
+                               double[] distance, double[] bearing, int n, boolean useVector) {
+        if (useVector && VECTOR != null) {
+            try {
+                VECTOR.invokeExact(lon1, lat1, lon2, lat2, distance, bearing, n);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            scalar(lon1, lat1, lon2, lat2, distance, bearing, n);
+        }
+    }
+
+    static void scalar(double[] lon1, double[] lat1, double[] lon2, double[] lat2,
+                       double[] distance, double[] bearing, int n) {
+        for (int i = 0; i < n; i++) {
+            distance[i] = Geodesic.haversine(lon1[i], lat1[i], lon2[i], lat2[i]);
+            bearing[i] = Geodesic.bearing(lon1[i], lat1[i], lon2[i], lat2[i]);
+        }
+    }
+
+    /** VectorGeodesic.compute, or null when it is not compiled in or the module is absent. */
+    private static MethodHandle vectorPath() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            Class<?> vector = Class.forName("com.ifn.geo.VectorGeodesic");
+            return MethodHandles.lookup().findStatic(vector, "compute", MethodType.methodType(void.class,
+                    double[].class, double[].class, double[].class, double[].class,
+                    double[].class, double[].class, int.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ifn.geo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Douglas-Peucker simplification of flattened lines (x0, y0, x1, y1, …).
+ *
+ * Pinned vertices (road junctions) are always kept, so lines that met before simplification
+ * still meet after it: the line is simplified independently between consecutive pinned vertices.
+ * Distances are measured in the coordinates given; callers pass Web Mercator so that the
+ * tolerance is uniform on screen.
+ */
+public final class LineSimplifier {
+
+    private LineSimplifier() {}
+
+    /**
+     * Simplified copy of line. pinned[i] marks vertex i as mandatory (may be null);
+     * the first and last vertices are always kept.
+     */
+    public static double[] douglasPeucker(double[] line, double tolerance, boolean[] pinned) {
+        return filter(line, keep(line, tolerance, pinned));
+    }
+
+    /** Vertices of line kept by Douglas-Peucker, to apply to another projection of the same line. */
+    public static boolean[] keep(double[] line, double tolerance, boolean[] pinned) {
+        int n = line.length / 2;
+        boolean[] keep = new boolean[n];
+        if (n <= 2) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+        keep[0] = keep[n - 1] = true;
+        double tol2 = tolerance * tolerance;
+
+        int from = 0;
+        for (int i = 1; i < n; i++) {
+            if (i == n - 1 || (pinned != null && pinned[i])) {
+                keep[i] = true;
+                simplify(line, from, i, tol2, keep);
+                from = i;
+            }
+        }
+        return keep;
+    }
+
+    /** The vertices of line flagged in keep. */
+    public static double[] filter(double[] line, boolean[] keep) {
+        int kept = 0;
+        for (boolean k : keep) if (k) kept++;
+        double[] out = new double[kept * 2];
+        int j = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                out[j++] = line[2 * i];
+                out[j++] = line[2 * i + 1];
+            }
+        }
+        return out;
+    }
+
+    /** Marks the vertices of (first, last) to keep; iterative to bear long lines. */
+    private static void simplify(double[] line, int first, int last, double tol2, boolean[] keep) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{first, last});
+        while (!stack.isEmpty()) {
+            int[] span = stack.pop();
+            int a = span[0], b = span[1];
+            if (b - a < 2) continue;
+
+            double maxD = -1;
+            int index = -1;
+            for (int i = a + 1; i < b; i++) {
+                double d = segmentDistance2(line, i, a, b);
+                if (d > maxD) {
+                    maxD = d;
+                    index = i;
+                }
+            }
+            if (maxD > tol2) {
+                keep[index] = true;
+                stack.push(new int[]{a, index});
+                stack.push(new int[]{index, b});
+            }
+        }
+    }
+
+    /** Squared distance from vertex p to segment (a, b). */
+    private static double segmentDistance2(double[] line, int p, int a, int b) {
+        double ax = line[2 * a], ay = line[2 * a + 1];
+        double dx = line[2 * b] - ax, dy = line[2 * b + 1] - ay;
+        double px = line[2 * p] - ax, py = line[2 * p + 1] - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : Math.clamp((px * dx + py * dy) / len2, 0, 1);
+        double ex = px - t * dx, ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+
+    /** Length of the line's bounding box diagonal, squared; used to drop lines shorter than a pixel. */
+    public static double extent2(double[] line) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < line.length; i += 2) {
+            minX = Math.min(minX, line[i]);
+            maxX = Math.max(maxX, line[i]);
+            minY = Math.min(minY, line[i + 1]);
+            maxY = Math.max(maxY, line[i + 1]);
+        }
+        double dx = maxX - minX, dy = maxY - minY;
+        return line.length == 0 ? 0 : dx * dx + dy * dy;
+    }
+}
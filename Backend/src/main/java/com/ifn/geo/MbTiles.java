@@ -0,0 +1,219 @@
+package com.ifn.geo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One MBTiles 1.3 file (SQLite) used as a size-bounded tile cache.
+ *
+ * Tiles are addressed in XYZ (slippy map) coordinates and stored in TMS rows as the spec
+ * requires. The tiles table carries an extra last_access column (epoch seconds) for LRU
+ * eviction; MBTiles readers ignore it. Access times are only rewritten when older than
+ * ACCESS_RESOLUTION_S, so a hot tile costs one write per minute rather than one per hit.
+ *
+ * A single connection is shared under one lock; SQLite serialises writers anyway.
+ */
+public class MbTiles implements AutoCloseable {
+
+    private static final long ACCESS_RESOLUTION_S = 60;
+
+    private final Connection db;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long sizeBytes;
+    private int count;
+
+    public MbTiles(Path file, String name) throws SQLException {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        } catch (java.io.IOException e) {
+            throw new SQLException("Dossier du cache de tuiles inaccessible : " + file.getParent(), e);
+        }
+        db = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+        try (Statement st = db.createStatement()) {
+            st.execute("PRAGMA journal_mode = WAL");
+            st.execute("PRAGMA synchronous = NORMAL");
+            st.execute("CREATE TABLE IF NOT EXISTS metadata (name TEXT PRIMARY KEY, value TEXT)");
+            st.execute("CREATE TABLE IF NOT EXISTS tiles (" +
+                       "zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB, " +
+                       "last_access INTEGER NOT NULL, " +
+                       "PRIMARY KEY (zoom_level, tile_column, tile_row))");
+            st.execute("CREATE INDEX IF NOT EXISTS tiles_last_access ON tiles (last_access)");
+        }
+        metadataIfAbsent("name", name);
+        metadataIfAbsent("type", "baselayer");
+        metadataIfAbsent("version", "1.3");
+        try (Statement st = db.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*), COALESCE(SUM(LENGTH(tile_data)), 0) FROM tiles")) {
+            rs.next();
+            count = rs.getInt(1);
+            sizeBytes = rs.getLong(2);
+        }
+    }
+
+    /** Sets a metadata entry unless already present (e.g. format, known from the first tile). */
+    public void metadataIfAbsent(String name, String value) throws SQLException {
+        lock.lock();
+        try {
+            try (PreparedStatement ps = db.prepareStatement("INSERT OR IGNORE INTO metadata (name, value) VALUES (?, ?)")) {
+                ps.setString(1, name);
+                ps.setString(2, value);
+                ps.executeUpdate();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The tile, or null when not cached. */
+    public byte[] get(int z, int x, int y) throws SQLException {
+        lock.lock();
+        try {
+            byte[] data;
+            long lastAccess;
+            try (PreparedStatement ps = db.prepareStatement(
+                    "SELECT tile_data, last_access FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?")) {
+                bind(ps, z, x, y);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    data = rs.getBytes(1);
+                    lastAccess = rs.getLong(2);
+                }
+            }
+            long now = System.currentTimeMillis() / 1000;
+            if (now - lastAccess >= ACCESS_RESOLUTION_S) {
+                try (PreparedStatement ps = db.prepareStatement(
+                        "UPDATE tiles SET last_access = ? WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?")) {
+                    ps.setLong(1, now);
+                    ps.setInt(2, z);
+                    ps.setInt(3, x);
+                    ps.setInt(4, tmsRow(z, y));
+                    ps.executeUpdate();
+                }
+            }
+            return data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(int z, int x, int y, byte[] data) throws SQLException {
+        lock.lock();
+        try {
+            Integer previous = null;
+            try (PreparedStatement ps = db.prepareStatement(
+                    "SELECT LENGTH(tile_data) FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?")) {
+                bind(ps, z, x, y);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) previous = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement ps = db.prepareStatement(
+                    "INSERT OR REPLACE INTO tiles (zoom_level, tile_column, tile_row, tile_data, last_access) VALUES (?, ?, ?, ?, ?)")) {
+                bind(ps, z, x, y);
+                ps.setBytes(4, data);
+                ps.setLong(5, System.currentTimeMillis() / 1000);
+                ps.executeUpdate();
+            }
+            if (previous != null) {
+                sizeBytes -= previous;
+            } else {
+                count++;
+            }
+            sizeBytes += data.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes least recently used tiles until the total size is at most targetBytes.
+     * Returns the number of tiles deleted.
+     */
+    public int evict(long targetBytes) throws SQLException {
+        lock.lock();
+        try {
+            int deleted = 0;
+            while (sizeBytes > targetBytes) {
+                List<long[]> victims = new ArrayList<>();   // {z, column, row, size}
+                try (Statement st = db.createStatement();
+                     ResultSet rs = st.executeQuery(
+                         "SELECT zoom_level, tile_column, tile_row, LENGTH(tile_data) FROM tiles ORDER BY last_access LIMIT 256")) {
+                    long freed = 0;
+                    while (rs.next() && sizeBytes - freed > targetBytes) {
+                        long[] v = {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)};
+                        victims.add(v);
+                        freed += v[3];
+                    }
+                }
+                if (victims.isEmpty()) break;
+
+                db.setAutoCommit(false);
+                try (PreparedStatement ps = db.prepareStatement(
+                        "DELETE FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?")) {
+                    for (long[] v : victims) {
+                        ps.setLong(1, v[0]);
+                        ps.setLong(2, v[1]);
+                        ps.setLong(3, v[2]);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    db.commit();
+                } catch (SQLException e) {
+                    db.rollback();
+                    throw e;
+                } finally {
+                    db.setAutoCommit(true);
+                }
+                for (long[] v : victims) sizeBytes -= v[3];
+                count -= victims.size();
+                deleted += victims.size();
+            }
+            return deleted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long sizeBytes() {
+        lock.lock();
+        try {
+            return sizeBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int count() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        lock.lock();
+        try {
+            db.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, int z, int x, int y) throws SQLException {
+        ps.setInt(1, z);
+        ps.setInt(2, x);
+        ps.setInt(3, tmsRow(z, y));
+    }
+
+    /** MBTiles rows count from the south (TMS); slippy map rows from the north. */
+    static int tmsRow(int z, int y) {
+        return (1 << z) - 1 - y;
+    }
+}
@@ -0,0 +1,135 @@
+package com.ifn.geo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile 2.1 writer: one layer of LINESTRING features, each with string
+ * properties. Coordinates are tile-local integers in [0, extent) (a buffer outside is allowed).
+ * Protocol Buffers are written by hand; the format only needs varints and length-delimited fields.
+ */
+public final class MvtEncoder {
+
+    private static final int LINESTRING = 2;
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+
+    private final String layer;
+    private final int extent;
+    private final List<byte[]> features = new ArrayList<>();
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<String, Integer> values = new LinkedHashMap<>();
+
+    public MvtEncoder(String layer, int extent) {
+        this.layer = layer;
+        this.extent = extent;
+    }
+
+    /**
+     * Adds a (multi)line; each part is flattened as x0, y0, x1, y1, … in tile coordinates.
+     * Repeated points are dropped, and so are parts left with fewer than two points.
+     */
+    public void addLine(long id, List<int[]> parts, Map<String, String> properties) {
+        Buffer geometry = new Buffer();
+        int cx = 0, cy = 0;
+        for (int[] part : parts) {
+            int[] points = dedupe(part);
+            int n = points.length / 2;
+            if (n < 2) continue;
+            geometry.varint(command(MOVE_TO, 1));
+            geometry.varint(zigzag(points[0] - cx));
+            geometry.varint(zigzag(points[1] - cy));
+            geometry.varint(command(LINE_TO, n - 1));
+            for (int i = 1; i < n; i++) {
+                geometry.varint(zigzag(points[2 * i] - points[2 * i - 2]));
+                geometry.varint(zigzag(points[2 * i + 1] - points[2 * i - 1]));
+            }
+            cx = points[2 * n - 2];
+            cy = points[2 * n - 1];
+        }
+        if (geometry.size() == 0) return;
+
+        Buffer tags = new Buffer();
+        properties.forEach((k, v) -> {
+            if (v == null) return;
+            tags.varint(keys.computeIfAbsent(k, x -> keys.size()));
+            tags.varint(values.computeIfAbsent(v, x -> values.size()));
+        });
+
+        Buffer feature = new Buffer();
+        feature.tag(1, 0).varint(id);
+        if (tags.size() > 0) feature.tag(2, 2).bytes(tags.toByteArray());
+        feature.tag(3, 0).varint(LINESTRING);
+        feature.tag(4, 2).bytes(geometry.toByteArray());
+        features.add(feature.toByteArray());
+    }
+
+    public boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    public byte[] encode() {
+        Buffer l = new Buffer();
+        l.tag(15, 0).varint(2);
+        l.tag(1, 2).bytes(layer.getBytes(StandardCharsets.UTF_8));
+        for (byte[] f : features) l.tag(2, 2).bytes(f);
+        for (String k : keys.keySet()) l.tag(3, 2).bytes(k.getBytes(StandardCharsets.UTF_8));
+        for (String v : values.keySet()) {
+            Buffer value = new Buffer();
+            value.tag(1, 2).bytes(v.getBytes(StandardCharsets.UTF_8));   // string_value
+            l.tag(4, 2).bytes(value.toByteArray());
+        }
+        l.tag(5, 0).varint(extent);
+
+        Buffer tile = new Buffer();
+        if (!features.isEmpty()) tile.tag(3, 2).bytes(l.toByteArray());
+        return tile.toByteArray();
+    }
+
+    private static int[] dedupe(int[] part) {
+        int[] out = new int[part.length];
+        int j = 0;
+        for (int i = 0; i < part.length; i += 2) {
+            if (j >= 2 && out[j - 2] == part[i] && out[j - 1] == part[i + 1]) continue;
+            out[j++] = part[i];
+            out[j++] = part[i + 1];
+        }
+        return Arrays.copyOf(out, j);
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /** Protocol Buffers output. */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Buffer varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+            return this;
+        }
+
+        Buffer bytes(byte[] b) {
+            varint(b.length);
+            write(b, 0, b.length);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ifn.geo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.json.JsonReadFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The offline road network shipped to the browser (static/road_graph.js, static/roads_geojson.js),
+ * loaded once into primitive arrays for server-side use.
+ *
+ * Graph file: window.ROAD_GRAPH = { "lon,lat": [lat, lon, [["lon,lat", distance_m, time_s], …]], … }
+ * with trailing commas. Geometry file: window.ROADS_GEOJSON = FeatureCollection of MultiLineString
+ * with a road class in properties.t.
+ */
+@Component
+public class RoadNetwork {
+
+    /**
+     * Road graph in compressed sparse row form: the edges of node i are
+     * edgeTo[edgeStart[i] .. edgeStart[i + 1]). Edges to unknown nodes are dropped.
+     */
+    public record Graph(String[] ids, double[] lat, double[] lon,
+                        int[] edgeStart, int[] edgeTo, float[] edgeDist, float[] edgeTime) {
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /** One road feature; each line is flattened as lon0, lat0, lon1, lat1, … */
+    public record Road(String type, double[][] lines, double minX, double minY, double maxX, double maxY) {}
+
+    private final Resource graphResource;
+    private final Resource roadsResource;
+    private final JsonMapper lenient = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Graph graph;
+    private volatile List<Road> roads;
+
+    public RoadNetwork(
+        @Value("${app.roads.graph:classpath:static/road_graph.js}") Resource graphResource,
+        @Value("${app.roads.geometry:classpath:static/roads_geojson.js}") Resource roadsResource
+    ) {
+        this.graphResource = graphResource;
+        this.roadsResource = roadsResource;
+    }
+
+    public Graph graph() {
+        Graph g = graph;
+        if (g == null) {
+            loadLock.lock();
+            try {
+                if ((g = graph) == null) graph = g = loadGraph();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return g;
+    }
+
+    public List<Road> roads() {
+        List<Road> r = roads;
+        if (r == null) {
+            loadLock.lock();
+            try {
+                if ((r = roads) == null) roads = r = loadRoads();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return r;
+    }
+
+    /** Index of the node nearest to (lon, lat) among the candidates (all nodes when null), or -1. */
+    public int nearestNode(double lon, double lat, int[] candidates) {
+        Graph g = graph();
+        int best = -1;
+        double bestDist = Double.POSITIVE_INFINITY;
+        int n = candidates != null ? candidates.length : g.size();
+        for (int k = 0; k < n; k++) {
+            int i = candidates != null ? candidates[k] : k;
+            double d = Geodesic.haversine(lon, lat, g.lon()[i], g.lat()[i]);
+            if (d < bestDist) {
+                bestDist = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // ─── Loading ──────────────────────────────────────────────────────────────
+
+    private Graph loadGraph() {
+        JsonNode root = readAssignment(graphResource);
+        int n = root.size();
+        String[] ids = new String[n];
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        int i = 0;
+        for (Map.Entry<String, JsonNode> e : root.properties()) {
+            ids[i] = e.getKey();
+            lat[i] = e.getValue().get(0).asDouble();
+            lon[i] = e.getValue().get(1).asDouble();
+            index.put(ids[i], i);
+            i++;
+        }
+
+        int[] edgeStart = new int[n + 1];
+        List<int[]> targets = new ArrayList<>(n);
+        List<float[]> costs = new ArrayList<>(n);
+        int m = 0;
+        i = 0;
+        for (Map.Entry<String, JsonNode> e : root.properties()) {
+            JsonNode edges = e.getValue().get(2);
+            int[] to = new int[edges.size()];
+            float[] cost = new float[edges.size() * 2];
+            int k = 0;
+            for (JsonNode edge : edges) {
+                Integer target = index.get(edge.get(0).asString());
+                if (target == null) continue;
+                to[k] = target;
+                cost[2 * k] = (float) edge.get(1).asDouble();
+                cost[2 * k + 1] = (float) edge.get(2).asDouble();
+                k++;
+            }
+            targets.add(Arrays.copyOf(to, k));
+            costs.add(cost);
+            edgeStart[i++] = m;
+            m += k;
+        }
+        edgeStart[n] = m;
+
+        int[] edgeTo = new int[m];
+        float[] edgeDist = new float[m];
+        float[] edgeTime = new float[m];
+        for (i = 0; i < n; i++) {
+            int[] to = targets.get(i);
+            float[] cost = costs.get(i);
+            for (int k = 0; k < to.length; k++) {
+                edgeTo[edgeStart[i] + k] = to[k];
+                edgeDist[edgeStart[i] + k] = cost[2 * k];
+                edgeTime[edgeStart[i] + k] = cost[2 * k + 1];
+            }
+        }
+        return new Graph(ids, lat, lon, edgeStart, edgeTo, edgeDist, edgeTime);
+    }
+
+    private List<Road> loadRoads() {
+        JsonNode features = readAssignment(roadsResource).get("features");
+        List<Road> result = new ArrayList<>(features.size());
+        for (JsonNode f : features) {
+            JsonNode geometry = f.get("geometry");
+            JsonNode parts = "LineString".equals(geometry.get("type").asString())
+                    ? lenient.createArrayNode().add(geometry.get("coordinates"))
+                    : geometry.get("coordinates");
+            double[][] lines = new double[parts.size()][];
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            int p = 0;
+            for (JsonNode part : parts) {
+                double[] line = new double[part.size() * 2];
+                int k = 0;
+                for (JsonNode c : part) {
+                    double x = c.get(0).asDouble(), y = c.get(1).asDouble();
+                    line[k++] = x;
+                    line[k++] = y;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+                lines[p++] = line;
+            }
+            JsonNode type = f.path("properties").get("t");
+            result.add(new Road(type != null ? type.asString() : null, lines, minX, minY, maxX, maxY));
+        }
+        return List.copyOf(result);
+    }
+
+    /** JSON value of a "window.X = …;" script. */
+    private JsonNode readAssignment(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int start = script.indexOf('{');
+            int end = script.lastIndexOf('}');
+            if (start < 0 || end < start) {
+                throw new IllegalStateException("Fichier routier illisible : " + resource.getDescription());
+            }
+            return lenient.readTree(script.substring(start, end + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fichier routier introuvable : " + resource.getDescription(), e);
+        }
+    }
+}
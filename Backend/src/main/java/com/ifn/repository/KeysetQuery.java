@@ -0,0 +1,47 @@
+package com.ifn.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paginated reads of a few entity attributes.
+ * Only the requested attributes are selected — the entity is never hydrated.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeysetQuery {
+
+    private final EntityManager entityManager;
+
+    /**
+     * At most {@code limit} rows of the entities whose {@code key} sorts after {@code after}
+     * ("" for the first page), in key order. Each row holds the key, then the attributes in order.
+     */
+    public List<Object[]> after(Class<?> entity, String key, String after, List<String> attributes, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entity);
+
+        List<Selection<?>> columns = new ArrayList<>(attributes.size() + 1);
+        columns.add(root.get(key));
+        for (String attribute : attributes) columns.add(root.get(attribute));
+        query.select(cb.tuple(columns.toArray(Selection[]::new)))
+                .where(cb.greaterThan(root.get(key), after))
+                .orderBy(cb.asc(root.get(key)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(Tuple::toArray)
+                .toList();
+    }
+}
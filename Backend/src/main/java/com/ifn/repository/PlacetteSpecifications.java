@@ -0,0 +1,62 @@
+package com.ifn.repository;
+
+import com.ifn.entity.IfnProgramme;
+import com.ifn.entity.Plot;
+import com.ifn.service.PlacetteFilter;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates a PlacetteFilter into a single JPA Specification — every criterion is ANDed.
+ */
+public final class PlacetteSpecifications {
+
+    private PlacetteSpecifications() {}
+
+    public static Specification<IfnProgramme> of(PlacetteFilter f) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (f.dpanef()  != null) predicates.add(cb.equal(root.get("dpanef"), f.dpanef()));
+            if (f.dranef()  != null) predicates.add(cb.equal(root.get("dranef"), f.dranef()));
+            if (f.equipe()  != null) predicates.add(cb.equal(root.get("equipe"), f.equipe()));
+            if (f.strate()  != null) predicates.add(cb.equal(root.get("strateCartographique"), f.strate()));
+            if (f.essence() != null) predicates.add(cb.equal(root.get("essenceAbr"), f.essence()));
+            if (f.groupe()  != null) predicates.add(cb.equal(root.get("essenceGroup"), f.groupe()));
+
+            if (f.bbox() != null) {
+                double[] b = f.bbox();
+                predicates.add(cb.between(root.get("xCentre"), b[0], b[2]));
+                predicates.add(cb.between(root.get("yCentre"), b[1], b[3]));
+            }
+
+            // Same statuses as PlacetteStatusService: any C / CS visit makes the placette "controle"
+            if (f.statut() != null) {
+                Expression<String> num = root.get("numPlacette");
+                Predicate controle = visitExists(query, cb, num, true);
+                Predicate visitee  = visitExists(query, cb, num, false);
+                predicates.add(switch (f.statut()) {
+                    case PlacetteFilter.CONTROLE -> controle;
+                    case PlacetteFilter.VISITEE  -> cb.and(cb.not(controle), visitee);
+                    default                      -> cb.and(cb.not(controle), cb.not(visitee));
+                });
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /** EXISTS (SELECT 1 FROM plot WHERE plot_no_base = num [AND plot_kind <> 'R']). */
+    private static Predicate visitExists(CriteriaQuery<?> query, CriteriaBuilder cb, Expression<String> num,
+                                         boolean controlOnly) {
+        Subquery<String> sq = query.subquery(String.class);
+        Root<Plot> plot = sq.from(Plot.class);
+        Predicate sameBase = cb.equal(plot.get("plotNoBase"), num);
+        sq.select(plot.get("plotNo"))
+          .where(controlOnly ? cb.and(sameBase, cb.notEqual(plot.get("plotKind"), "R")) : sameBase);
+        return cb.exists(sq);
+    }
+}
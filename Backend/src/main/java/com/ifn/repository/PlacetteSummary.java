@@ -0,0 +1,20 @@
+package com.ifn.repository;
+
+/**
+ * Read-only projection of a planned placette for list screens.
+ * Lists the fields of GET /api/placettes/page; KeysetQuery selects only the requested ones.
+ */
+public record PlacetteSummary(
+        String numPlacette,
+        Double xCentre,
+        Double yCentre,
+        String dranef,
+        String dpanef,
+        String equipe,
+        String strateCartographique,
+        String essenceGroup,
+        String essenceAbr,
+        Integer altitude,
+        Integer pente,
+        Integer exposition
+) {}
@@ -0,0 +1,20 @@
+package com.ifn.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a surveyed plot for list screens.
+ * Lists the fields of GET /api/plots/page; KeysetQuery selects only the requested ones.
+ */
+public record PlotSummary(
+        String plotNo,
+        String plotDranef,
+        String plotDpanef,
+        Double plotCoordinateCenterX,
+        Double plotCoordinateCenterY,
+        String plotStratum,
+        String strateTerrainEssence,
+        Integer plotAccessibilite,
+        Boolean plotValide,
+        LocalDateTime dateModified
+) {}
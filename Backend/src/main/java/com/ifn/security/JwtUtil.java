@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.util.Date;
 
 @Component
@@ -14,32 +15,41 @@ public class JwtUtil {
 
     private final SecretKey key;
     private final long expirationMs;
+    private final Clock clock;
+    private final JwtParser parser;   // immutable and thread-safe: built once
 
     public JwtUtil(
         @Value("${app.jwt.secret}") String secret,
-        @Value("${app.jwt.expiration-ms}") long expirationMs
+        @Value("${app.jwt.expiration-ms}") long expirationMs,
+        Clock clock
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.clock = clock;
+        this.parser = Jwts.parser().verifyWith(key).clock(() -> new Date(clock.millis())).build();
     }
 
     public String generate(String username) {
         return Jwts.builder()
             .subject(username)
-            .issuedAt(new Date())
-            .expiration(new Date(System.currentTimeMillis() + expirationMs))
+            .issuedAt(new Date(clock.millis()))
+            .expiration(new Date(clock.millis() + expirationMs))
             .signWith(key)
             .compact();
     }
 
+    /** Verifies the signature and expiry; throws JwtException or IllegalArgumentException. */
+    public Claims parse(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parser().verifyWith(key).build()
-            .parseSignedClaims(token).getPayload().getSubject();
+        return parse(token).getSubject();
     }
 
     public boolean isValid(String token) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+            parse(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,125 @@
+package com.ifn.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens once per request, with a bounded LRU cache of verified tokens.
+ *
+ * The cache is keyed by the SHA-256 of the token, so only a token byte-identical to one
+ * whose signature was checked can hit. Entries keep the token's expiry and are dropped once
+ * it has passed; invalid tokens are never cached.
+ *
+ * Metrics: jwt.verifications (result = hit | miss | invalid | expired), jwt.verification
+ * timer (cache = hit | miss) and the jwt.cache.size gauge.
+ */
+@Component
+public class TokenVerifier {
+
+    private record Verified(String subject, long expiresAtMs) {}
+
+    private final JwtUtil jwtUtil;
+    private final Clock clock;
+    private final Map<String, Verified> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalid;
+    private final Counter expired;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+
+    public TokenVerifier(
+        JwtUtil jwtUtil,
+        MeterRegistry registry,
+        Clock clock,
+        @Value("${app.jwt.cache.max-entries:10000}") int maxEntries
+    ) {
+        this.jwtUtil = jwtUtil;
+        this.clock = clock;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.hits = result(registry, "hit");
+        this.misses = result(registry, "miss");
+        this.invalid = result(registry, "invalid");
+        this.expired = result(registry, "expired");
+        this.hitTimer = Timer.builder("jwt.verification").tag("cache", "hit")
+                .description("Bearer token verification time").register(registry);
+        this.missTimer = Timer.builder("jwt.verification").tag("cache", "miss")
+                .description("Bearer token verification time").register(registry);
+        Gauge.builder("jwt.cache.size", cache, Map::size)
+                .description("Verified tokens in the cache").register(registry);
+    }
+
+    /** The token's subject when its signature and expiry are valid. */
+    public Optional<String> verify(String token) {
+        long start = System.nanoTime();
+        String key = sha256(token);
+        Verified v = cache.get(key);
+        if (v != null) {
+            Optional<String> subject;
+            if (v.expiresAtMs() > clock.millis()) {
+                hits.increment();
+                subject = Optional.ofNullable(v.subject());
+            } else {
+                cache.remove(key);
+                expired.increment();
+                subject = Optional.empty();
+            }
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return subject;
+        }
+
+        try {
+            Claims claims = jwtUtil.parse(token);
+            misses.increment();
+            // A token without expiry is accepted by the parser; keep it an hour at most
+            long expiresAt = claims.getExpiration() != null
+                    ? claims.getExpiration().getTime()
+                    : clock.millis() + 3_600_000;
+            cache.put(key, new Verified(claims.getSubject(), expiresAt));
+            return Optional.ofNullable(claims.getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            invalid.increment();
+            return Optional.empty();
+        } finally {
+            missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+    private static Counter result(MeterRegistry registry, String result) {
+        return Counter.builder("jwt.verifications").tag("result", result)
+                .description("Bearer token verifications").register(registry);
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * QA of control visits: every inter-team ('C') and service ('CS') control is compared with
+ * the regular visit of the same placette (same plot_no_base), attribute by attribute.
+ *
+ * Pair results are cached by control plot_no. After a ZIP import only the pairs of the
+ * placettes it touched are recomputed; any other change recomputes every pair.
+ * Pairs are compared in parallel; a pair missing its regular visit is not reported.
+ * After every data change the refresh is queued on the task scheduler, off the thread that
+ * bumped the version.
+ */
+@Service
+public class ControlComparisonService {
+
+    public static final List<String> ATTRIBUTES = List.of(
+        "altitude", "pente", "exposition", "strate", "accessibilite", "nb_tiges", "diametre_moyen"
+    );
+
+    /** One compared attribute; ecart is null for categorical attributes or a missing side. */
+    public record Delta(Object original, Object controle, Double ecart, boolean horsTolerance) {}
+
+    public record Comparison(String controle, String base, String kind, String equipe,
+                             Map<String, Delta> deltas, int violations) {}
+
+    /** Measured values of one visit. meanDiameter is NaN without measured trees. */
+    private record Visit(String plotNo, String base, String kind, Integer elevation, Double pente,
+                         Integer exposition, String stratum, Integer accessibilite,
+                         int stems, double meanDiameter) {}
+
+    private final JdbcTemplate jdbc;
+    private final DataVersionService dataVersion;
+    private final TreeSchema treeSchema;
+    private final TaskScheduler taskScheduler;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final double altitudeTolerance;
+    private final double penteTolerance;
+    private final double tigesTolerancePct;
+    private final double diametreTolerance;
+
+    /** Pair results by control plot_no, valid for cacheVersion. */
+    private final Map<String, Comparison> cache = new ConcurrentHashMap<>();
+    private volatile DataVersionService.Version cacheVersion;
+    /** Held while the cache is refreshed. */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /** Placettes touched by imports committed since cacheVersion. Guarded by this. */
+    private Set<String> pendingBases = new HashSet<>();
+    private int pendingImports;
+
+    public ControlComparisonService(
+        JdbcTemplate jdbc,
+        DataVersionService dataVersion,
+        TreeSchema treeSchema,
+        TaskScheduler taskScheduler,
+        @Value("${app.controle.tolerance.altitude-m:20}") double altitudeTolerance,
+        @Value("${app.controle.tolerance.pente:5}") double penteTolerance,
+        @Value("${app.controle.tolerance.nb-tiges-pct:10}") double tigesTolerancePct,
+        @Value("${app.controle.tolerance.diametre-cm:2}") double diametreTolerance
+    ) {
+        this.jdbc = jdbc;
+        this.dataVersion = dataVersion;
+        this.treeSchema = treeSchema;
+        this.taskScheduler = taskScheduler;
+        this.altitudeTolerance = altitudeTolerance;
+        this.penteTolerance = penteTolerance;
+        this.tigesTolerancePct = tigesTolerancePct;
+        this.diametreTolerance = diametreTolerance;
+    }
+
+    /** Every pair, ordered by control plot_no. */
+    public List<Comparison> comparisons() {
+        refresh();
+        return cache.values().stream()
+                .sorted(Comparator.comparing(Comparison::controle))
+                .toList();
+    }
+
+    /**
+     * Per equipe: pairs compared, pairs with at least one violation, conformity rate and
+     * violation count per attribute.
+     */
+    public List<Map<String, Object>> byEquipe() {
+        Map<String, List<Comparison>> groups = comparisons().parallelStream()
+                .collect(Collectors.groupingByConcurrent(c -> Objects.requireNonNullElse(c.equipe(), "")));
+
+        return groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(en -> {
+                    List<Comparison> pairs = en.getValue();
+                    Map<String, Long> perAttribute = new LinkedHashMap<>();
+                    for (String a : ATTRIBUTES) {
+                        perAttribute.put(a, pairs.stream().filter(c -> c.deltas().get(a).horsTolerance()).count());
+                    }
+                    long failing = pairs.stream().filter(c -> c.violations() > 0).count();
+
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("equipe", en.getKey().isEmpty() ? null : en.getKey());
+                    row.put("nb_paires", pairs.size());
+                    row.put("nb_paires_hors_tolerance", failing);
+                    row.put("taux_conformite", Math.round((pairs.size() - failing) * 1000.0 / pairs.size()) / 10.0);
+                    row.put("violations", perAttribute);
+                    return row;
+                })
+                .toList();
+    }
+
+    /** Tolerances in force, for display next to the results. */
+    public Map<String, Object> tolerances() {
+        Map<String, Object> t = new LinkedHashMap<>();
+        t.put("altitude_m", altitudeTolerance);
+        t.put("pente", penteTolerance);
+        t.put("nb_tiges_pct", tigesTolerancePct);
+        t.put("diametre_moyen_cm", diametreTolerance);
+        t.put("exposition", "identique");
+        t.put("strate", "identique");
+        t.put("accessibilite", "identique");
+        return t;
+    }
+
+    /** Remembers which placettes an import touched, for the next refresh. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onImported(ImportService.Imported event) {
+        for (String plotNo : event.plotNos()) pendingBases.add(plotNoBase(plotNo));
+        pendingImports++;
+    }
+
+    /** Queues one background refresh; further changes while it is queued are merged into it. */
+    @EventListener
+    public void onDataChanged(DataVersionService.Changed event) {
+        if (refreshQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::backgroundRefresh, Instant.now());
+        }
+    }
+
+    /** On failure the next read retries. */
+    void backgroundRefresh() {
+        refreshQueued.set(false);
+        try {
+            refresh();
+        } catch (DataAccessException | IllegalStateException ignored) {
+        }
+    }
+
+    /** Same rule as the plot_no_base generated column (add_plot_kind.sql). */
+    static String plotNoBase(String plotNo) {
+        if (plotNo.endsWith("CS")) return plotNo.substring(0, plotNo.length() - 2);
+        if (plotNo.endsWith("C"))  return plotNo.substring(0, plotNo.length() - 1);
+        return plotNo;
+    }
+
+    private void refresh() {
+        DataVersionService.Version v = dataVersion.current();
+        if (v.equals(cacheVersion)) return;
+        refreshLock.lock();
+        try {
+            DataVersionService.Version cached = cacheVersion;
+            if (v.equals(cached)) return;
+
+            Set<String> bases;
+            int imports;
+            synchronized (this) {
+                bases = pendingBases;
+                imports = pendingImports;
+                pendingBases = new HashSet<>();
+                pendingImports = 0;
+            }
+
+            // Incremental only if every bump since the cached version was a ZIP import
+            boolean incremental = cached != null
+                    && cached.epoch() == v.epoch()
+                    && v.counter() - cached.counter() == imports;
+
+            if (incremental) {
+                if (!bases.isEmpty()) {
+                    cache.values().removeIf(c -> bases.contains(c.base()));
+                    compare(bases).forEach(c -> cache.put(c.controle(), c));
+                }
+            } else {
+                List<Comparison> all = compare(null);
+                cache.clear();
+                all.forEach(c -> cache.put(c.controle(), c));
+            }
+            cacheVersion = v;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // ─── Comparison ───────────────────────────────────────────────────────────
+
+    /** Pairs of the given placettes (every controlled placette when null). */
+    private List<Comparison> compare(Set<String> bases) {
+        List<Object> args = bases != null ? new ArrayList<>(bases) : List.of();
+        String scope = bases != null
+                ? "p.plot_no_base IN (" + bases.stream().map(b -> "?").collect(Collectors.joining(",")) + ")"
+                : "p.plot_no_base IN (SELECT plot_no_base FROM plot WHERE plot_kind <> 'R')";
+
+        // Tree statistics per visit, accumulated in Java since the diameter may be stored as text
+        TreeSchema.Columns columns = treeSchema.columns();
+        Map<String, double[]> trees = new HashMap<>();   // plot_no → {stems, sum of diameters, measured}
+        jdbc.query(
+            "SELECT t.plot_plot_no, t." + columns.diameter() + " " +
+            "FROM tree t JOIN plot p ON p.plot_no = t.plot_plot_no " +
+            "WHERE " + scope,
+            (RowCallbackHandler) rs -> {
+                double[] acc = trees.computeIfAbsent(rs.getString(1), k -> new double[3]);
+                acc[0]++;
+                double d = TreeSchema.number(rs, 2);
+                if (d > 0) {
+                    acc[1] += d;
+                    acc[2]++;
+                }
+            },
+            args.toArray());
+
+        Map<String, Visit> regular = new HashMap<>();
+        List<Visit> controls = new ArrayList<>();
+        Map<String, String> equipes = new HashMap<>();
+        jdbc.query(
+            "SELECT p.plot_no, p.plot_no_base, p.plot_kind, " +
+            "p.donnees_topographiques_plot_elevation, p.donnees_topographiques_plot_pente, " +
+            "p.donnees_topographiques_plot_topo_exposition, p.plot_stratum, p.plot_accessibilite, " +
+            "ip.equipe " +
+            "FROM plot p " +
+            "LEFT JOIN ifn_programme ip ON ip.num_placette = p.plot_no_base " +
+            "WHERE " + scope,
+            (RowCallbackHandler) rs -> {
+                String plotNo = rs.getString(1);
+                double[] t = trees.getOrDefault(plotNo, new double[3]);
+                Visit visit = new Visit(plotNo, rs.getString(2), rs.getString(3),
+                        rs.getObject(4, Integer.class), rs.getObject(5, Double.class),
+                        rs.getObject(6, Integer.class), rs.getString(7), rs.getObject(8, Integer.class),
+                        (int) t[0], t[2] > 0 ? t[1] / t[2] : Double.NaN);
+                if ("R".equals(visit.kind())) regular.put(visit.base(), visit);
+                else controls.add(visit);
+                equipes.put(visit.base(), rs.getString(9));
+            },
+            args.toArray());
+
+        return controls.parallelStream()
+                .filter(c -> regular.containsKey(c.base()))
+                .map(c -> compare(regular.get(c.base()), c, equipes.get(c.base())))
+                .toList();
+    }
+
+    private Comparison compare(Visit o, Visit c, String equipe) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        deltas.put("altitude",       numeric(o.elevation(), c.elevation(), altitudeTolerance));
+        deltas.put("pente",          numeric(o.pente(), c.pente(), penteTolerance));
+        deltas.put("exposition",     categorical(o.exposition(), c.exposition()));
+        deltas.put("strate",         categorical(o.stratum(), c.stratum()));
+        deltas.put("accessibilite",  categorical(o.accessibilite(), c.accessibilite()));
+        deltas.put("nb_tiges",       numeric(o.stems(), c.stems(),
+                                             Math.max(o.stems(), 1) * tigesTolerancePct / 100));
+        deltas.put("diametre_moyen", numeric(nanToNull(o.meanDiameter()), nanToNull(c.meanDiameter()), diametreTolerance));
+
+        int violations = (int) deltas.values().stream().filter(Delta::horsTolerance).count();
+        return new Comparison(c.plotNo(), c.base(), c.kind(), equipe, deltas, violations);
+    }
+
+    private static Delta numeric(Number original, Number controle, double tolerance) {
+        if (original == null || controle == null) return new Delta(original, controle, null, false);
+        double ecart = controle.doubleValue() - original.doubleValue();
+        return new Delta(original, controle, Math.round(ecart * 100) / 100.0, Math.abs(ecart) > tolerance);
+    }
+
+    private static Delta categorical(Object original, Object controle) {
+        if (original == null || controle == null) return new Delta(original, controle, null, false);
+        return new Delta(original, controle, null, !original.equals(controle));
+    }
+
+    private static Double nanToNull(double v) {
+        return Double.isNaN(v) ? null : Math.round(v * 10) / 10.0;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Materialised copies (mv_*) of the dashboard views (v_*), see create_materialized_dashboard_views.sql.
+ *
+ * After every data change the copies are refreshed in the background with
+ * REFRESH MATERIALIZED VIEW CONCURRENTLY, so readers are never blocked.
+ * Reads go to the live view whenever the copy is missing, its last refresh failed,
+ * or it predates the current data version — an ETag never covers stale data.
+ */
+@Service
+public class DashboardViewService {
+
+    public static final List<String> VIEWS = List.of(
+        "v_kpi_global",
+        "v_visites_par_jour",
+        "v_moy_jour_equipe",
+        "v_controle_par_equipe",
+        "v_controle_service_par_equipe"
+    );
+
+    /** Key column added to single-row views for the unique index CONCURRENTLY needs. */
+    private static final String MV_KEY = "mv_key";
+
+    /** Outcome of the last refresh of one view. version is null until a refresh succeeds. */
+    public record ViewState(String view, String materialized, DataVersionService.Version version,
+                            Instant lastRefresh, long lastDurationMs, String lastError) {}
+
+    private final JdbcTemplate jdbc;
+    private final MeteredJdbc metered;
+    private final DataVersionService dataVersion;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+
+    private final Map<String, ViewState> states = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public DashboardViewService(
+        JdbcTemplate jdbc,
+        MeteredJdbc metered,
+        DataVersionService dataVersion,
+        TaskScheduler taskScheduler,
+        @Value("${app.dashboard.materialized-views.enabled:true}") boolean enabled
+    ) {
+        this.jdbc = jdbc;
+        this.metered = metered;
+        this.dataVersion = dataVersion;
+        this.taskScheduler = taskScheduler;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Rows of a dashboard view, from its materialised copy when up to date.
+     *
+     * @param columns select list, e.g. "*" or "equipe, nb_controle"
+     * @param orderBy ORDER BY clause, or null
+     */
+    public List<Map<String, Object>> read(String view, String columns, String orderBy) {
+        return metered.timed("view." + view, () -> readRows(view, columns, orderBy));
+    }
+
+    private List<Map<String, Object>> readRows(String view, String columns, String orderBy) {
+        String order = orderBy != null ? " ORDER BY " + orderBy : "";
+        String source = source(view);
+        List<Map<String, Object>> rows;
+        try {
+            rows = jdbc.queryForList("SELECT " + columns + " FROM " + source + order);
+        } catch (DataAccessException e) {
+            if (source.equals(view)) throw e;
+            // Copy dropped or broken since its last refresh — disable it until the next one
+            ViewState s = states.get(view);
+            states.put(view, new ViewState(view, s.materialized(), null, s.lastRefresh(), s.lastDurationMs(),
+                    e.getMostSpecificCause().getMessage()));
+            rows = jdbc.queryForList("SELECT " + columns + " FROM " + view + order);
+        }
+        for (Map<String, Object> row : rows) row.remove(MV_KEY);
+        return rows;
+    }
+
+    /** mv_* name when its copy is current, the live v_* view otherwise. */
+    String source(String view) {
+        ViewState s = states.get(view);
+        if (enabled && s != null && s.lastError() == null && dataVersion.current().equals(s.version())) {
+            return s.materialized();
+        }
+        return view;
+    }
+
+    /** Refresh state of every managed view, with its staleness. */
+    public List<Map<String, Object>> status() {
+        DataVersionService.Version current = dataVersion.current();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String view : VIEWS) {
+            ViewState s = states.get(view);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("view", view);
+            row.put("source", source(view));
+            row.put("stale", s == null || !current.equals(s.version()));
+            row.put("lastRefresh", s != null ? s.lastRefresh() : null);
+            row.put("lastDurationMs", s != null ? s.lastDurationMs() : null);
+            row.put("stalenessSeconds", s != null && s.version() != null
+                    ? Math.max(0, (current.modifiedAt() - s.version().modifiedAt()) / 1000) : null);
+            row.put("lastError", s != null ? s.lastError() : null);
+            result.add(row);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduleRefresh();
+    }
+
+    @EventListener
+    public void onDataChanged(DataVersionService.Changed event) {
+        scheduleRefresh();
+    }
+
+    /** Queues one background refresh; further requests while it is queued are merged into it. */
+    public void scheduleRefresh() {
+        if (enabled && refreshQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::refreshAll, Instant.now());
+        }
+    }
+
+    void refreshAll() {
+        refreshLock.lock();
+        try {
+            refreshQueued.set(false);
+            DataVersionService.Version version = dataVersion.current();
+
+            Set<String> existing;
+            try {
+                existing = new HashSet<>(jdbc.queryForList(
+                    "SELECT matviewname FROM pg_matviews WHERE schemaname = 'public'", String.class));
+            } catch (DataAccessException e) {
+                return;   // database unreachable — live views keep being used
+            }
+
+            for (String view : VIEWS) {
+                String mv = "mv_" + view.substring(2);
+                long start = System.nanoTime();
+                if (!existing.contains(mv)) {
+                    states.put(view, new ViewState(view, mv, null, Instant.now(), 0, "absente"));
+                    continue;
+                }
+                try {
+                    jdbc.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + mv);
+                    states.put(view, new ViewState(view, mv, version, Instant.now(),
+                            (System.nanoTime() - start) / 1_000_000, null));
+                } catch (DataAccessException e) {
+                    states.put(view, new ViewState(view, mv, null, Instant.now(),
+                            (System.nanoTime() - start) / 1_000_000, e.getMostSpecificCause().getMessage()));
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
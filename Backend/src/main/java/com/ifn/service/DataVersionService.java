@@ -0,0 +1,57 @@
+package com.ifn.service;
+
+import com.ifn.config.ReplicaRoutingDataSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks a monotonically increasing version of the served data.
+ *
+ * Bumped after every import and every sync notification; read by DataVersionInterceptor
+ * to answer conditional GETs with 304 without touching the database.
+ * The epoch part changes on every restart, since the sync script may have written
+ * while the service was down. Every bump is published as a {@link Changed} event.
+ *
+ * With a read replica, every bump first fences the replica (ReplicaRoutingDataSource.fence):
+ * reads stay on the primary until the replica has replayed the changes behind the new version.
+ */
+@Service
+public class DataVersionService {
+
+    public record Version(long epoch, long counter, long modifiedAt) {
+        /** Strong entity tag, e.g. "1760000000000-42". */
+        public String etag() {
+            return "\"" + epoch + "-" + counter + "\"";
+        }
+    }
+
+    /** Application event published after every bump. */
+    public record Changed(Version version) {}
+
+    private final ApplicationEventPublisher events;
+    private final DataSource dataSource;
+    private final AtomicReference<Version> current;
+
+    public DataVersionService(ApplicationEventPublisher events, DataSource dataSource) {
+        this.events = events;
+        this.dataSource = dataSource;
+        long now = System.currentTimeMillis();
+        this.current = new AtomicReference<>(new Version(now, 0L, now));
+    }
+
+    public Version current() {
+        return current.get();
+    }
+
+    /** Marks the data as changed; returns the new version. */
+    public Version bump() {
+        if (dataSource instanceof ReplicaRoutingDataSource routing) routing.fence();
+        long now = System.currentTimeMillis();
+        Version v = current.updateAndGet(c -> new Version(c.epoch(), c.counter() + 1, Math.max(now, c.modifiedAt())));
+        events.publishEvent(new Changed(v));
+        return v;
+    }
+}
@@ -0,0 +1,385 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Dendrometric totals from the tree table: stems, basal area and volume per hectare,
+ * rolled up by strate_cartographique, essence and DPANEF.
+ *
+ * Trees are streamed once into per-plot primitive accumulators, regular visits only
+ * (a control would count its placette twice). The roll-up over those accumulators runs
+ * on the common fork-join pool. After a ZIP import only the plots it touched are re-read;
+ * any other change (plot CSV import, sync script) triggers a full reload.
+ * Strate and DPANEF come from ifn_programme, as on the dashboard. After every data change the
+ * recomputation is queued on the task scheduler, off the thread that bumped the version.
+ */
+@Service
+public class DendroService {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private record Snapshot(DataVersionService.Version version, Map<String, PlotAccumulator> plots,
+                            Map<String, Object> summary) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final DataVersionService dataVersion;
+    private final double plotAreaHa;
+    private final double formFactor;
+    private final TreeSchema treeSchema;
+    private final TaskScheduler taskScheduler;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /** Essence dictionary shared by all snapshots; only grows. Guarded by rebuildLock. */
+    private final Map<String, Integer> essenceIds = new HashMap<>();
+    private final List<String> essences = new ArrayList<>();
+
+    /** Plots touched by imports committed since the last snapshot. Guarded by this. */
+    private Set<String> pendingPlots = new HashSet<>();
+    private int pendingImports;
+
+    /** Held while a snapshot is built. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public DendroService(
+        JdbcTemplate jdbc,
+        PlatformTransactionManager transactionManager,
+        DataVersionService dataVersion,
+        TreeSchema treeSchema,
+        TaskScheduler taskScheduler,
+        @Value("${app.dendro.plot-radius-m:15}") double plotRadiusM,
+        @Value("${app.dendro.form-factor:0.5}") double formFactor
+    ) {
+        this.jdbc = jdbc;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dataVersion = dataVersion;
+        this.plotAreaHa = Math.PI * plotRadiusM * plotRadiusM / 10_000;
+        this.formFactor = formFactor;
+        this.treeSchema = treeSchema;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Summary for the current data version, recomputed first if the data changed.
+     *
+     * @throws IllegalStateException when the tree table has no diameter column (see TreeSchema)
+     */
+    public Map<String, Object> summary() {
+        return current().summary();
+    }
+
+    /** Remembers which plots an import replaced, for the next recomputation. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onImported(ImportService.Imported event) {
+        pendingPlots.addAll(event.plotNos());
+        pendingImports++;
+    }
+
+    /** Queues one background recomputation; further changes while it is queued are merged into it. */
+    @EventListener
+    public void onDataChanged(DataVersionService.Changed event) {
+        if (refreshQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::refresh, Instant.now());
+        }
+    }
+
+    /** On failure the next summary() call retries. */
+    void refresh() {
+        refreshQueued.set(false);
+        try {
+            current();
+        } catch (DataAccessException | IllegalStateException ignored) {
+        }
+    }
+
+    private Snapshot current() {
+        DataVersionService.Version v = dataVersion.current();
+        Snapshot s = snapshot;
+        if (s != null && s.version().equals(v)) return s;
+        rebuildLock.lock();
+        try {
+            s = snapshot;
+            if (s != null && s.version().equals(v)) return s;
+
+            Set<String> touched;
+            int imports;
+            synchronized (this) {
+                touched = pendingPlots;
+                imports = pendingImports;
+                pendingPlots = new HashSet<>();
+                pendingImports = 0;
+            }
+
+            // Incremental only if every bump since the last snapshot was a ZIP import
+            boolean incremental = s != null
+                    && s.version().epoch() == v.epoch()
+                    && v.counter() - s.version().counter() == imports;
+
+            long start = System.currentTimeMillis();
+            TreeSchema.Columns columns = treeSchema.columns();
+            Map<String, PlotAccumulator> plots;
+            if (incremental) {
+                plots = new HashMap<>(s.plots());
+                plots.keySet().removeAll(touched);
+                if (!touched.isEmpty()) plots.putAll(load(columns, touched));
+            } else {
+                plots = load(columns, null);
+            }
+
+            Map<String, Object> summary = summarize(plots, columns);
+            Map<String, Object> recalcul = new LinkedHashMap<>();
+            recalcul.put("mode", incremental ? "incremental" : "complet");
+            recalcul.put("placettes_relues", incremental ? touched.size() : plots.size());
+            recalcul.put("duree_ms", System.currentTimeMillis() - start);
+            summary.put("recalcul", recalcul);
+
+            snapshot = s = new Snapshot(v, plots, Collections.unmodifiableMap(summary));
+            return s;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // ─── Loading ──────────────────────────────────────────────────────────────
+
+    /**
+     * Accumulators of the regular plots in plotNos (all regular plots when null).
+     * Plots without trees are kept: they count in the sampled area.
+     */
+    private Map<String, PlotAccumulator> load(TreeSchema.Columns columns, Set<String> plotNos) {
+        List<Object> args = plotNos != null ? new ArrayList<>(plotNos) : List.of();
+        String in = plotNos != null
+                ? " IN (" + plotNos.stream().map(k -> "?").collect(Collectors.joining(",")) + ")"
+                : null;
+
+        String plotSql =
+                "SELECT p.plot_no, prog.strate_cartographique, prog.dpanef " +
+                "FROM plot p " +
+                "LEFT JOIN ifn_programme prog ON prog.num_placette = p.plot_no " +
+                "WHERE p.plot_kind = 'R'" +
+                (in != null ? " AND p.plot_no" + in : "");
+
+        String treeSql =
+                "SELECT t.plot_plot_no, " +
+                (columns.essence() != null ? "t." + columns.essence() : "NULL") + ", " +
+                "t." + columns.diameter() + ", " +
+                (columns.height() != null ? "t." + columns.height() : "NULL") + " " +
+                "FROM tree t " +
+                "JOIN plot p ON p.plot_no = t.plot_plot_no AND p.plot_kind = 'R'" +
+                (in != null ? " WHERE t.plot_plot_no" + in : "");
+
+        // A transaction lets the PostgreSQL driver stream with a cursor instead of buffering every row
+        return readOnlyTx.execute(status -> {
+            Map<String, PlotAccumulator> plots = new HashMap<>();
+            jdbc.query(plotSql,
+                (RowCallbackHandler) rs -> plots.put(rs.getString(1), new PlotAccumulator(rs.getString(2), rs.getString(3))),
+                args.toArray());
+
+            jdbc.query(
+                con -> {
+                    var ps = con.prepareStatement(treeSql);
+                    ps.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> {
+                    PlotAccumulator acc = plots.get(rs.getString(1));
+                    if (acc == null) return;
+                    double d = TreeSchema.number(rs, 3);
+                    if (!(d > 0)) {
+                        acc.ignored++;
+                        return;
+                    }
+                    acc.add(essenceId(rs.getString(2)), d, TreeSchema.number(rs, 4), formFactor);
+                });
+            return plots;
+        });
+    }
+
+    private int essenceId(String essence) {
+        return essenceIds.computeIfAbsent(essence, k -> {
+            essences.add(k);
+            return essences.size() - 1;
+        });
+    }
+
+    // ─── Roll-up ──────────────────────────────────────────────────────────────
+
+    private Map<String, Object> summarize(Map<String, PlotAccumulator> plots, TreeSchema.Columns columns) {
+        int essenceCount = essences.size();
+        Rollup r = plots.values().parallelStream()
+                .collect(() -> new Rollup(essenceCount), Rollup::add, Rollup::merge);
+
+        double sampledHa = r.total.plots * plotAreaHa;
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("surface_placette_ha", round(plotAreaHa, 4));
+        out.put("coefficient_forme", formFactor);
+        Map<String, Object> cols = new LinkedHashMap<>();
+        cols.put("diametre", columns.diameter());
+        cols.put("hauteur", columns.height());
+        cols.put("essence", columns.essence());
+        out.put("colonnes", cols);
+        out.put("arbres_ignores", r.ignored);
+        out.put("total", r.total.toMap(null, null, sampledHa));
+        out.put("strate", groups(r.strate, "strate", plotAreaHa));
+        out.put("dpanef", groups(r.dpanef, "dpanef", plotAreaHa));
+
+        // Per-hectare values of an essence are over the whole sampled area
+        Map<String, Totals> byEssence = new HashMap<>();
+        for (int e = 0; e < essenceCount; e++) {
+            if (r.essence[e].plots > 0) byEssence.put(essences.get(e), r.essence[e]);
+        }
+        List<Map<String, Object>> essenceRows = byEssence.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(en -> en.getValue().toMap("essence", en.getKey(), sampledHa))
+                .toList();
+        out.put("essence", essenceRows);
+        return out;
+    }
+
+    private static List<Map<String, Object>> groups(Map<String, Totals> groups, String keyName, double plotAreaHa) {
+        return groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(en -> en.getValue().toMap(keyName, en.getKey(), en.getValue().plots * plotAreaHa))
+                .toList();
+    }
+
+    private static double round(double v, int decimals) {
+        double f = Math.pow(10, decimals);
+        return Math.round(v * f) / f;
+    }
+
+    /** Trees of one regular plot, one slot per essence present. */
+    static final class PlotAccumulator {
+        final String strate;
+        final String dpanef;
+        int size;
+        int ignored;
+        int[] essence = new int[4];
+        int[] stems = new int[4];
+        double[] basal = new double[4];
+        double[] volume = new double[4];
+        double[] sumD2 = new double[4];
+
+        PlotAccumulator(String strate, String dpanef) {
+            this.strate = strate;
+            this.dpanef = dpanef;
+        }
+
+        /** @param d diameter at 1.30 m in cm, @param h total height in m (NaN if unknown) */
+        void add(int essenceId, double d, double h, double formFactor) {
+            int slot = 0;
+            while (slot < size && essence[slot] != essenceId) slot++;
+            if (slot == size) {
+                if (size == essence.length) grow();
+                essence[slot] = essenceId;
+                size++;
+            }
+            double g = Math.PI / 4 * (d / 100) * (d / 100);
+            stems[slot]++;
+            basal[slot] += g;
+            if (h > 0) volume[slot] += g * h * formFactor;
+            sumD2[slot] += d * d;
+        }
+
+        private void grow() {
+            int n = essence.length * 2;
+            essence = Arrays.copyOf(essence, n);
+            stems = Arrays.copyOf(stems, n);
+            basal = Arrays.copyOf(basal, n);
+            volume = Arrays.copyOf(volume, n);
+            sumD2 = Arrays.copyOf(sumD2, n);
+        }
+    }
+
+    /** Additive totals of a group of plots. */
+    static final class Totals {
+        int plots;
+        long stems;
+        double basal, volume, sumD2;
+
+        void add(PlotAccumulator p) {
+            plots++;
+            for (int i = 0; i < p.size; i++) add(p, i);
+        }
+
+        void add(PlotAccumulator p, int slot) {
+            stems  += p.stems[slot];
+            basal  += p.basal[slot];
+            volume += p.volume[slot];
+            sumD2  += p.sumD2[slot];
+        }
+
+        void merge(Totals o) {
+            plots  += o.plots;
+            stems  += o.stems;
+            basal  += o.basal;
+            volume += o.volume;
+            sumD2  += o.sumD2;
+        }
+
+        Map<String, Object> toMap(String keyName, String key, double areaHa) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            if (keyName != null) m.put(keyName, key);
+            m.put("placettes", plots);
+            m.put("arbres", stems);
+            m.put("n_ha", areaHa > 0 ? round(stems / areaHa, 1) : null);
+            m.put("g_ha_m2", areaHa > 0 ? round(basal / areaHa, 2) : null);
+            m.put("v_ha_m3", areaHa > 0 ? round(volume / areaHa, 2) : null);
+            m.put("dg_cm", stems > 0 ? round(Math.sqrt(sumD2 / stems), 1) : null);
+            return m;
+        }
+    }
+
+    /** Partial roll-up of a share of the plots; merged pairwise by the fork-join pool. */
+    static final class Rollup {
+        final Totals total = new Totals();
+        final Map<String, Totals> strate = new HashMap<>();
+        final Map<String, Totals> dpanef = new HashMap<>();
+        final Totals[] essence;
+        long ignored;
+
+        Rollup(int essenceCount) {
+            essence = new Totals[essenceCount];
+            for (int i = 0; i < essenceCount; i++) essence[i] = new Totals();
+        }
+
+        void add(PlotAccumulator p) {
+            total.add(p);
+            strate.computeIfAbsent(p.strate, k -> new Totals()).add(p);
+            dpanef.computeIfAbsent(p.dpanef, k -> new Totals()).add(p);
+            for (int i = 0; i < p.size; i++) {
+                Totals t = essence[p.essence[i]];
+                t.plots++;
+                t.add(p, i);
+            }
+            ignored += p.ignored;
+        }
+
+        void merge(Rollup o) {
+            total.merge(o.total);
+            o.strate.forEach((k, t) -> strate.computeIfAbsent(k, x -> new Totals()).merge(t));
+            o.dpanef.forEach((k, t) -> dpanef.computeIfAbsent(k, x -> new Totals()).merge(t));
+            for (int i = 0; i < essence.length; i++) essence[i].merge(o.essence[i]);
+            ignored += o.ignored;
+        }
+    }
+}
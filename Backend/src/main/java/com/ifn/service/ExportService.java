@@ -0,0 +1,431 @@
+package com.ifn.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming exports of plots, placettes and trees as CSV, GeoJSON Lines or GeoPackage.
+ *
+ * Rows are read through a forward-only cursor inside a read-only transaction (autocommit off,
+ * so the PostgreSQL driver honours fetchSize) and written as they arrive: heap use does not
+ * depend on the table size. Rows are ordered by key, so an interrupted CSV / GeoJSON Lines
+ * download is resumed with after=&lt;last key received&gt;. A GeoPackage is a SQLite file; it is
+ * built once per data version on disk and served from there, with HTTP Range support.
+ */
+@Service
+public class ExportService {
+
+    private static final int FETCH_SIZE = 2_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int WGS84 = 4326;
+
+    public enum Format {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        GEOJSONL("geojsonl", "application/x-ndjson"),
+        GPKG("gpkg", "application/geopackage+sqlite3");
+
+        public final String extension;
+        public final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public static Format of(String extension) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(extension)) return f;
+            }
+            throw new IllegalArgumentException("Format inconnu : " + extension + " (csv, geojsonl, gpkg)");
+        }
+    }
+
+    /**
+     * An exportable table; x / y are null for tables without coordinates.
+     * An export can resume after a key only when the key is unique (resumable).
+     */
+    public record Source(String name, String table, String key, boolean resumable, String x, String y) {}
+
+    // tree has no unique column: its columns come from the Collect export (see TreeSchema)
+    private static final Map<String, Source> SOURCES = Map.of(
+        "plots",     new Source("plots",     "plot",          "plot_no",      true,  "plot_coordinate_center_x", "plot_coordinate_center_y"),
+        "controles", new Source("controles", "plot_controle", "plot_no",      true,  "plot_coordinate_center_x", "plot_coordinate_center_y"),
+        "placettes", new Source("placettes", "ifn_programme", "num_placette", true,  "x_centre",                 "y_centre"),
+        "tree",      new Source("tree",      "tree",          "plot_plot_no", false, null,                       null)
+    );
+
+    /** One GeoPackage build: a source at one data version. */
+    private record BuildKey(String source, DataVersionService.Version version) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final JsonMapper jsonMapper;
+    private final DataVersionService dataVersion;
+    private final Path cacheDir;
+    private final Map<BuildKey, CompletableFuture<Path>> builds = new ConcurrentHashMap<>();
+
+    public ExportService(
+        JdbcTemplate jdbc,
+        PlatformTransactionManager transactionManager,
+        JsonMapper jsonMapper,
+        DataVersionService dataVersion,
+        @Value("${app.export.cache-dir:${java.io.tmpdir}/ifn-export}") Path cacheDir
+    ) {
+        this.jdbc = jdbc;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.dataVersion = dataVersion;
+        this.cacheDir = cacheDir;
+    }
+
+    /** @throws IllegalArgumentException for a name outside plots, controles, placettes, tree */
+    public Source source(String name) {
+        Source s = SOURCES.get(name);
+        if (s == null) {
+            throw new IllegalArgumentException("Table inconnue : " + name + " (" + String.join(", ", new TreeSet<>(SOURCES.keySet())) + ")");
+        }
+        return s;
+    }
+
+    // ─── CSV / GeoJSON Lines ──────────────────────────────────────────────────
+
+    /**
+     * @throws IllegalArgumentException when after is given for a source whose key is not unique:
+     * rows sharing the last key received would be skipped
+     */
+    public void checkResume(Source source, String after) {
+        if (after != null && !source.resumable()) {
+            throw new IllegalArgumentException("Reprise (after) impossible pour " + source.name()
+                    + " : " + source.key() + " n'est pas unique, relancer l'export complet");
+        }
+    }
+
+    /**
+     * Writes the rows of source with key &gt; after (all rows when after is null) to out.
+     * out is not closed.
+     *
+     * @throws IllegalArgumentException see checkResume
+     */
+    public void write(Source source, Format format, String after, boolean gzip, OutputStream out) throws IOException {
+        checkResume(source, after);
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        OutputStream target = gzip ? new GZIPOutputStream(buffered, BUFFER_SIZE) : buffered;
+        Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+
+        try {
+            stream(source, after, rs -> {
+                try {
+                    if (format == Format.CSV) writeCsv(rs, writer);
+                    else writeGeoJsonLines(source, rs, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);   // client gone: abort the query
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream z) z.finish();
+        buffered.flush();
+    }
+
+    private static void writeCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        String[] columns = columns(rs.getMetaData());
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(columns).build());
+        Object[] row = new Object[columns.length];
+        while (rs.next()) {
+            for (int i = 0; i < row.length; i++) row[i] = rs.getObject(i + 1);
+            printer.printRecord(row);
+        }
+        printer.flush();
+    }
+
+    private void writeGeoJsonLines(Source source, ResultSet rs, Writer writer) throws SQLException, IOException {
+        String[] columns = columns(rs.getMetaData());
+        // Not closed: that would close the response stream before a gzip trailer is written
+        JsonGenerator gen = jsonMapper.createGenerator(writer);
+        while (rs.next()) {
+            gen.writeStartObject();
+            gen.writeStringProperty("type", "Feature");
+            gen.writeName("geometry");
+            double[] point = point(source, rs);
+            if (point == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartObject();
+                gen.writeStringProperty("type", "Point");
+                gen.writeName("coordinates");
+                gen.writeArray(point, 0, 2);
+                gen.writeEndObject();
+            }
+            gen.writeName("properties");
+            gen.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                gen.writeName(columns[i]);
+                Object value = rs.getObject(i + 1);
+                if (value == null) gen.writeNull();
+                else if (value instanceof Number || value instanceof Boolean) gen.writePOJO(value);
+                else gen.writeString(value.toString());
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+        gen.flush();
+    }
+
+    // ─── GeoPackage ───────────────────────────────────────────────────────────
+
+    /**
+     * GeoPackage of the whole source for the current data version, built on first request.
+     * Concurrent requests for the same version wait for that one build; files of older
+     * versions are deleted.
+     */
+    public Path geoPackage(Source source) throws IOException {
+        DataVersionService.Version v = dataVersion.current();
+        String prefix = source.name() + "-";
+        Path file = cacheDir.resolve(prefix + v.epoch() + "-" + v.counter() + ".gpkg");
+        if (Files.exists(file)) return file;
+
+        BuildKey key = new BuildKey(source.name(), v);
+        CompletableFuture<Path> build = new CompletableFuture<>();
+        CompletableFuture<Path> running = builds.putIfAbsent(key, build);
+        if (running != null) return await(running);
+        try {
+            if (!Files.exists(file)) writeGeoPackage(source, prefix, file);
+            build.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(key, build);
+        }
+    }
+
+    private void writeGeoPackage(Source source, String prefix, Path file) throws IOException {
+        Files.createDirectories(cacheDir);
+        Path tmp = Files.createTempFile(cacheDir, prefix, ".tmp");
+        try {
+            buildGeoPackage(source, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(cacheDir, prefix + "*.gpkg")) {
+            for (Path p : old) {
+                if (!p.equals(file)) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> build) throws IOException {
+        try {
+            return build.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private void buildGeoPackage(Source source, Path file) throws IOException {
+        Files.deleteIfExists(file);
+        try (Connection gpkg = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath())) {
+            gpkg.setAutoCommit(false);
+            createGeoPackageSchema(gpkg);
+            stream(source, null, rs -> {
+                try {
+                    copyRows(source, rs, gpkg);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Écriture GeoPackage impossible : " + e.getMessage(), e);
+                }
+                return null;
+            });
+            gpkg.commit();
+        } catch (SQLException e) {
+            throw new IOException("Écriture GeoPackage impossible : " + e.getMessage(), e);
+        }
+    }
+
+    /** Core tables of the GeoPackage 1.4 standard, with the mandatory SRS rows. */
+    private static void createGeoPackageSchema(Connection gpkg) throws SQLException {
+        try (Statement st = gpkg.createStatement()) {
+            st.execute("PRAGMA application_id = 1196444487");   // 'GPKG'
+            st.execute("PRAGMA user_version = 10400");
+            st.execute("CREATE TABLE gpkg_spatial_ref_sys (srs_name TEXT NOT NULL, srs_id INTEGER PRIMARY KEY, " +
+                       "organization TEXT NOT NULL, organization_coordsys_id INTEGER NOT NULL, definition TEXT NOT NULL, description TEXT)");
+            st.execute("INSERT INTO gpkg_spatial_ref_sys VALUES ('WGS 84 geodetic', 4326, 'EPSG', 4326, " +
+                       "'GEOGCS[\"WGS 84\",DATUM[\"WGS_1984\",SPHEROID[\"WGS 84\",6378137,298.257223563,AUTHORITY[\"EPSG\",\"7030\"]]," +
+                       "AUTHORITY[\"EPSG\",\"6326\"]],PRIMEM[\"Greenwich\",0,AUTHORITY[\"EPSG\",\"8901\"]]," +
+                       "UNIT[\"degree\",0.0174532925199433,AUTHORITY[\"EPSG\",\"9122\"]],AUTHORITY[\"EPSG\",\"4326\"]]', " +
+                       "'longitude/latitude coordinates in decimal degrees on the WGS 84 spheroid')");
+            st.execute("INSERT INTO gpkg_spatial_ref_sys VALUES ('Undefined cartesian SRS', -1, 'NONE', -1, 'undefined', NULL)");
+            st.execute("INSERT INTO gpkg_spatial_ref_sys VALUES ('Undefined geographic SRS', 0, 'NONE', 0, 'undefined', NULL)");
+            st.execute("CREATE TABLE gpkg_contents (table_name TEXT NOT NULL PRIMARY KEY, data_type TEXT NOT NULL, " +
+                       "identifier TEXT UNIQUE, description TEXT DEFAULT '', " +
+                       "last_change DATETIME NOT NULL DEFAULT (strftime('%Y-%m-%dT%H:%M:%fZ','now')), " +
+                       "min_x DOUBLE, min_y DOUBLE, max_x DOUBLE, max_y DOUBLE, " +
+                       "srs_id INTEGER REFERENCES gpkg_spatial_ref_sys(srs_id))");
+            st.execute("CREATE TABLE gpkg_geometry_columns (table_name TEXT NOT NULL, column_name TEXT NOT NULL, " +
+                       "geometry_type_name TEXT NOT NULL, srs_id INTEGER NOT NULL, z TINYINT NOT NULL, m TINYINT NOT NULL, " +
+                       "PRIMARY KEY (table_name, column_name), " +
+                       "FOREIGN KEY (table_name) REFERENCES gpkg_contents(table_name), " +
+                       "FOREIGN KEY (srs_id) REFERENCES gpkg_spatial_ref_sys(srs_id))");
+        }
+    }
+
+    private static void copyRows(Source source, ResultSet rs, Connection gpkg) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        String[] columns = columns(md);
+        boolean spatial = source.x() != null;
+
+        StringBuilder ddl = new StringBuilder("CREATE TABLE \"" + source.name() + "\" (fid INTEGER PRIMARY KEY AUTOINCREMENT");
+        StringBuilder insert = new StringBuilder("INSERT INTO \"" + source.name() + "\" (");
+        StringBuilder values = new StringBuilder();
+        if (spatial) {
+            ddl.append(", geom POINT");
+            insert.append("geom, ");
+            values.append("?, ");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            ddl.append(", \"").append(columns[i]).append("\" ").append(sqliteType(md.getColumnType(i + 1)));
+            insert.append(i > 0 ? ", " : "").append('"').append(columns[i]).append('"');
+            values.append(i > 0 ? ", " : "").append('?');
+        }
+        ddl.append(')');
+        insert.append(") VALUES (").append(values).append(')');
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        try (Statement st = gpkg.createStatement()) {
+            st.execute(ddl.toString());
+        }
+        try (PreparedStatement ps = gpkg.prepareStatement(insert.toString())) {
+            int pending = 0;
+            while (rs.next()) {
+                int p = 1;
+                if (spatial) {
+                    double[] point = point(source, rs);
+                    ps.setBytes(p++, point != null ? geoPackagePoint(point[0], point[1]) : null);
+                    if (point != null) {
+                        minX = Math.min(minX, point[0]);
+                        minY = Math.min(minY, point[1]);
+                        maxX = Math.max(maxX, point[0]);
+                        maxY = Math.max(maxY, point[1]);
+                    }
+                }
+                for (int i = 1; i <= columns.length; i++) {
+                    Object value = rs.getObject(i);
+                    if (value instanceof Boolean b) value = b ? 1 : 0;
+                    else if (value != null && !(value instanceof Number) && !(value instanceof String)) value = value.toString();
+                    ps.setObject(p++, value);
+                }
+                ps.addBatch();
+                if (++pending == FETCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = gpkg.prepareStatement(
+                "INSERT INTO gpkg_contents (table_name, data_type, identifier, min_x, min_y, max_x, max_y, srs_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            boolean bbox = spatial && minX <= maxX;
+            ps.setString(1, source.name());
+            ps.setString(2, spatial ? "features" : "attributes");
+            ps.setString(3, source.name());
+            ps.setObject(4, bbox ? minX : null);
+            ps.setObject(5, bbox ? minY : null);
+            ps.setObject(6, bbox ? maxX : null);
+            ps.setObject(7, bbox ? maxY : null);
+            ps.setObject(8, spatial ? WGS84 : null);
+            ps.executeUpdate();
+        }
+        if (spatial) {
+            try (PreparedStatement ps = gpkg.prepareStatement(
+                    "INSERT INTO gpkg_geometry_columns VALUES (?, 'geom', 'POINT', ?, 0, 0)")) {
+                ps.setString(1, source.name());
+                ps.setInt(2, WGS84);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /** GeoPackage geometry blob: "GP" header without envelope, then a little-endian WKB point. */
+    static byte[] geoPackagePoint(double x, double y) {
+        ByteBuffer b = ByteBuffer.allocate(8 + 21).order(ByteOrder.LITTLE_ENDIAN);
+        b.put((byte) 'G').put((byte) 'P').put((byte) 0).put((byte) 0b0000_0001);   // version 0, no envelope, LE
+        b.putInt(WGS84);
+        b.put((byte) 1).putInt(1).putDouble(x).putDouble(y);                      // WKB Point
+        return b.array();
+    }
+
+    private static String sqliteType(int sqlType) {
+        return switch (sqlType) {
+            case Types.BOOLEAN, Types.BIT, Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> "INTEGER";
+            case Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> "DOUBLE";
+            case Types.DATE -> "DATE";
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> "DATETIME";
+            default -> "TEXT";
+        };
+    }
+
+    // ─── Cursor ───────────────────────────────────────────────────────────────
+
+    private void stream(Source source, String after, ResultSetExtractor<Void> extractor) {
+        String sql = "SELECT * FROM " + source.table()
+                + (after != null ? " WHERE " + source.key() + " > ?" : "")
+                + " ORDER BY " + source.key();
+        readOnlyTx.executeWithoutResult(status -> jdbc.query(
+            con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                if (after != null) ps.setString(1, after);
+                return ps;
+            },
+            extractor));
+    }
+
+    private static String[] columns(ResultSetMetaData md) throws SQLException {
+        String[] columns = new String[md.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) columns[i] = md.getColumnLabel(i + 1).toLowerCase();
+        return columns;
+    }
+
+    /** {x, y} of the current row, or null when the source has no coordinates or they are empty. */
+    private static double[] point(Source source, ResultSet rs) throws SQLException {
+        if (source.x() == null) return null;
+        double x = rs.getDouble(source.x());
+        if (rs.wasNull()) return null;
+        double y = rs.getDouble(source.y());
+        if (rs.wasNull()) return null;
+        return new double[]{x, y};
+    }
+}
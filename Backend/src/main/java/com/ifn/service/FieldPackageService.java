@@ -0,0 +1,354 @@
+package com.ifn.service;
+
+import com.ifn.entity.IfnProgramme;
+import com.ifn.geo.Geodesic;
+import com.ifn.geo.RoadNetwork;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Offline field packages: one ZIP per equipe with only what the team needs in its sector.
+ *
+ *   manifest.json       equipe, fingerprint, bbox, counts
+ *   placettes.geojson   the team's ifn_programme rows
+ *   road_graph.js       road subgraph inside the bbox + buffer (same format as static/road_graph.js)
+ *   roads_geojson.js    road lines crossing that box (same format as static/roads_geojson.js)
+ *   last_mile.json      per placette: nearest road node of the subgraph and straight-line distance
+ *
+ * Packages are written to app.field-package.cache-dir and reused while their fingerprint holds:
+ * the version epoch and a hash of the equipe's placettes. A data change elsewhere leaves them
+ * alone, and the road files only change with a redeploy, which also changes the epoch.
+ * The previous file is kept until the next rebuild, so a download that was handed it just
+ * before a rebuild can still open it.
+ */
+@Service
+public class FieldPackageService {
+
+    /** A package on disk, valid while the equipe's placettes match its fingerprint. */
+    public record Package(String equipe, String fingerprint, Path file, long sizeBytes, long buildMs) {
+        public String etag() {
+            return "\"" + fingerprint + "\"";
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final IfnProgrammeService programmeService;
+    private final RoadNetwork roadNetwork;
+    private final DataVersionService dataVersion;
+    private final JsonMapper jsonMapper;
+    private final Path cacheDir;
+    private final double bufferM;
+
+    private final Map<String, Package> packages = new ConcurrentHashMap<>();
+    private final Map<String, Package> previous = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public FieldPackageService(
+        JdbcTemplate jdbc,
+        IfnProgrammeService programmeService,
+        RoadNetwork roadNetwork,
+        DataVersionService dataVersion,
+        JsonMapper jsonMapper,
+        @Value("${app.field-package.cache-dir:${java.io.tmpdir}/ifn-packages}") Path cacheDir,
+        @Value("${app.field-package.buffer-m:5000}") double bufferM
+    ) {
+        this.jdbc = jdbc;
+        this.programmeService = programmeService;
+        this.roadNetwork = roadNetwork;
+        this.dataVersion = dataVersion;
+        this.jsonMapper = jsonMapper;
+        this.cacheDir = cacheDir;
+        this.bufferM = bufferM;
+    }
+
+    public List<String> equipes() {
+        return jdbc.queryForList(
+            "SELECT DISTINCT equipe FROM ifn_programme WHERE equipe IS NOT NULL ORDER BY equipe", String.class);
+    }
+
+    /** Packages already built for the current placettes of their equipe. */
+    public List<Package> ready() {
+        long epoch = dataVersion.current().epoch();
+        Map<String, List<IfnProgramme>> byEquipe = placettesByEquipe();
+        return packages.values().stream()
+                .filter(p -> byEquipe.containsKey(p.equipe())
+                        && p.fingerprint().equals(fingerprint(epoch, byEquipe.get(p.equipe()))))
+                .sorted(Comparator.comparing(Package::equipe))
+                .toList();
+    }
+
+    /** Package of one equipe for its current placettes, built if needed. */
+    public Package get(String equipe) {
+        return get(equipe, null);
+    }
+
+    /**
+     * Builds (or reuses) the packages of every equipe, in parallel.
+     * Placettes are read once, in the calling thread, and split by equipe.
+     */
+    public List<Package> buildAll() {
+        roadNetwork.graph();   // load once before the workers start
+        roadNetwork.roads();
+        return placettesByEquipe().entrySet().parallelStream()
+                .map(en -> get(en.getKey(), en.getValue()))
+                .toList();
+    }
+
+    private Map<String, List<IfnProgramme>> placettesByEquipe() {
+        return programmeService
+                .search(PlacetteFilter.of(null, null, null, null, null, null, null, null))
+                .stream()
+                .filter(p -> p.getEquipe() != null && p.getXCentre() != null && p.getYCentre() != null)
+                .collect(Collectors.groupingBy(IfnProgramme::getEquipe, TreeMap::new, Collectors.toList()));
+    }
+
+    private Package get(String equipe, List<IfnProgramme> placettes) {
+        ReentrantLock lock = locks.computeIfAbsent(equipe, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (placettes == null) {
+                placettes = programmeService.search(PlacetteFilter.of(null, null, equipe, null, null, null, null, null))
+                        .stream()
+                        .filter(pl -> pl.getXCentre() != null && pl.getYCentre() != null)
+                        .toList();
+            }
+            String fingerprint = fingerprint(dataVersion.current().epoch(), placettes);
+            Package p = packages.get(equipe);
+            if (p != null && p.fingerprint().equals(fingerprint) && Files.exists(p.file())) return p;
+
+            p = build(equipe, placettes, fingerprint);
+            Package old = packages.put(equipe, p);
+            if (old != null && !old.file().equals(p.file())) {
+                Package older = previous.put(equipe, old);
+                if (older != null && !older.file().equals(p.file())) {
+                    try {
+                        Files.deleteIfExists(older.file());
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+            return p;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Version epoch, placette count and a hash of every packaged attribute, in num_placette order.
+     * Roads and buffer are not hashed: they only change with a redeploy, i.e. a new epoch.
+     */
+    static String fingerprint(long epoch, List<IfnProgramme> placettes) {
+        long hash = 1;
+        List<IfnProgramme> sorted = new ArrayList<>(placettes);
+        sorted.sort(Comparator.comparing(IfnProgramme::getNumPlacette));
+        for (IfnProgramme p : sorted) {
+            hash = 31 * hash + Objects.hash(p.getNumPlacette(), p.getXCentre(), p.getYCentre(),
+                    p.getAltitude(), p.getPente(), p.getExposition(), p.getStrateCartographique(),
+                    p.getEssenceGroup(), p.getEssenceAbr(), p.getDranef(), p.getDpanef(), p.getEquipe(),
+                    p.getXRepere(), p.getYRepere(), p.getDistanceRepere(), p.getAzimutRepere(),
+                    p.getDescriptionRepere(), p.getObservations());
+        }
+        return epoch + "-" + sorted.size() + "-" + Long.toHexString(hash);
+    }
+
+    // ─── Build ────────────────────────────────────────────────────────────────
+
+    private Package build(String equipe, List<IfnProgramme> placettes, String fingerprint) {
+        long start = System.currentTimeMillis();
+        if (placettes.isEmpty()) {
+            throw new IllegalArgumentException("Aucune placette pour l'équipe " + equipe);
+        }
+
+        // Team bbox widened by the buffer, in degrees
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (IfnProgramme p : placettes) {
+            minX = Math.min(minX, p.getXCentre());
+            minY = Math.min(minY, p.getYCentre());
+            maxX = Math.max(maxX, p.getXCentre());
+            maxY = Math.max(maxY, p.getYCentre());
+        }
+        double dLat = bufferM / 111_320;
+        double dLon = bufferM / (111_320 * Math.cos(Math.toRadians((minY + maxY) / 2)));
+        double[] box = {minX - dLon, minY - dLat, maxX + dLon, maxY + dLat};
+
+        RoadNetwork.Graph graph = roadNetwork.graph();
+        int[] nodes = nodesInside(graph, box);
+        List<RoadNetwork.Road> roads = roadNetwork.roads().stream()
+                .filter(r -> r.maxX() >= box[0] && r.minX() <= box[2] && r.maxY() >= box[1] && r.minY() <= box[3])
+                .toList();
+
+        try {
+            Files.createDirectories(cacheDir);
+            String name = slug(equipe) + "-" + fingerprint + ".zip";
+            Path file = cacheDir.resolve(name);
+            Path tmp = Files.createTempFile(cacheDir, slug(equipe), ".tmp");
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                zip.setLevel(Deflater.BEST_COMPRESSION);
+
+                entry(zip, "placettes.geojson", out -> jsonMapper.writeValue(out, programmeService.toGeoJson(placettes)));
+                int[] edgeCount = {0};
+                entry(zip, "road_graph.js", out -> edgeCount[0] = writeGraph(out, graph, nodes));
+                entry(zip, "roads_geojson.js", out -> writeRoads(out, roads));
+                entry(zip, "last_mile.json", out -> jsonMapper.writeValue(out, lastMile(placettes, graph, nodes)));
+
+                Map<String, Object> manifest = new LinkedHashMap<>();
+                manifest.put("equipe", equipe);
+                manifest.put("version", fingerprint);
+                manifest.put("genere_le", Instant.now().toString());
+                manifest.put("bbox", box);
+                manifest.put("buffer_m", bufferM);
+                manifest.put("placettes", placettes.size());
+                manifest.put("noeuds", nodes.length);
+                manifest.put("aretes", edgeCount[0]);
+                manifest.put("routes", roads.size());
+                entry(zip, "manifest.json", out -> jsonMapper.writeValue(out, manifest));
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Package(equipe, fingerprint, file, Files.size(file), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du paquet impossible pour " + equipe, e);
+        }
+    }
+
+    private static int[] nodesInside(RoadNetwork.Graph g, double[] box) {
+        int[] inside = new int[g.size()];
+        int n = 0;
+        for (int i = 0; i < g.size(); i++) {
+            if (g.lon()[i] >= box[0] && g.lon()[i] <= box[2] && g.lat()[i] >= box[1] && g.lat()[i] <= box[3]) {
+                inside[n++] = i;
+            }
+        }
+        return Arrays.copyOf(inside, n);
+    }
+
+    /** Subgraph in the road_graph.js format; edges leaving the box are dropped. Returns the edge count. */
+    private int writeGraph(OutputStream out, RoadNetwork.Graph g, int[] nodes) throws IOException {
+        BitSet keep = new BitSet(g.size());
+        for (int i : nodes) keep.set(i);
+
+        out.write("window.ROAD_GRAPH = ".getBytes());
+        int edges = 0;
+        JsonGenerator gen = jsonMapper.createGenerator(out);
+        gen.writeStartObject();
+        for (int i : nodes) {
+            gen.writeName(g.ids()[i]);
+            gen.writeStartArray();
+            gen.writeNumber(g.lat()[i]);
+            gen.writeNumber(g.lon()[i]);
+            gen.writeStartArray();
+            for (int e = g.edgeStart()[i]; e < g.edgeStart()[i + 1]; e++) {
+                int to = g.edgeTo()[e];
+                if (!keep.get(to)) continue;
+                gen.writeStartArray();
+                gen.writeString(g.ids()[to]);
+                gen.writeNumber(g.edgeDist()[e]);
+                gen.writeNumber(g.edgeTime()[e]);
+                gen.writeEndArray();
+                edges++;
+            }
+            gen.writeEndArray();
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+        gen.flush();
+        out.write(";\n".getBytes());
+        return edges;
+    }
+
+    private void writeRoads(OutputStream out, List<RoadNetwork.Road> roads) throws IOException {
+        out.write("window.ROADS_GEOJSON = ".getBytes());
+        JsonGenerator gen = jsonMapper.createGenerator(out);
+        gen.writeStartObject();
+        gen.writeStringProperty("type", "FeatureCollection");
+        gen.writeName("features");
+        gen.writeStartArray();
+        for (RoadNetwork.Road r : roads) {
+            gen.writeStartObject();
+            gen.writeStringProperty("type", "Feature");
+            gen.writeName("properties");
+            gen.writeStartObject();
+            gen.writeStringProperty("t", r.type());
+            gen.writeEndObject();
+            gen.writeName("geometry");
+            gen.writeStartObject();
+            gen.writeStringProperty("type", "MultiLineString");
+            gen.writeName("coordinates");
+            gen.writeStartArray();
+            for (double[] line : r.lines()) {
+                gen.writeStartArray();
+                for (int k = 0; k < line.length; k += 2) gen.writeArray(line, k, 2);
+                gen.writeEndArray();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.flush();
+        out.write(";\n".getBytes());
+    }
+
+    private Map<String, Object> lastMile(List<IfnProgramme> placettes, RoadNetwork.Graph g, int[] nodes) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (IfnProgramme p : placettes) {
+            int node = roadNetwork.nearestNode(p.getXCentre(), p.getYCentre(), nodes);
+            if (node < 0) continue;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("noeud", g.ids()[node]);
+            m.put("lat", g.lat()[node]);
+            m.put("lon", g.lon()[node]);
+            m.put("distance_m", Math.round(Geodesic.haversine(p.getXCentre(), p.getYCentre(), g.lon()[node], g.lat()[node])));
+            result.put(p.getNumPlacette(), m);
+        }
+        return result;
+    }
+
+    private interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static void entry(ZipOutputStream zip, String name, EntryWriter writer) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        // The JSON writers would close the ZIP stream along with the entry
+        writer.write(new java.io.FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        zip.closeEntry();
+    }
+
+    /** File-name safe and unique form of an equipe name, e.g. "Equipe Kénitra (N°01/26)". */
+    static String slug(String equipe) {
+        String ascii = java.text.Normalizer.normalize(equipe, java.text.Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9]+", "_")
+                .replaceAll("^_|_$", "");
+        return ascii + "_" + Integer.toHexString(equipe.hashCode());
+    }
+}
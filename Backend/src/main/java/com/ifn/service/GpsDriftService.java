@@ -0,0 +1,160 @@
+package com.ifn.service;
+
+import com.ifn.geo.Geodesic;
+import com.ifn.geo.GeodesicBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GPS drift: distance and bearing from the programmed centre (ifn_programme.x/y_centre)
+ * to the surveyed centre (plot.plot_coordinate_center_x/y) of every visit.
+ *
+ * Coordinates are joined into primitive arrays and processed in one batch by GeodesicBatch
+ * (Vector API when available). A visit is an outlier when its drift exceeds max-distance-m, or
+ * when its robust z-score within its equipe (median / MAD of the equipe's drifts) exceeds outlier-z.
+ * Outliers also get the ellipsoidal (Vincenty) distance. Recomputed by the first read after a data
+ * change, not on the thread that bumped the version; a failure reaches that reader.
+ */
+@Service
+public class GpsDriftService {
+
+    /** Drift of one visit; vincentyM is NaN unless the visit is an outlier. */
+    public record Drift(String plotNo, String kind, String equipe,
+                        double progLon, double progLat, double plotLon, double plotLat,
+                        double distanceM, double vincentyM, double bearing, double robustZ, boolean outlier) {}
+
+    public record EquipeStats(String equipe, int visites, double medianeM, double p95M, double maxM, int aberrants) {}
+
+    public record Result(DataVersionService.Version version, List<Drift> drifts, List<EquipeStats> equipes,
+                         boolean vector, long durationMs) {}
+
+    private final JdbcTemplate jdbc;
+    private final DataVersionService dataVersion;
+    private final boolean useVector;
+    private final double maxDistanceM;
+    private final double outlierZ;
+    private final double minMadM;
+
+    private volatile Result result;
+    /** Held while the result is recomputed. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public GpsDriftService(
+        JdbcTemplate jdbc,
+        DataVersionService dataVersion,
+        @Value("${app.drift.vector-api.enabled:true}") boolean useVector,
+        @Value("${app.drift.max-distance-m:100}") double maxDistanceM,
+        @Value("${app.drift.outlier-z:3.5}") double outlierZ,
+        @Value("${app.drift.min-mad-m:5}") double minMadM
+    ) {
+        this.jdbc = jdbc;
+        this.dataVersion = dataVersion;
+        this.useVector = useVector;
+        this.maxDistanceM = maxDistanceM;
+        this.outlierZ = outlierZ;
+        this.minMadM = minMadM;
+    }
+
+    public Result current() {
+        DataVersionService.Version v = dataVersion.current();
+        Result r = result;
+        if (r != null && r.version().equals(v)) return r;
+        rebuildLock.lock();
+        try {
+            r = result;
+            if (r == null || !r.version().equals(v)) result = r = compute(v);
+            return r;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Result compute(DataVersionService.Version v) {
+        long start = System.currentTimeMillis();
+
+        // ─── Join into primitive arrays ───────────────────────────────────────
+        List<String> plotNos = new ArrayList<>();
+        List<String> kinds = new ArrayList<>();
+        List<String> equipes = new ArrayList<>();
+        double[][] coords = new double[4][1024];   // progLon, progLat, plotLon, plotLat
+        int[] size = {0};
+        jdbc.query(
+            "SELECT p.plot_no, p.plot_kind, ip.equipe, ip.x_centre, ip.y_centre, " +
+            "p.plot_coordinate_center_x, p.plot_coordinate_center_y " +
+            "FROM plot p " +
+            "JOIN ifn_programme ip ON ip.num_placette = p.plot_no_base " +
+            "WHERE p.plot_coordinate_center_x IS NOT NULL AND p.plot_coordinate_center_y IS NOT NULL " +
+            "AND ip.x_centre IS NOT NULL AND ip.y_centre IS NOT NULL",
+            (RowCallbackHandler) rs -> {
+                int i = size[0]++;
+                if (i == coords[0].length) {
+                    for (int c = 0; c < 4; c++) coords[c] = Arrays.copyOf(coords[c], i * 2);
+                }
+                plotNos.add(rs.getString(1));
+                kinds.add(rs.getString(2));
+                equipes.add(rs.getString(3));
+                for (int c = 0; c < 4; c++) coords[c][i] = rs.getDouble(4 + c);
+            });
+        int n = size[0];
+
+        double[] distance = new double[n];
+        double[] bearing = new double[n];
+        GeodesicBatch.compute(coords[0], coords[1], coords[2], coords[3], distance, bearing, n, useVector);
+
+        // ─── Robust z-score within each equipe ────────────────────────────────
+        Map<String, List<Integer>> byEquipe = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            byEquipe.computeIfAbsent(Objects.requireNonNullElse(equipes.get(i), ""), k -> new ArrayList<>()).add(i);
+        }
+        double[] z = new double[n];
+        List<EquipeStats> stats = new ArrayList<>();
+        boolean[] outlier = new boolean[n];
+        for (Map.Entry<String, List<Integer>> en : byEquipe.entrySet()) {
+            List<Integer> idx = en.getValue();
+            double[] d = idx.stream().mapToDouble(i -> distance[i]).sorted().toArray();
+            double median = quantile(d, 0.5);
+            double[] deviations = Arrays.stream(d).map(x -> Math.abs(x - median)).sorted().toArray();
+            double mad = Math.max(quantile(deviations, 0.5), minMadM);
+            int count = 0;
+            for (int i : idx) {
+                z[i] = 0.6745 * (distance[i] - median) / mad;
+                outlier[i] = distance[i] > maxDistanceM || z[i] > outlierZ;
+                if (outlier[i]) count++;
+            }
+            stats.add(new EquipeStats(en.getKey().isEmpty() ? null : en.getKey(), idx.size(),
+                    round(median), round(quantile(d, 0.95)), round(d[d.length - 1]), count));
+        }
+
+        List<Drift> drifts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double vincenty = outlier[i]
+                    ? round(Geodesic.vincenty(coords[0][i], coords[1][i], coords[2][i], coords[3][i]))
+                    : Double.NaN;
+            drifts.add(new Drift(plotNos.get(i), kinds.get(i), equipes.get(i),
+                    coords[0][i], coords[1][i], coords[2][i], coords[3][i],
+                    round(distance[i]), vincenty, Math.round(bearing[i] * 10) / 10.0,
+                    Math.round(z[i] * 100) / 100.0, outlier[i]));
+        }
+
+        return new Result(v, List.copyOf(drifts), List.copyOf(stats),
+                useVector && GeodesicBatch.vectorAvailable(), System.currentTimeMillis() - start);
+    }
+
+    /** Linear-interpolated quantile of sorted values. */
+    private static double quantile(double[] sorted, double q) {
+        if (sorted.length == 0) return Double.NaN;
+        double pos = q * (sorted.length - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(lo + 1, sorted.length - 1);
+        return sorted[lo] + (sorted[hi] - sorted[lo]) * (pos - lo);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+}
@@ -2,8 +2,12 @@ package com.ifn.service;
 
 import com.ifn.entity.IfnProgramme;
 import com.ifn.repository.IfnProgrammeRepository;
+import com.ifn.repository.KeysetQuery;
+import com.ifn.repository.PlacetteSpecifications;
+import com.ifn.repository.PlacetteSummary;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.Optional;
 public class IfnProgrammeService {
 
     private final IfnProgrammeRepository repository;
+    private final PlacetteBitmapIndex index;
+    private final KeysetQuery keysetQuery;
 
     public List<IfnProgramme> findAll() {
         return repository.findAll();
@@ -24,30 +30,41 @@ public class IfnProgrammeService {
         return repository.findById(numPlacette);
     }
 
-    public List<IfnProgramme> findByDpanef(String dpanef) {
-        return repository.findByDpanef(dpanef);
-    }
-
-    public List<IfnProgramme> findByDranef(String dranef) {
-        return repository.findByDranef(dranef);
-    }
-
-    public List<IfnProgramme> findByEquipe(String equipe) {
-        return repository.findByEquipe(equipe);
-    }
-
-    public List<IfnProgramme> findByStrate(String strate) {
-        return repository.findByStrateCartographique(strate);
+    /**
+     * Placettes matching every criterion of the filter.
+     * Resolved from the in-memory bitmap index; falls back to a JPA Specification query
+     * when the index is disabled or unavailable.
+     */
+    public List<IfnProgramme> search(PlacetteFilter filter) {
+        return index.query(filter)
+                .orElseGet(() -> repository.findAll(PlacetteSpecifications.of(filter)));
     }
 
-    public List<IfnProgramme> findByEssence(String essence) {
-        return repository.findByEssenceAbr(essence);
+    /**
+     * Facet counts for the placette explorer, from the in-memory index.
+     * Empty when the index is disabled or unavailable.
+     */
+    public Optional<Map<String, Object>> facets(PlacetteFilter filter) {
+        return index.facets(filter);
     }
 
     public long count() {
         return repository.count();
     }
 
+    /**
+     * Keyset page of placettes ordered by num_placette, starting after {@code cursor}.
+     * Selects only the requested PlacetteSummary fields, in a read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage page(String cursor, Integer limit, String fields) {
+        List<String> selected = KeysetPage.fields(fields, PlacetteSummary.class);
+        int size = KeysetPage.clampLimit(limit);
+        List<Object[]> rows = keysetQuery.after(IfnProgramme.class, "numPlacette",
+                cursor != null ? cursor : "", selected, size + 1);
+        return KeysetPage.of(rows, size, selected);
+    }
+
     /**
      * Converts the full list of placettes to a GeoJSON FeatureCollection.
      */
@@ -1,9 +1,13 @@
 package com.ifn.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
@@ -22,6 +26,12 @@ import java.util.zip.ZipInputStream;
 public class ImportService {
 
     private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final PlotValidationService validationService;
+    private final MeterRegistry meters;
+
+    /** Published once per ZIP import with every plot number it replaced, in any table. */
+    public record Imported(Set<String> plotNos) {}
 
     private static final Set<String> KNOWN_TABLES = Set.of(
         "plot", "tree", "plot_reference_object", "structure_vert",
@@ -44,9 +54,27 @@ public class ImportService {
      *
      * Returns { "plot": { "inserted": N, "updated": M }, "tree": K, … }
      * On any failure the whole transaction rolls back — no data is lost.
+     * The imported plots are then validated (see PlotValidationService), within the same
+     * transaction; the counts are returned under "validation".
+     * An {@link Imported} event lists the plots touched, for incremental consumers.
+     *
+     * Metrics: import.duration timer (outcome), import.rows counter (table) and import.plots counter.
      */
     @Transactional(rollbackFor = Exception.class)
     public Map<String, Object> importZip(MultipartFile zipFile) throws IOException {
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "error";
+        try {
+            Map<String, Object> result = importZipTimed(zipFile);
+            outcome = result.containsKey("error") ? "empty" : "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("import.duration").tag("outcome", outcome)
+                    .description("ZIP import time").register(meters));
+        }
+    }
+
+    private Map<String, Object> importZipTimed(MultipartFile zipFile) throws IOException {
         Map<String, Object> result = new LinkedHashMap<>();
 
         // Read all recognised CSVs from the ZIP into memory
@@ -77,8 +105,9 @@ public class ImportService {
             if (!t.equals("plot")) importOrder.add(t);
         }
 
+        Set<String> touched = new HashSet<>();
         for (String table : importOrder) {
-            int[] counts = importTableCsv(table, csvFiles.get(table));
+            int[] counts = importTableCsv(table, csvFiles.get(table), touched);
             if ("plot".equals(table)) {
                 // Return inserted/updated breakdown for plots
                 Map<String, Integer> plotStats = new LinkedHashMap<>();
@@ -90,17 +119,22 @@ public class ImportService {
             }
         }
 
+        Counter.builder("import.plots").description("Plots replaced by ZIP imports")
+                .register(meters).increment(touched.size());
+        result.put("validation", validationService.validate(touched));
+        events.publishEvent(new Imported(touched));
         return result;
     }
 
     // ── Per-table import — returns int[]{inserted, updated} ──────────────────
 
-    private int[] importTableCsv(String table, byte[] csvBytes) throws IOException {
-        // Discover DB columns + types (skip auto-generated id)
+    private int[] importTableCsv(String table, byte[] csvBytes, Set<String> touched) throws IOException {
+        // Discover DB columns + types (skip auto-generated id and generated columns such as plot_kind)
         Map<String, String> colTypes = new LinkedHashMap<>();
         jdbc.query(
             "SELECT column_name, data_type FROM information_schema.columns " +
             "WHERE table_name = ? AND table_schema = 'public' AND column_name <> 'id' " +
+            "AND is_generated = 'NEVER' " +
             "ORDER BY ordinal_position",
             (RowCallbackHandler) rs -> colTypes.put(rs.getString("column_name"), rs.getString("data_type")),
             table
@@ -110,36 +144,9 @@ public class ImportService {
         }
 
         // Parse CSV fully before touching the DB
-        List<String> headers;
-        List<Object[]> rows = new ArrayList<>();
-
-        try (CSVParser parser = CSVFormat.DEFAULT.builder()
-                .setHeader()
-                .setSkipHeaderRecord(true)
-                .setIgnoreHeaderCase(true)
-                .setTrim(true)
-                .setIgnoreEmptyLines(true)
-                .build()
-                .parse(new InputStreamReader(new ByteArrayInputStream(csvBytes), StandardCharsets.UTF_8))) {
-
-            headers = parser.getHeaderNames().stream()
-                .map(String::toLowerCase)
-                .filter(colTypes::containsKey)
-                .distinct()
-                .toList();
-
-            if (headers.isEmpty()) return new int[]{0, 0};
-
-            for (CSVRecord rec : parser) {
-                Object[] row = new Object[headers.size()];
-                for (int i = 0; i < headers.size(); i++) {
-                    String col = headers.get(i);
-                    row[i] = convert(rec.isMapped(col) ? rec.get(col) : null, colTypes.get(col));
-                }
-                rows.add(row);
-            }
-        }
-
+        ParsedCsv parsed = parse(csvBytes, colTypes);
+        List<String> headers = parsed.headers();
+        List<Object[]> rows = parsed.rows();
         if (rows.isEmpty()) return new int[]{0, 0};
 
         // Collect unique key values from the CSV
@@ -151,6 +158,7 @@ public class ImportService {
                 if (row[keyIdx] != null) keys.add(row[keyIdx].toString());
             }
         }
+        touched.addAll(keys);
 
         // Count how many of those keys already exist in the DB
         int existingCount = 0;
@@ -181,15 +189,56 @@ public class ImportService {
             rows
         );
 
+        Counter.builder("import.rows").tag("table", table).description("CSV rows imported")
+                .register(meters).increment(rows.size());
+
         int total   = rows.size();
         int updated = existingCount;
         int inserted = total - updated;
         return new int[]{inserted, updated};
     }
 
+    // ── CSV parsing ───────────────────────────────────────────────────────────
+
+    /** CSV columns known to the table, and the rows converted to their DB types. */
+    record ParsedCsv(List<String> headers, List<Object[]> rows) {}
+
+    static ParsedCsv parse(byte[] csvBytes, Map<String, String> colTypes) throws IOException {
+        List<String> headers;
+        List<Object[]> rows = new ArrayList<>();
+        try (CSVParser parser = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true)
+                .setTrim(true)
+                .setIgnoreEmptyLines(true)
+                .build()
+                .parse(new InputStreamReader(new ByteArrayInputStream(csvBytes), StandardCharsets.UTF_8))) {
+
+            headers = parser.getHeaderNames().stream()
+                .map(String::toLowerCase)
+                .filter(colTypes::containsKey)
+                .distinct()
+                .toList();
+
+            if (headers.isEmpty()) return new ParsedCsv(headers, rows);
+
+            for (CSVRecord rec : parser) {
+                Object[] row = new Object[headers.size()];
+                for (int i = 0; i < headers.size(); i++) {
+                    String col = headers.get(i);
+                    row[i] = convert(rec.isMapped(col) ? rec.get(col) : null, colTypes.get(col));
+                }
+                rows.add(row);
+            }
+        }
+
+        return new ParsedCsv(headers, rows);
+    }
+
     // ── Type coercion ─────────────────────────────────────────────────────────
 
-    private Object convert(String val, String pgType) {
+    static Object convert(String val, String pgType) {
         if (val == null || val.isBlank()) return null;
         return switch (pgType) {
             case "boolean" ->
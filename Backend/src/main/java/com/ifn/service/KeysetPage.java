@@ -0,0 +1,58 @@
+package com.ifn.service;
+
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * {@code next} is the key of the last row, to be sent back as ?cursor= ; null on the last page.
+ * The fields a listing offers are the components of its projection record; only the requested
+ * ones (all of them when none is given) are selected in SQL, see KeysetQuery.
+ */
+public record KeysetPage(List<Map<String, Object>> items, String next) {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5_000;
+
+    /** Clamps a client-supplied page size into [1, MAX_LIMIT]. */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Parses a "fields=a,b,c" selector against the components of a projection record.
+     * Throws IllegalArgumentException on an unknown field.
+     */
+    public static List<String> fields(String selector, Class<? extends Record> type) {
+        List<String> all = Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList();
+        if (selector == null || selector.isBlank()) return all;
+
+        List<String> selected = new ArrayList<>();
+        for (String name : selector.split(",")) {
+            String field = name.trim();
+            if (!all.contains(field)) throw new IllegalArgumentException("Champ inconnu : " + field);
+            if (!selected.contains(field)) selected.add(field);
+        }
+        return selected;
+    }
+
+    /**
+     * Builds a page from KeysetQuery rows (key, then the fields) fetched with limit + 1:
+     * the extra row only tells that a next page exists.
+     */
+    static KeysetPage of(List<Object[]> rows, int limit, List<String> fields) {
+        boolean more = rows.size() > limit;
+        List<Object[]> page = more ? rows.subList(0, limit) : rows;
+
+        List<Map<String, Object>> items = new ArrayList<>(page.size());
+        for (Object[] row : page) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) item.put(fields.get(i), row[i + 1]);
+            items.add(item);
+        }
+        String next = more ? (String) page.get(page.size() - 1)[0] : null;
+        return new KeysetPage(items, next);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ifn.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JdbcTemplate calls under a query name, timed and counted.
+ *
+ * Metrics: db.query timer (query, outcome = success | error) with a percentile histogram,
+ * and db.query.rows summary (query). A query slower than app.metrics.slow-query-ms is logged
+ * at WARN with its name, duration and row count.
+ */
+@Component
+public class MeteredJdbc {
+
+    private static final Logger log = LoggerFactory.getLogger(MeteredJdbc.class);
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry registry;
+    private final long slowQueryMs;
+
+    public MeteredJdbc(
+        JdbcTemplate jdbc,
+        MeterRegistry registry,
+        @Value("${app.metrics.slow-query-ms:500}") long slowQueryMs
+    ) {
+        this.jdbc = jdbc;
+        this.registry = registry;
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    public <T> T queryForObject(String name, String sql, Class<T> type, Object... args) {
+        return timed(name, () -> jdbc.queryForObject(sql, type, args));
+    }
+
+    public List<Map<String, Object>> queryForList(String name, String sql, Object... args) {
+        return timed(name, () -> jdbc.queryForList(sql, args));
+    }
+
+    public Map<String, Object> queryForMap(String name, String sql, Object... args) {
+        return timed(name, () -> jdbc.queryForMap(sql, args));
+    }
+
+    /**
+     * Runs query under name. Rows are the collection's size for a list result,
+     * 1 for any other non-null result.
+     */
+    public <T> T timed(String name, Supplier<T> query) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        long rows = 0;
+        try {
+            T result = query.get();
+            outcome = "success";
+            rows = result instanceof Collection<?> c ? c.size() : result != null ? 1 : 0;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            Timer.builder("db.query")
+                    .tag("query", name)
+                    .tag("outcome", outcome)
+                    .description("Named SQL query time")
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            if (outcome.equals("success")) {
+                DistributionSummary.builder("db.query.rows")
+                        .tag("query", name)
+                        .description("Rows returned by a named SQL query")
+                        .register(registry)
+                        .record(rows);
+            }
+            long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+            if (ms >= slowQueryMs) {
+                log.warn("Requête lente « {} » : {} ms, {} ligne(s), {}", name, ms, rows, outcome);
+            }
+        }
+    }
+}
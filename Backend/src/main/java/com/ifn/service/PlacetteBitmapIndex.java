@@ -0,0 +1,269 @@
+package com.ifn.service;
+
+import com.ifn.entity.IfnProgramme;
+import com.ifn.repository.IfnProgrammeRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory bitmap index over ifn_programme.
+ *
+ * Each placette gets an ordinal. Each filterable attribute is dictionary-encoded and keeps one
+ * RoaringBitmap of ordinals per distinct value, so a filter is the AND of a few bitmaps
+ * followed by a scan of the primitive coordinate arrays for bbox — no database access.
+ * The same dictionary-encoded columns answer facet counts for the placette explorer.
+ * The snapshot is rebuilt on the task scheduler whenever DataVersionService reports a change.
+ * Until the rebuild is done, queries get no answer from the index and go to the database, so a
+ * result is never older than the data version it is served under.
+ */
+@Component
+public class PlacetteBitmapIndex {
+
+    /** Indexed attributes: facet name, and the PlacetteFilter criterion that selects on each. */
+    public enum Attribute {
+        DPANEF("dpanef", PlacetteFilter::dpanef),
+        DRANEF("dranef", PlacetteFilter::dranef),
+        EQUIPE("equipe", PlacetteFilter::equipe),
+        STRATE("strate_cartographique", PlacetteFilter::strate),
+        ESSENCE("essence_abr", PlacetteFilter::essence),
+        GROUPE("essence_group", PlacetteFilter::groupe),
+        STATUT("statut", PlacetteFilter::statut);
+
+        private final String facet;
+        private final Function<PlacetteFilter, String> criterion;
+
+        Attribute(String facet, Function<PlacetteFilter, String> criterion) {
+            this.facet = facet;
+            this.criterion = criterion;
+        }
+
+        public String facet() {
+            return facet;
+        }
+
+        String criterion(PlacetteFilter f) {
+            return criterion.apply(f);
+        }
+    }
+
+    /** One dictionary-encoded column: distinct values, and the ordinals holding each of them. */
+    static final class Column {
+        final String[] dictionary;
+        final RoaringBitmap[] bitmaps;
+        private final Map<String, Integer> codes;
+
+        Column(String[] values) {
+            Map<String, RoaringBitmap> byValue = new TreeMap<>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) byValue.computeIfAbsent(values[i], k -> new RoaringBitmap()).add(i);
+            }
+            this.dictionary = byValue.keySet().toArray(String[]::new);
+            this.bitmaps = byValue.values().toArray(RoaringBitmap[]::new);
+            this.codes = new HashMap<>();
+            for (int c = 0; c < dictionary.length; c++) {
+                codes.put(dictionary[c], c);
+                bitmaps[c].runOptimize();
+            }
+        }
+
+        RoaringBitmap bitmap(String value) {
+            Integer code = codes.get(value);
+            return code != null ? bitmaps[code] : new RoaringBitmap();
+        }
+    }
+
+    /** Immutable view of the table at one data version. */
+    record Snapshot(DataVersionService.Version version, IfnProgramme[] rows, double[] x, double[] y,
+                    Map<Attribute, Column> columns) {
+
+        /** Ordinals matching every criterion of {@code f}. */
+        RoaringBitmap select(PlacetteFilter f) {
+            RoaringBitmap result = RoaringBitmap.bitmapOfRange(0, rows.length);
+            for (RoaringBitmap bm : criteria(f).values()) result.and(bm);
+            return result;
+        }
+
+        /**
+         * Count of each value of each attribute, under all criteria of {@code f} except the one
+         * on that attribute itself — so a dropdown still lists its alternatives once selected.
+         */
+        Map<Attribute, Map<String, Integer>> facets(PlacetteFilter f) {
+            Map<Object, RoaringBitmap> criteria = criteria(f);
+            Map<Attribute, Map<String, Integer>> facets = new EnumMap<>(Attribute.class);
+            for (Attribute a : Attribute.values()) {
+                RoaringBitmap base = RoaringBitmap.bitmapOfRange(0, rows.length);
+                criteria.forEach((key, bm) -> { if (key != a) base.and(bm); });
+
+                Column col = columns.get(a);
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                for (int c = 0; c < col.dictionary.length; c++) {
+                    counts.put(col.dictionary[c], RoaringBitmap.andCardinality(col.bitmaps[c], base));
+                }
+                facets.put(a, counts);
+            }
+            return facets;
+        }
+
+        /** One bitmap per active criterion, keyed by Attribute (or "bbox"). */
+        private Map<Object, RoaringBitmap> criteria(PlacetteFilter f) {
+            Map<Object, RoaringBitmap> criteria = new HashMap<>();
+            for (Attribute a : Attribute.values()) {
+                String value = a.criterion(f);
+                if (value != null) criteria.put(a, columns.get(a).bitmap(value));
+            }
+            if (f.bbox() != null) {
+                double[] b = f.bbox();
+                RoaringBitmap inBox = new RoaringBitmap();
+                for (int i = 0; i < rows.length; i++) {
+                    if (x[i] >= b[0] && x[i] <= b[2] && y[i] >= b[1] && y[i] <= b[3]) inBox.add(i);
+                }
+                criteria.put("bbox", inBox);
+            }
+            return criteria;
+        }
+    }
+
+    private final IfnProgrammeRepository repository;
+    private final PlacetteStatusService statusService;
+    private final DataVersionService dataVersion;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    /** Held while the snapshot is rebuilt. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public PlacetteBitmapIndex(
+        IfnProgrammeRepository repository,
+        PlacetteStatusService statusService,
+        DataVersionService dataVersion,
+        TaskScheduler taskScheduler,
+        @Value("${app.placettes.bitmap-index.enabled:true}") boolean enabled
+    ) {
+        this.repository = repository;
+        this.statusService = statusService;
+        this.dataVersion = dataVersion;
+        this.taskScheduler = taskScheduler;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Placettes matching {@code f}, in num_placette order.
+     * Empty when the index is disabled, being rebuilt or cannot be built — callers then query the database.
+     */
+    public Optional<List<IfnProgramme>> query(PlacetteFilter f) {
+        Snapshot s = current();
+        if (s == null) return Optional.empty();
+        RoaringBitmap matches = s.select(f);
+        List<IfnProgramme> result = new ArrayList<>(matches.getCardinality());
+        matches.forEach((int i) -> result.add(s.rows()[i]));
+        return Optional.of(result);
+    }
+
+    /**
+     * Facet counts under {@code f}: { "total": N, "facets": { "dpanef": { value: count, … }, … } }.
+     * Empty when the index is disabled, being rebuilt or cannot be built.
+     */
+    public Optional<Map<String, Object>> facets(PlacetteFilter f) {
+        Snapshot s = current();
+        if (s == null) return Optional.empty();
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        s.facets(f).forEach((a, counts) -> facets.put(a.facet(), counts));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", s.select(f).getCardinality());
+        result.put("facets", facets);
+        return Optional.of(result);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduleRebuild();
+    }
+
+    @EventListener
+    public void onDataChanged(DataVersionService.Changed event) {
+        scheduleRebuild();
+    }
+
+    /** Queues one background rebuild; further requests while it is queued are merged into it. */
+    void scheduleRebuild() {
+        if (enabled && rebuildQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now());
+        }
+    }
+
+    /** Builds the snapshot of the current data version; on failure the next stale read queues another try. */
+    void rebuild() {
+        rebuildQueued.set(false);
+        DataVersionService.Version v = dataVersion.current();
+        rebuildLock.lock();
+        try {
+            Snapshot s = snapshot;
+            if (s != null && s.version().equals(v)) return;
+            try {
+                snapshot = build(v);
+            } catch (DataAccessException ignored) {
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot of the current data version; null when disabled, or when the data changed since the
+     * last rebuild (one is then queued).
+     */
+    Snapshot current() {
+        if (!enabled) return null;
+        DataVersionService.Version v = dataVersion.current();
+        Snapshot s = snapshot;
+        if (s != null && s.version().equals(v)) return s;
+        scheduleRebuild();
+        return null;
+    }
+
+    private Snapshot build(DataVersionService.Version version) {
+        List<IfnProgramme> all = new ArrayList<>(repository.findAll());
+        all.sort(Comparator.comparing(IfnProgramme::getNumPlacette));
+        Map<String, PlacetteStatusService.Status> statuses = statusService.current();
+
+        int n = all.size();
+        IfnProgramme[] rows = all.toArray(IfnProgramme[]::new);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Map<Attribute, String[]> values = new EnumMap<>(Attribute.class);
+        for (Attribute a : Attribute.values()) values.put(a, new String[n]);
+
+        for (int i = 0; i < n; i++) {
+            IfnProgramme p = rows[i];
+            x[i] = p.getXCentre() != null ? p.getXCentre() : Double.NaN;
+            y[i] = p.getYCentre() != null ? p.getYCentre() : Double.NaN;
+            values.get(Attribute.DPANEF)[i]  = p.getDpanef();
+            values.get(Attribute.DRANEF)[i]  = p.getDranef();
+            values.get(Attribute.EQUIPE)[i]  = p.getEquipe();
+            values.get(Attribute.STRATE)[i]  = p.getStrateCartographique();
+            values.get(Attribute.ESSENCE)[i] = p.getEssenceAbr();
+            values.get(Attribute.GROUPE)[i]  = p.getEssenceGroup();
+            PlacetteStatusService.Status status = statuses.get(p.getNumPlacette());
+            values.get(Attribute.STATUT)[i]  = status != null ? status.statut() : PlacetteFilter.PROGRAMMEE;
+        }
+
+        Map<Attribute, Column> columns = new EnumMap<>(Attribute.class);
+        values.forEach((a, v) -> columns.put(a, new Column(v)));
+        return new Snapshot(version, rows, x, y, columns);
+    }
+}
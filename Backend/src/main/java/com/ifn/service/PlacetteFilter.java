@@ -0,0 +1,65 @@
+package com.ifn.service;
+
+/**
+ * Criteria accepted by the placette endpoints. Every non-null criterion is applied (AND).
+ *
+ * bbox is "minLon,minLat,maxLon,maxLat" in WGS84, matched against x_centre / y_centre.
+ * statut is one of programmee | visitee | controle, same meaning as on the dashboard map.
+ */
+public record PlacetteFilter(
+        String dpanef,
+        String dranef,
+        String equipe,
+        String strate,
+        String essence,
+        String groupe,
+        double[] bbox,
+        String statut
+) {
+
+    public static final String PROGRAMMEE = "programmee";
+    public static final String VISITEE    = "visitee";
+    public static final String CONTROLE   = "controle";
+
+    /**
+     * Builds a filter from raw request parameters.
+     * Throws IllegalArgumentException on a malformed bbox or an unknown statut.
+     */
+    public static PlacetteFilter of(String dpanef, String dranef, String equipe, String strate,
+                                    String essence, String groupe, String bbox, String statut) {
+        return new PlacetteFilter(blankToNull(dpanef), blankToNull(dranef), blankToNull(equipe),
+                blankToNull(strate), blankToNull(essence), blankToNull(groupe),
+                parseBbox(bbox), parseStatut(statut));
+    }
+
+    public boolean isEmpty() {
+        return dpanef == null && dranef == null && equipe == null && strate == null
+                && essence == null && groupe == null && bbox == null && statut == null;
+    }
+
+    private static String blankToNull(String v) {
+        return (v == null || v.isBlank()) ? null : v;
+    }
+
+    private static double[] parseBbox(String bbox) {
+        if (bbox == null || bbox.isBlank()) return null;
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) throw new IllegalArgumentException("bbox attendu : minLon,minLat,maxLon,maxLat");
+        double[] b = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) b[i] = Double.parseDouble(parts[i].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox invalide : " + bbox);
+        }
+        if (b[0] > b[2] || b[1] > b[3]) throw new IllegalArgumentException("bbox invalide : " + bbox);
+        return b;
+    }
+
+    private static String parseStatut(String statut) {
+        if (statut == null || statut.isBlank()) return null;
+        return switch (statut) {
+            case PROGRAMMEE, VISITEE, CONTROLE -> statut;
+            default -> throw new IllegalArgumentException("statut inconnu : " + statut);
+        };
+    }
+}
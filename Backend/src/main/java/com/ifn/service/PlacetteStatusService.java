@@ -0,0 +1,92 @@
+package com.ifn.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Visit status of every placette, keyed on plot_no_base (= ifn_programme.num_placette).
+ *
+ * Built in one sequential pass over plot: the regular ('R'), inter-team ('C') and service ('CS')
+ * visits of a placette share the same plot_no_base, so no self-join is needed.
+ * Kept in memory and rebuilt by the first read after a data change, not on the thread that
+ * bumped the version.
+ */
+@Service
+@RequiredArgsConstructor
+public class PlacetteStatusService {
+
+    /**
+     * statut: controle (a C or CS visit exists) / visitee (regular visit only).
+     * Other fields follow COALESCE(regular, C, CS), as the former triple join did.
+     */
+    public record Status(String statut, Integer accessibilite, Integer aPied, Timestamp dateModified) {}
+
+    private record Snapshot(DataVersionService.Version version, Map<String, Status> byPlacette) {}
+
+    private final JdbcTemplate jdbc;
+    private final DataVersionService dataVersion;
+
+    private volatile Snapshot snapshot;
+    /** Held while the snapshot is rebuilt. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /** Status of visited placettes; a placette absent from the map is still "programmee". */
+    public Map<String, Status> current() {
+        DataVersionService.Version v = dataVersion.current();
+        Snapshot s = snapshot;
+        if (s != null && s.version().equals(v)) return s.byPlacette();
+        rebuildLock.lock();
+        try {
+            s = snapshot;
+            if (s == null || !s.version().equals(v)) snapshot = s = new Snapshot(v, load());
+            return s.byPlacette();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Map<String, Status> load() {
+        Map<String, Merge> merged = new HashMap<>();
+        jdbc.query(
+            "SELECT plot_no_base, plot_kind, plot_accessibilite, plot_accessibility_a_pied, date_modified FROM plot",
+            (RowCallbackHandler) rs -> {
+                int rank = switch (rs.getString(2)) {
+                    case "R" -> 0;
+                    case "C" -> 1;
+                    default  -> 2;
+                };
+                merged.computeIfAbsent(rs.getString(1), k -> new Merge())
+                      .add(rank, rs.getObject(3, Integer.class), rs.getObject(4, Integer.class), rs.getTimestamp(5));
+            });
+
+        Map<String, Status> result = new HashMap<>(merged.size() * 2);
+        merged.forEach((base, m) -> result.put(base, m.toStatus()));
+        return result;
+    }
+
+    /** Per-column COALESCE over the visits of one placette, by rank R (0) < C (1) < CS (2). */
+    private static final class Merge {
+        boolean controle;
+        Integer accessibilite, aPied;
+        Timestamp dateModified;
+        int accRank = 3, aPiedRank = 3, dateRank = 3;
+
+        void add(int rank, Integer acc, Integer pied, Timestamp date) {
+            if (rank > 0) controle = true;
+            if (acc  != null && rank < accRank)   { accessibilite = acc; accRank = rank; }
+            if (pied != null && rank < aPiedRank) { aPied = pied;        aPiedRank = rank; }
+            if (date != null && rank < dateRank)  { dateModified = date; dateRank = rank; }
+        }
+
+        Status toStatus() {
+            return new Status(controle ? PlacetteFilter.CONTROLE : PlacetteFilter.VISITEE, accessibilite, aPied, dateModified);
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.ifn.service;
 
 import com.ifn.entity.Plot;
+import com.ifn.repository.KeysetQuery;
 import com.ifn.repository.PlotRepository;
+import com.ifn.repository.PlotSummary;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
@@ -23,6 +26,7 @@ import java.util.Optional;
 public class PlotService {
 
     private final PlotRepository repository;
+    private final KeysetQuery keysetQuery;
 
     public List<Plot> findAll() {
         return repository.findAll();
@@ -44,6 +48,19 @@ public class PlotService {
         return repository.count();
     }
 
+    /**
+     * Keyset page of plots ordered by plot_no, starting after {@code cursor}.
+     * Selects only the requested PlotSummary fields, in a read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage page(String cursor, Integer limit, String fields) {
+        List<String> selected = KeysetPage.fields(fields, PlotSummary.class);
+        int size = KeysetPage.clampLimit(limit);
+        List<Object[]> rows = keysetQuery.after(Plot.class, "plotNo",
+                cursor != null ? cursor : "", selected, size + 1);
+        return KeysetPage.of(rows, size, selected);
+    }
+
     /**
      * Imports plots from a CSV file. Updates existing rows (by plot_no), inserts new ones.
      * Returns a map with "inserted" and "updated" counts.
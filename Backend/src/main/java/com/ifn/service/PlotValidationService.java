@@ -0,0 +1,199 @@
+package com.ifn.service;
+
+import com.ifn.validation.PlotRow;
+import com.ifn.validation.PlotRule;
+import com.ifn.validation.ValidationContext;
+import com.ifn.validation.Violation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs every {@link PlotRule} bean over plots and stores the violations in plot_validation
+ * (db/create_plot_validation.sql).
+ *
+ * Plots are split into chunks evaluated in parallel; reference data comes from ifn_programme,
+ * read once per run. Called by ImportService for the plots of each ZIP, and on demand for all plots.
+ * Without the plot_validation table the rules still run, but nothing is stored.
+ */
+@Service
+@RequiredArgsConstructor
+public class PlotValidationService {
+
+    private static final int CHUNK_SIZE = 2_000;
+
+    private final JdbcTemplate jdbc;
+    private final List<PlotRule> rules;
+
+    /** Re-validates the given plots, replacing their previous violations. */
+    @Transactional
+    public Map<String, Object> validate(Collection<String> plotNos) {
+        if (plotNos.isEmpty()) return run(List.of(), List.of());
+        return run(loadPlots(plotNos), plotNos);
+    }
+
+    /** Re-validates every plot, replacing the whole plot_validation table. */
+    @Transactional
+    public Map<String, Object> validateAll() {
+        return run(loadPlots(null), null);
+    }
+
+    /**
+     * Stored violations, optionally filtered; empty when the plot_validation table is missing.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> report(String rule, String severity, String dranef, String plotNo) {
+        if (!tableExists()) return Optional.empty();
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT v.plot_no, v.rule, v.severity, v.message, v.measure, v.validated_at, p.plot_dranef, p.plot_dpanef " +
+                "FROM plot_validation v " +
+                "LEFT JOIN plot p ON p.plot_no = v.plot_no " +
+                "WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        if (rule != null && !rule.isBlank()) {
+            sql.append(" AND v.rule = ?");
+            params.add(rule);
+        }
+        if (severity != null && !severity.isBlank()) {
+            sql.append(" AND v.severity = ?");
+            params.add(severity);
+        }
+        if (dranef != null && !dranef.isBlank()) {
+            sql.append(" AND p.plot_dranef = ?");
+            params.add(dranef);
+        }
+        if (plotNo != null && !plotNo.isBlank()) {
+            sql.append(" AND v.plot_no = ?");
+            params.add(plotNo);
+        }
+        sql.append(" ORDER BY v.plot_no, v.rule");
+
+        List<Map<String, Object>> rows = jdbc.queryForList(sql.toString(), params.toArray());
+        Map<String, Long> perRule = new TreeMap<>(rows.stream()
+                .collect(Collectors.groupingBy(r -> (String) r.get("rule"), Collectors.counting())));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("regles", rules.stream().map(PlotRule::code).sorted().toList());
+        report.put("total", rows.size());
+        report.put("placettes", rows.stream().map(r -> r.get("plot_no")).distinct().count());
+        report.put("par_regle", perRule);
+        report.put("violations", rows);
+        return Optional.of(report);
+    }
+
+    // ─── Run ──────────────────────────────────────────────────────────────────
+
+    /** @param scope plots whose stored violations are replaced; null for all */
+    private Map<String, Object> run(List<PlotRow> plots, Collection<String> scope) {
+        long start = System.currentTimeMillis();
+        ValidationContext context = plots.isEmpty() ? null : loadContext();
+
+        int chunks = (plots.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<Violation> violations = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> evaluate(plots.subList(c * CHUNK_SIZE, Math.min(plots.size(), (c + 1) * CHUNK_SIZE)), context))
+                .flatMap(List::stream)
+                .toList();
+
+        boolean stored = tableExists();
+        if (stored) store(violations, scope);
+
+        Map<String, Long> perRule = new TreeMap<>(violations.stream()
+                .collect(Collectors.groupingBy(Violation::rule, Collectors.counting())));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("placettes_validees", plots.size());
+        result.put("violations", violations.size());
+        result.put("par_regle", perRule);
+        result.put("enregistre", stored);
+        result.put("duree_ms", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private List<Violation> evaluate(List<PlotRow> chunk, ValidationContext context) {
+        List<Violation> out = new ArrayList<>();
+        for (PlotRow plot : chunk) {
+            for (PlotRule rule : rules) rule.check(plot, context, out);
+        }
+        return out;
+    }
+
+    private void store(List<Violation> violations, Collection<String> scope) {
+        if (scope == null) {
+            jdbc.update("DELETE FROM plot_validation");
+        } else if (!scope.isEmpty()) {
+            String inClause = scope.stream().map(k -> "?").collect(Collectors.joining(","));
+            jdbc.update("DELETE FROM plot_validation WHERE plot_no IN (" + inClause + ")", scope.toArray());
+        }
+        jdbc.batchUpdate(
+            "INSERT INTO plot_validation (plot_no, rule, severity, message, measure) VALUES (?, ?, ?, ?, ?)",
+            violations.stream()
+                .map(v -> new Object[]{v.plotNo(), v.rule(), v.severity(), v.message(), v.measure()})
+                .toList()
+        );
+    }
+
+    private boolean tableExists() {
+        Integer n = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'plot_validation'",
+            Integer.class);
+        return n != null && n > 0;
+    }
+
+    // ─── Loading ──────────────────────────────────────────────────────────────
+
+    private List<PlotRow> loadPlots(Collection<String> plotNos) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT plot_no, plot_no_base, plot_kind, plot_dranef, " +
+                "plot_coordinate_center_x, plot_coordinate_center_y, " +
+                "plot_date_start_year, plot_date_start_month, plot_date_start_day, " +
+                "plot_date_end_year, plot_date_end_month, plot_date_end_day " +
+                "FROM plot");
+        if (plotNos != null) {
+            sql.append(" WHERE plot_no IN (")
+               .append(plotNos.stream().map(k -> "?").collect(Collectors.joining(",")))
+               .append(")");
+        }
+
+        List<PlotRow> rows = new ArrayList<>();
+        jdbc.query(sql.toString(), (RowCallbackHandler) rs -> {
+            double x = rs.getDouble(5);
+            if (rs.wasNull()) x = Double.NaN;
+            double y = rs.getDouble(6);
+            if (rs.wasNull()) y = Double.NaN;
+            rows.add(new PlotRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), x, y,
+                    rs.getInt(7), rs.getInt(8), rs.getInt(9), rs.getInt(10), rs.getInt(11), rs.getInt(12)));
+        }, plotNos != null ? plotNos.toArray() : new Object[0]);
+        return rows;
+    }
+
+    private ValidationContext loadContext() {
+        Map<String, double[]> centres = new HashMap<>();
+        Map<String, String> dranefs = new HashMap<>();
+        Map<String, double[]> envelopes = new HashMap<>();
+        jdbc.query("SELECT num_placette, dranef, x_centre, y_centre FROM ifn_programme", (RowCallbackHandler) rs -> {
+            String num = rs.getString(1);
+            String dranef = rs.getString(2);
+            double rx = rs.getDouble(3);
+            double x = rs.wasNull() ? Double.NaN : rx;
+            double ry = rs.getDouble(4);
+            double y = rs.wasNull() ? Double.NaN : ry;
+            centres.put(num, new double[]{x, y});
+            if (dranef == null) return;
+            dranefs.put(num, dranef);
+            if (Double.isNaN(x) || Double.isNaN(y)) return;   // programmed without a centre
+            double[] box = envelopes.computeIfAbsent(dranef, k -> new double[]{x, y, x, y});
+            box[0] = Math.min(box[0], x);
+            box[1] = Math.min(box[1], y);
+            box[2] = Math.max(box[2], x);
+            box[3] = Math.max(box[3], y);
+        });
+        return new ValidationContext(centres, dranefs, envelopes, LocalDate.now());
+    }
+}
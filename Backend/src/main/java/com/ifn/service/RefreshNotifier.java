@@ -30,10 +30,19 @@ public class RefreshNotifier {
         return emitter;
     }
 
-    public void notifyRefresh() {
+    /** Browsers currently connected. */
+    public int subscribers() {
+        return emitters.size();
+    }
+
+    /**
+     * Sends one "refresh" event to every browser. The event id carries the data version so
+     * clients can tell coalesced events apart. Callers should go through RefreshScheduler.
+     */
+    public void notifyRefresh(long version) {
         for (SseEmitter emitter : emitters) {
             try {
-                emitter.send(SseEmitter.event().name("refresh").data("reload"));
+                emitter.send(SseEmitter.event().id(String.valueOf(version)).name("refresh").data("reload"));
             } catch (IOException | IllegalStateException e) {
                 emitters.remove(emitter);
             }
@@ -0,0 +1,79 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces refresh requests (imports, sync script, daily cron, startup) into a single
+ * SSE "refresh" event per window.
+ *
+ * A request opens a window, or joins the one already open. The window fires once no new
+ * request arrived for min-interval-ms, but never later than max-delay-ms after it opened.
+ * Two consecutive events are always at least min-interval-ms apart. Time is read from the
+ * task scheduler's clock, so both the windows and the firing follow the same clock.
+ */
+@Component
+public class RefreshScheduler {
+
+    private final RefreshNotifier refreshNotifier;
+    private final TaskScheduler taskScheduler;
+    private final long minIntervalMs;
+    private final long maxDelayMs;
+
+    private final AtomicLong version = new AtomicLong();
+    private ScheduledFuture<?> pending;
+    private long generation;
+    private long windowOpenedAt;
+    private long lastFiredAt = Long.MIN_VALUE / 2;
+
+    public RefreshScheduler(
+        RefreshNotifier refreshNotifier,
+        TaskScheduler taskScheduler,
+        @Value("${app.refresh.min-interval-ms:2000}") long minIntervalMs,
+        @Value("${app.refresh.max-delay-ms:10000}") long maxDelayMs
+    ) {
+        this.refreshNotifier = refreshNotifier;
+        this.taskScheduler = taskScheduler;
+        this.minIntervalMs = minIntervalMs;
+        this.maxDelayMs = Math.max(maxDelayMs, minIntervalMs);
+    }
+
+    /**
+     * Asks for a refresh of all connected browsers. The event is sent later, together with
+     * every other request received in the same window.
+     */
+    public synchronized void requestRefresh() {
+        long now = taskScheduler.getClock().millis();
+        if (pending == null) {
+            windowOpenedAt = now;
+        } else {
+            pending.cancel(false);
+        }
+
+        long fireAt = Math.min(now + minIntervalMs, windowOpenedAt + maxDelayMs);
+        fireAt = Math.max(fireAt, lastFiredAt + minIntervalMs);
+        long token = ++generation;
+        pending = taskScheduler.schedule(() -> fire(token), Instant.ofEpochMilli(fireAt));
+    }
+
+    /** Version of the last event sent (0 before the first one). */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    private void fire(long token) {
+        long v;
+        synchronized (this) {
+            if (token != generation) return;   // superseded by a later request in the same window
+            pending = null;
+            lastFiredAt = taskScheduler.getClock().millis();
+            v = version.incrementAndGet();
+        }
+        refreshNotifier.notifyRefresh(v);
+    }
+}
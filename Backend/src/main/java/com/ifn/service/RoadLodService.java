@@ -0,0 +1,330 @@
+package com.ifn.service;
+
+import com.ifn.geo.LineSimplifier;
+import com.ifn.geo.MvtEncoder;
+import com.ifn.geo.RoadNetwork;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Levels of detail of the road layer (static/roads_geojson.js), one per zoom level.
+ *
+ * Each level is the Douglas-Peucker simplification of every line at app.roads.lod.tolerance-px
+ * screen pixels for that zoom, computed in Web Mercator. Vertices shared by several lines
+ * (junctions) are pinned so that the lines kept still meet; lines spanning less than the
+ * tolerance are dropped. Above max-zoom the full-resolution lines are served.
+ *
+ * Levels are built on first use and kept for the life of the process (the road files only
+ * change with a redeploy). Tiles, as Mapbox Vector Tiles or GeoJSON, are kept in an LRU cache.
+ */
+@Service
+public class RoadLodService {
+
+    public enum Format {
+        MVT("mvt", "application/vnd.mapbox-vector-tile"),
+        GEOJSON("geojson", "application/geo+json");
+
+        public final String extension;
+        public final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public static Format of(String extension) {
+            for (Format f : values()) if (f.extension.equalsIgnoreCase(extension)) return f;
+            throw new IllegalArgumentException("Format inconnu : " + extension + " (mvt, geojson)");
+        }
+    }
+
+    private static final int EXTENT = 4096;
+    private static final int BUFFER = 64;
+    private static final String LAYER = "routes";
+
+    /** One level: the simplified roads and their vertex count. */
+    private record Level(List<RoadNetwork.Road> roads, long vertices) {}
+
+    /** Roads projected to Web Mercator (unit square) with their pinned vertices, computed once. */
+    private record Projected(List<double[][]> lines, List<boolean[][]> pinned) {}
+
+    private final RoadNetwork roadNetwork;
+    private final JsonMapper jsonMapper;
+    private final int minZoom;
+    private final int maxZoom;
+    private final double tolerancePx;
+
+    private final ReentrantLock projectLock = new ReentrantLock();
+    private volatile Projected projected;
+    private final AtomicReferenceArray<Level> levels;
+    private final Map<String, byte[]> tiles;
+
+    public RoadLodService(
+        RoadNetwork roadNetwork,
+        JsonMapper jsonMapper,
+        @Value("${app.roads.lod.min-zoom:6}") int minZoom,
+        @Value("${app.roads.lod.max-zoom:14}") int maxZoom,
+        @Value("${app.roads.lod.tolerance-px:1.0}") double tolerancePx,
+        @Value("${app.roads.lod.tile-cache-size:4096}") int tileCacheSize
+    ) {
+        this.roadNetwork = roadNetwork;
+        this.jsonMapper = jsonMapper;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.tolerancePx = tolerancePx;
+        this.levels = new AtomicReferenceArray<>(maxZoom - minZoom + 1);
+        this.tiles = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > tileCacheSize;
+            }
+        });
+    }
+
+    /** Roads to draw at this zoom. */
+    public List<RoadNetwork.Road> roads(int zoom) {
+        if (zoom > maxZoom) return roadNetwork.roads();
+        return level(Math.max(zoom, minZoom)).roads();
+    }
+
+    /** GeoJSON FeatureCollection of the roads at this zoom crossing bbox {minLon, minLat, maxLon, maxLat}. */
+    public Map<String, Object> geoJson(double[] bbox, int zoom) {
+        List<Map<String, Object>> features = new ArrayList<>();
+        for (RoadNetwork.Road r : roads(zoom)) {
+            if (intersects(r, bbox)) features.add(feature(r));
+        }
+        Map<String, Object> fc = new LinkedHashMap<>();
+        fc.put("type", "FeatureCollection");
+        fc.put("zoom", zoom);
+        fc.put("features", features);
+        return fc;
+    }
+
+    /** One tile of the road layer, from the cache or encoded now. */
+    public byte[] tile(int z, int x, int y, Format format) {
+        if (z < 0 || z > 22 || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tuile invalide : " + z + "/" + x + "/" + y);
+        }
+        String key = z + "/" + x + "/" + y + "." + format.extension;
+        byte[] cached = tiles.get(key);
+        if (cached != null) return cached;
+        byte[] encoded = format == Format.MVT ? mvt(z, x, y) : jsonMapper.writeValueAsBytes(geoJson(tileBounds(z, x, y), z));
+        tiles.put(key, encoded);
+        return encoded;
+    }
+
+    /** Per level: zoom, tolerance in metres at the equator, features and vertices. */
+    public List<Map<String, Object>> levels() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int z = minZoom; z <= maxZoom; z++) {
+            Level level = level(z);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("zoom", z);
+            m.put("tolerance_m", Math.round(tolerance(z) * 40_075_016.686 * 100) / 100.0);
+            m.put("routes", level.roads().size());
+            m.put("sommets", level.vertices());
+            result.add(m);
+        }
+        long full = roadNetwork.roads().stream().flatMap(r -> Arrays.stream(r.lines())).mapToLong(l -> l.length / 2).sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("zoom", "> " + maxZoom);
+        m.put("tolerance_m", 0);
+        m.put("routes", roadNetwork.roads().size());
+        m.put("sommets", full);
+        result.add(m);
+        return result;
+    }
+
+    // ─── Levels ───────────────────────────────────────────────────────────────
+
+    private Level level(int zoom) {
+        int i = zoom - minZoom;
+        Level level = levels.get(i);
+        if (level == null) {
+            level = simplify(zoom);
+            if (!levels.compareAndSet(i, null, level)) level = levels.get(i);
+        }
+        return level;
+    }
+
+    /** Tolerance at this zoom, in Web Mercator unit-square coordinates (256 px tiles). */
+    private double tolerance(int zoom) {
+        return tolerancePx / (256.0 * (1L << zoom));
+    }
+
+    private Level simplify(int zoom) {
+        List<RoadNetwork.Road> roads = roadNetwork.roads();
+        Projected p = projected();
+        double tolerance = tolerance(zoom);
+        double minExtent2 = tolerance * tolerance;
+
+        RoadNetwork.Road[] result = new RoadNetwork.Road[roads.size()];
+        long[] vertices = new long[roads.size()];
+        IntStream.range(0, roads.size()).parallel().forEach(i -> {
+            RoadNetwork.Road road = roads.get(i);
+            List<double[]> lines = new ArrayList<>(road.lines().length);
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < road.lines().length; k++) {
+                double[] merc = p.lines().get(i)[k];
+                if (LineSimplifier.extent2(merc) < minExtent2) continue;   // under a pixel: gap invisible
+
+                double[] line = LineSimplifier.filter(road.lines()[k], LineSimplifier.keep(merc, tolerance, p.pinned().get(i)[k]));
+                lines.add(line);
+                vertices[i] += line.length / 2;
+                for (int j = 0; j < line.length; j += 2) {
+                    minX = Math.min(minX, line[j]);
+                    maxX = Math.max(maxX, line[j]);
+                    minY = Math.min(minY, line[j + 1]);
+                    maxY = Math.max(maxY, line[j + 1]);
+                }
+            }
+            if (!lines.isEmpty()) {
+                result[i] = new RoadNetwork.Road(road.type(), lines.toArray(double[][]::new), minX, minY, maxX, maxY);
+            }
+        });
+
+        List<RoadNetwork.Road> kept = Arrays.stream(result).filter(Objects::nonNull).toList();
+        return new Level(kept, Arrays.stream(vertices).sum());
+    }
+
+    private Projected projected() {
+        Projected p = projected;
+        if (p != null) return p;
+        projectLock.lock();
+        try {
+            if (projected != null) return projected;
+            List<RoadNetwork.Road> roads = roadNetwork.roads();
+
+            // A vertex is a junction when it appears in more than one line (or twice in one)
+            Map<Long, Integer> occurrences = new HashMap<>();
+            for (RoadNetwork.Road r : roads) {
+                for (double[] line : r.lines()) {
+                    for (int j = 0; j < line.length; j += 2) occurrences.merge(vertexKey(line, j), 1, Integer::sum);
+                }
+            }
+
+            List<double[][]> lines = new ArrayList<>(roads.size());
+            List<boolean[][]> pinned = new ArrayList<>(roads.size());
+            for (RoadNetwork.Road r : roads) {
+                double[][] merc = new double[r.lines().length][];
+                boolean[][] pins = new boolean[r.lines().length][];
+                for (int k = 0; k < r.lines().length; k++) {
+                    double[] line = r.lines()[k];
+                    merc[k] = new double[line.length];
+                    pins[k] = new boolean[line.length / 2];
+                    for (int j = 0; j < line.length; j += 2) {
+                        merc[k][j] = mercatorX(line[j]);
+                        merc[k][j + 1] = mercatorY(line[j + 1]);
+                        pins[k][j / 2] = occurrences.get(vertexKey(line, j)) > 1;
+                    }
+                }
+                lines.add(merc);
+                pinned.add(pins);
+            }
+            return projected = new Projected(lines, pinned);
+        } finally {
+            projectLock.unlock();
+        }
+    }
+
+    /** Vertices are compared at the source precision (5 decimals, about 1 m). */
+    private static long vertexKey(double[] line, int j) {
+        long x = Math.round(line[j] * 1e5);
+        long y = Math.round(line[j + 1] * 1e5);
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    // ─── Encoding ─────────────────────────────────────────────────────────────
+
+    private byte[] mvt(int z, int x, int y) {
+        double n = 1L << z;
+        double[] bounds = tileBounds(z, x, y);
+        double margin = (bounds[2] - bounds[0]) * BUFFER / EXTENT;
+        double[] buffered = {bounds[0] - margin, bounds[1] - margin, bounds[2] + margin, bounds[3] + margin};
+
+        MvtEncoder encoder = new MvtEncoder(LAYER, EXTENT);
+        List<RoadNetwork.Road> roads = roads(z);
+        for (int i = 0; i < roads.size(); i++) {
+            RoadNetwork.Road r = roads.get(i);
+            if (!intersects(r, buffered)) continue;
+            List<int[]> parts = new ArrayList<>();
+            for (double[] line : r.lines()) {
+                int[] px = new int[line.length];
+                for (int j = 0; j < line.length; j += 2) {
+                    px[j] = (int) Math.round((mercatorX(line[j]) * n - x) * EXTENT);
+                    px[j + 1] = (int) Math.round((mercatorY(line[j + 1]) * n - y) * EXTENT);
+                }
+                clip(px, parts);
+            }
+            encoder.addLine(i, parts, Collections.singletonMap("t", r.type()));
+        }
+        return encoder.encode();
+    }
+
+    /** Splits a line into the runs of segments that touch the buffered tile. */
+    private static void clip(int[] px, List<int[]> parts) {
+        int lo = -BUFFER, hi = EXTENT + BUFFER;
+        int start = -1;
+        int n = px.length / 2;
+        for (int s = 0; s < n - 1; s++) {
+            int x0 = px[2 * s], y0 = px[2 * s + 1], x1 = px[2 * s + 2], y1 = px[2 * s + 3];
+            boolean inside = Math.max(x0, x1) >= lo && Math.min(x0, x1) <= hi
+                          && Math.max(y0, y1) >= lo && Math.min(y0, y1) <= hi;
+            if (inside && start < 0) start = s;
+            if (!inside && start >= 0) {
+                parts.add(Arrays.copyOfRange(px, 2 * start, 2 * s + 2));
+                start = -1;
+            }
+        }
+        if (start >= 0) parts.add(Arrays.copyOfRange(px, 2 * start, px.length));
+    }
+
+    private static Map<String, Object> feature(RoadNetwork.Road r) {
+        List<List<double[]>> coordinates = new ArrayList<>(r.lines().length);
+        for (double[] line : r.lines()) {
+            List<double[]> points = new ArrayList<>(line.length / 2);
+            for (int j = 0; j < line.length; j += 2) points.add(new double[]{line[j], line[j + 1]});
+            coordinates.add(points);
+        }
+        Map<String, Object> geometry = new LinkedHashMap<>();
+        geometry.put("type", "MultiLineString");
+        geometry.put("coordinates", coordinates);
+
+        Map<String, Object> feature = new LinkedHashMap<>();
+        feature.put("type", "Feature");
+        feature.put("properties", Collections.singletonMap("t", r.type()));
+        feature.put("geometry", geometry);
+        return feature;
+    }
+
+    private static boolean intersects(RoadNetwork.Road r, double[] bbox) {
+        return r.maxX() >= bbox[0] && r.minX() <= bbox[2] && r.maxY() >= bbox[1] && r.minY() <= bbox[3];
+    }
+
+    /** {minLon, minLat, maxLon, maxLat} of an XYZ tile. */
+    static double[] tileBounds(int z, int x, int y) {
+        double n = 1L << z;
+        return new double[]{
+            x / n * 360 - 180,
+            Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * (y + 1) / n)))),
+            (x + 1) / n * 360 - 180,
+            Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / n))))
+        };
+    }
+
+    private static double mercatorX(double lon) {
+        return (lon + 180) / 360;
+    }
+
+    private static double mercatorY(double lat) {
+        double r = Math.toRadians(Math.clamp(lat, -85.0511, 85.0511));
+        return (1 - Math.log(Math.tan(r) + 1 / Math.cos(r)) / Math.PI) / 2;
+    }
+}
@@ -0,0 +1,218 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for the field tablets, backed by sync_change_log (db/create_sync_change_log.sql).
+ *
+ * The version handed to a tablet is a change log seq. A tablet sends back the last version it
+ * received and gets only the placettes and plots upserted or deleted since, coalesced per key,
+ * plus the recomputed status of every placette whose visits changed. Rows are sent as column
+ * arrays (names once, then one array per row) rather than GeoJSON features.
+ *
+ * A tablet gets a full download on first sync, or when its version predates the retention window
+ * (its tombstones have been purged) or is unknown to this database.
+ *
+ * The version is the xmin of a snapshot taken before reading: every transaction still running then,
+ * or started since, has a transaction id at or above it, so the next delta (entries whose xid is at
+ * or above the version) cannot miss a change committed late. Entries of transactions already
+ * committed at or above the xmin are simply sent again (upserts are idempotent). Neither seq nor
+ * changed_at can serve as the cursor: both are taken before commit.
+ */
+@Service
+public class SyncService {
+
+    public static final String PLOT = "plot";
+    public static final String PLACETTE = "placette";
+
+    /** Plot columns a tablet needs to show visit progress. */
+    static final List<String> PLOT_COLUMNS = List.of(
+        "plot_no", "plot_no_base", "plot_kind", "plot_dranef",
+        "plot_accessibilite", "plot_accessibility_a_pied",
+        "plot_coordinate_center_x", "plot_coordinate_center_y", "date_modified"
+    );
+
+    private static final int CHUNK = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final PlacetteStatusService placetteStatus;
+    private final String snapshotXminSql;
+    private final Duration retention;
+
+    public SyncService(
+        JdbcTemplate jdbc,
+        PlacetteStatusService placetteStatus,
+        @Value("${app.sync.snapshot-xmin-sql:SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint}") String snapshotXminSql,
+        @Value("${app.sync.tombstone-retention-days:30}") long retentionDays
+    ) {
+        this.jdbc = jdbc;
+        this.placetteStatus = placetteStatus;
+        this.snapshotXminSql = snapshotXminSql;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Changes since the given version (0 or less for a full download).
+     * Empty when the change log table is missing.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> changes(long since) {
+        if (!tableExists()) return Optional.empty();
+
+        // First: whatever commits after this statement has an xid at or above it
+        Long xmin = jdbc.queryForObject(snapshotXminSql, Long.class);
+        long version = xmin != null ? xmin : 0L;
+        Long oldest = jdbc.queryForObject("SELECT MIN(xid) FROM sync_change_log", Long.class);
+
+        // Below the oldest retained xid, entries the tablet needs may have been purged
+        boolean full = since <= 0 || oldest == null || since < oldest || since > version;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (full) {
+            result.put("version", version);
+            result.put("complet", true);
+            result.put("placettes", table("SELECT * FROM ifn_programme ORDER BY num_placette"));
+            result.put("plots", table("SELECT " + String.join(", ", PLOT_COLUMNS) + " FROM plot ORDER BY plot_no"));
+            result.put("statuts", statuses(null));
+            result.put("supprimes", Map.of(PLACETTE, List.of(), PLOT, List.of()));
+            return Optional.of(result);
+        }
+
+        // Latest operation per key; seq order makes the last write win
+        Map<String, Character> placetteOps = new LinkedHashMap<>();
+        Map<String, Character> plotOps = new LinkedHashMap<>();
+        int[] entries = {0};
+        jdbc.query(
+            "SELECT entity, entity_key, op FROM sync_change_log WHERE xid >= ? ORDER BY seq",
+            rs -> {
+                Map<String, Character> ops = PLOT.equals(rs.getString(1)) ? plotOps : placetteOps;
+                String key = rs.getString(2);
+                ops.remove(key);
+                ops.put(key, rs.getString(3).charAt(0));
+                entries[0]++;
+            },
+            since);
+
+        List<String> placetteKeys = keys(placetteOps, 'U');
+        List<String> plotKeys = keys(plotOps, 'U');
+        Table placettes = table("SELECT * FROM ifn_programme WHERE num_placette IN (%s) ORDER BY num_placette", placetteKeys);
+        Table plots = table("SELECT " + String.join(", ", PLOT_COLUMNS) + " FROM plot WHERE plot_no IN (%s) ORDER BY plot_no", plotKeys);
+
+        // A key logged as upserted but gone by now was deleted by a transaction not yet in the log
+        List<String> deletedPlacettes = new ArrayList<>(keys(placetteOps, 'D'));
+        deletedPlacettes.addAll(missing(placetteKeys, placettes, "num_placette"));
+        List<String> deletedPlots = new ArrayList<>(keys(plotOps, 'D'));
+        deletedPlots.addAll(missing(plotKeys, plots, "plot_no"));
+
+        // Visits changed → status of their placette changed; so may a re-imported placette's
+        Set<String> bases = new TreeSet<>(placetteKeys);
+        plotOps.keySet().forEach(plotNo -> bases.add(ControlComparisonService.plotNoBase(plotNo)));
+        bases.removeAll(deletedPlacettes);
+
+        result.put("version", version);
+        result.put("complet", false);
+        result.put("nb_changements", entries[0]);
+        result.put("placettes", placettes);
+        result.put("plots", plots);
+        result.put("statuts", statuses(bases));
+        Map<String, Object> deleted = new LinkedHashMap<>();
+        deleted.put(PLACETTE, deletedPlacettes);
+        deleted.put(PLOT, deletedPlots);
+        result.put("supprimes", deleted);
+        return Optional.of(result);
+    }
+
+    /**
+     * Every day at 00:30 — drops log entries older than the retention window, keeping those of the
+     * newest expired transaction: every entry at or above the oldest retained xid is kept, so that
+     * xid still tells which versions can sync by delta.
+     */
+    @Scheduled(cron = "${app.sync.purge-cron:0 30 0 * * *}")
+    public int purge() {
+        if (!tableExists()) return 0;
+        return jdbc.update(
+            "DELETE FROM sync_change_log WHERE xid < " +
+            "(SELECT MAX(xid) FROM sync_change_log WHERE changed_at < ?)",
+            Timestamp.from(Instant.now().minus(retention)));
+    }
+
+    private boolean tableExists() {
+        Integer n = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'sync_change_log'",
+            Integer.class);
+        return n != null && n > 0;
+    }
+
+    // ─── Compact encoding ─────────────────────────────────────────────────────
+
+    /** Rows as {"colonnes": [...], "lignes": [[...], ...]}. */
+    public record Table(List<String> colonnes, List<Object[]> lignes) {}
+
+    private Table table(String sql, Object... args) {
+        return jdbc.query(sql, (ResultSetExtractor<Table>) rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            int n = meta.getColumnCount();
+            List<String> columns = new ArrayList<>(n);
+            for (int i = 1; i <= n; i++) columns.add(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[n];
+                for (int i = 1; i <= n; i++) {
+                    Object v = rs.getObject(i);
+                    row[i - 1] = v instanceof Timestamp t ? t.toLocalDateTime().toString() : v;
+                }
+                rows.add(row);
+            }
+            return new Table(columns, rows);
+        }, args);
+    }
+
+    /** Rows whose key is in keys; sqlTemplate has one %s for the IN list. Queried by chunks. */
+    private Table table(String sqlTemplate, List<String> keys) {
+        Table result = null;
+        for (int from = 0; from < Math.max(keys.size(), 1); from += CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + CHUNK, keys.size()));
+            String in = chunk.isEmpty() ? "NULL" : chunk.stream().map(k -> "?").collect(Collectors.joining(","));
+            Table t = table(sqlTemplate.formatted(in), chunk.toArray());
+            if (result == null) result = t;
+            else result.lignes().addAll(t.lignes());
+        }
+        return result;
+    }
+
+    private Table statuses(Set<String> bases) {
+        Map<String, PlacetteStatusService.Status> current = placetteStatus.current();
+        Collection<String> keys = bases != null ? bases : new TreeSet<>(current.keySet());
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (String base : keys) {
+            PlacetteStatusService.Status s = current.get(base);
+            rows.add(s == null
+                    ? new Object[]{base, PlacetteFilter.PROGRAMMEE, null, null, null}
+                    : new Object[]{base, s.statut(), s.accessibilite(), s.aPied(),
+                                   s.dateModified() != null ? s.dateModified().toLocalDateTime().toString() : null});
+        }
+        return new Table(List.of("num_placette", "statut", "accessibilite", "a_pied", "date_modified"), rows);
+    }
+
+    private static List<String> keys(Map<String, Character> ops, char op) {
+        return ops.entrySet().stream().filter(e -> e.getValue() == op).map(Map.Entry::getKey).toList();
+    }
+
+    private static List<String> missing(List<String> keys, Table found, String keyColumn) {
+        int k = found.colonnes().indexOf(keyColumn);
+        Set<String> present = found.lignes().stream().map(r -> String.valueOf(r[k])).collect(Collectors.toSet());
+        return keys.stream().filter(key -> !present.contains(key)).toList();
+    }
+}
@@ -0,0 +1,448 @@
+package com.ifn.service;
+
+import com.ifn.geo.MbTiles;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caching proxy for the basemap tiles, shared by every tablet and browser.
+ *
+ * Each source (app.tiles.source.&lt;name&gt; = upstream URL template with {z}, {x}, {y}) is cached
+ * in its own MBTiles file under app.tiles.cache-dir, bounded to app.tiles.max-size-mb with
+ * least-recently-used eviction. Concurrent misses on the same tile share one upstream request.
+ *
+ * Seeding jobs prefetch a bbox (or an equipe's placettes plus a buffer) over a zoom range
+ * in the background, with a bounded number of upstream requests in flight. Only the sources
+ * listed in app.tiles.seedable can be seeded: public servers such as OpenStreetMap's or Google's
+ * forbid bulk downloading.
+ */
+@Service
+public class TileService {
+
+    /** A served tile; cached is false when it came from upstream. */
+    public record Tile(byte[] data, String contentType, boolean cached) {}
+
+    private record Key(String source, int z, int x, int y) {}
+
+    /** Progress of one seeding job. */
+    public static final class SeedJob {
+        private final String id;
+        private final String source;
+        private final double[] bbox;
+        private final int minZoom, maxZoom;
+        private final long total;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong fetched = new AtomicLong();
+        private final AtomicLong alreadyCached = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile String state = "en_cours";
+        private volatile Instant finishedAt;
+
+        SeedJob(String id, String source, double[] bbox, int minZoom, int maxZoom, long total) {
+            this.id = id;
+            this.source = source;
+            this.bbox = bbox;
+            this.minZoom = minZoom;
+            this.maxZoom = maxZoom;
+            this.total = total;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String state() {
+            return state;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", id);
+            m.put("source", source);
+            m.put("bbox", bbox);
+            m.put("zoom_min", minZoom);
+            m.put("zoom_max", maxZoom);
+            m.put("etat", state);
+            m.put("total", total);
+            m.put("telechargees", fetched.get());
+            m.put("deja_en_cache", alreadyCached.get());
+            m.put("echecs", failed.get());
+            m.put("debut", startedAt.toString());
+            m.put("fin", finishedAt != null ? finishedAt.toString() : null);
+            return m;
+        }
+    }
+
+    private static final class Stats {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong evicted = new AtomicLong();
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Map<String, String> sources;
+    private final Set<String> seedable;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final int maxZoom;
+    private final long maxSeedTiles;
+    private final int seedHistory;
+    private final double seedBufferM;
+    private final HttpClient http;
+    private final String userAgent;
+    private final ExecutorService seedExecutor;
+    private final Semaphore seedPermits;
+
+    private final Map<String, MbTiles> stores = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<byte[]>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, SeedJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger jobCounter = new AtomicInteger();
+
+    public TileService(
+        JdbcTemplate jdbc,
+        TileSources sources,
+        @Value("${app.tiles.cache-dir:${java.io.tmpdir}/ifn-tiles}") Path cacheDir,
+        @Value("${app.tiles.max-size-mb:2048}") long maxSizeMb,
+        @Value("${app.tiles.max-zoom:19}") int maxZoom,
+        @Value("${app.tiles.seed.max-tiles:100000}") long maxSeedTiles,
+        @Value("${app.tiles.seed.buffer-m:2000}") double seedBufferM,
+        @Value("${app.tiles.seed.history:20}") int seedHistory,
+        @Value("${app.tiles.seed.concurrency:4}") int seedConcurrency,
+        @Value("${app.tiles.user-agent:IFN-Geonavigateur tile cache}") String userAgent
+    ) {
+        this.jdbc = jdbc;
+        this.sources = sources.urls();
+        this.seedable = sources.seedable();
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.maxZoom = maxZoom;
+        this.maxSeedTiles = maxSeedTiles;
+        this.seedBufferM = seedBufferM;
+        this.seedHistory = seedHistory;
+        this.userAgent = userAgent;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.seedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.seedPermits = new Semaphore(seedConcurrency);
+    }
+
+    /** Configured upstream URL templates, keyed by source name, and the sources that may be seeded. */
+    public record TileSources(Map<String, String> urls, Set<String> seedable) {}
+
+    public Set<String> sources() {
+        return new TreeSet<>(sources.keySet());
+    }
+
+    /**
+     * The tile from the cache, or fetched upstream and cached.
+     * Empty when upstream has no such tile (404); UncheckedIOException when upstream fails.
+     */
+    public Optional<Tile> tile(String source, int z, int x, int y) {
+        MbTiles store = store(source);
+        checkTile(z, x, y);
+        Stats s = stats(source);
+
+        byte[] data = read(store, z, x, y);
+        if (data != null) {
+            s.hits.incrementAndGet();
+            return Optional.of(new Tile(data, contentType(data), true));
+        }
+
+        Key key = new Key(source, z, x, y);
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inflight.putIfAbsent(key, mine);
+        if (running != null) {
+            s.coalesced.incrementAndGet();
+            return Optional.ofNullable(await(running)).map(d -> new Tile(d, contentType(d), false));
+        }
+
+        try {
+            // Stored by a request that finished between our read and putIfAbsent
+            data = read(store, z, x, y);
+            if (data == null) {
+                s.misses.incrementAndGet();
+                data = fetch(source, z, x, y);
+                if (data != null) write(source, store, z, x, y, data);
+            }
+            mine.complete(data);
+        } catch (RuntimeException e) {
+            s.errors.incrementAndGet();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, mine);
+        }
+        return Optional.ofNullable(data).map(d -> new Tile(d, contentType(d), false));
+    }
+
+    /** Per source: tiles and bytes stored, hits, misses, coalesced misses, upstream errors, evictions. */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String source : sources()) {
+            Stats s = stats(source);
+            MbTiles store = stores.get(source);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("source", source);
+            m.put("prechargeable", seedable.contains(source));
+            m.put("tuiles", store != null ? store.count() : 0);
+            m.put("taille_octets", store != null ? store.sizeBytes() : 0);
+            m.put("taille_max_octets", maxBytes);
+            m.put("hits", s.hits.get());
+            m.put("misses", s.misses.get());
+            m.put("requetes_fusionnees", s.coalesced.get());
+            m.put("erreurs_amont", s.errors.get());
+            m.put("evictions", s.evicted.get());
+            result.add(m);
+        }
+        return result;
+    }
+
+    // ─── Seeding ──────────────────────────────────────────────────────────────
+
+    /** Starts seeding a bbox {minLon, minLat, maxLon, maxLat} over [minZoom, maxZoom]. */
+    public SeedJob seed(String source, double[] bbox, int minZoom, int maxZoom) {
+        store(source);
+        if (!seedable.contains(source)) {
+            throw new IllegalArgumentException("Préchargement non autorisé pour la source " + source);
+        }
+        if (minZoom < 0 || maxZoom > this.maxZoom || minZoom > maxZoom) {
+            throw new IllegalArgumentException("Niveaux de zoom invalides : " + minZoom + "-" + maxZoom);
+        }
+        long total = 0;
+        for (int z = minZoom; z <= maxZoom; z++) {
+            int[] r = range(bbox, z);
+            total += (long) (r[2] - r[0] + 1) * (r[3] - r[1] + 1);
+        }
+        if (total > maxSeedTiles) {
+            throw new IllegalArgumentException(
+                    "Trop de tuiles à précharger (" + total + " > " + maxSeedTiles + ") : réduire l'emprise ou le zoom max");
+        }
+
+        SeedJob job = new SeedJob(Integer.toString(jobCounter.incrementAndGet()), source, bbox, minZoom, maxZoom, total);
+        expireJobs();
+        jobs.put(job.id(), job);
+        seedExecutor.submit(() -> runSeed(job));
+        return job;
+    }
+
+    /** Starts seeding the placettes of an equipe, widened by app.tiles.seed.buffer-m. */
+    public SeedJob seedEquipe(String source, String equipe, int minZoom, int maxZoom) {
+        Map<String, Object> box = jdbc.queryForMap(
+            "SELECT MIN(x_centre) AS min_x, MIN(y_centre) AS min_y, MAX(x_centre) AS max_x, MAX(y_centre) AS max_y " +
+            "FROM ifn_programme WHERE equipe = ?", equipe);
+        if (box.get("min_x") == null) {
+            throw new IllegalArgumentException("Aucune placette pour l'équipe " + equipe);
+        }
+        double minY = ((Number) box.get("min_y")).doubleValue();
+        double maxY = ((Number) box.get("max_y")).doubleValue();
+        double dLat = seedBufferM / 111_320;
+        double dLon = seedBufferM / (111_320 * Math.cos(Math.toRadians((minY + maxY) / 2)));
+        double[] bbox = {
+            ((Number) box.get("min_x")).doubleValue() - dLon, minY - dLat,
+            ((Number) box.get("max_x")).doubleValue() + dLon, maxY + dLat
+        };
+        return seed(source, bbox, minZoom, maxZoom);
+    }
+
+    public Optional<SeedJob> job(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Running jobs and the last finished ones, oldest first. */
+    public List<SeedJob> jobs() {
+        return jobs.values().stream().sorted(Comparator.comparing(j -> Integer.parseInt(j.id()))).toList();
+    }
+
+    /** Forgets the oldest finished jobs beyond app.tiles.seed.history, before a new one starts. */
+    private void expireJobs() {
+        List<SeedJob> finished = jobs().stream().filter(j -> j.finishedAt != null).toList();
+        for (int i = 0; i < finished.size() - seedHistory; i++) jobs.remove(finished.get(i).id());
+    }
+
+    private void runSeed(SeedJob job) {
+        MbTiles store = store(job.source);
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            for (int z = job.minZoom; z <= job.maxZoom; z++) {
+                int[] r = range(job.bbox, z);
+                for (int x = r[0]; x <= r[2]; x++) {
+                    for (int y = r[1]; y <= r[3]; y++) {
+                        if (read(store, z, x, y) != null) {
+                            job.alreadyCached.incrementAndGet();
+                            continue;
+                        }
+                        seedPermits.acquire();
+                        int tz = z, tx = x, ty = y;
+                        pending.add(seedExecutor.submit(() -> {
+                            try {
+                                tile(job.source, tz, tx, ty);
+                                job.fetched.incrementAndGet();
+                            } catch (RuntimeException e) {
+                                job.failed.incrementAndGet();
+                            } finally {
+                                seedPermits.release();
+                            }
+                        }));
+                    }
+                }
+            }
+            for (Future<?> f : pending) f.get();
+            job.state = job.failed.get() == 0 ? "termine" : "termine_avec_erreurs";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.state = "interrompu";
+        } catch (ExecutionException e) {
+            job.state = "echec";
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    /** Tile ranges {minX, minY, maxX, maxY} covering the bbox at zoom z. */
+    static int[] range(double[] bbox, int z) {
+        return new int[]{
+            tileX(bbox[0], z), tileY(bbox[3], z),
+            tileX(bbox[2], z), tileY(bbox[1], z)
+        };
+    }
+
+    static int tileX(double lon, int z) {
+        int n = 1 << z;
+        return Math.clamp((int) Math.floor((lon + 180) / 360 * n), 0, n - 1);
+    }
+
+    static int tileY(double lat, int z) {
+        int n = 1 << z;
+        double r = Math.toRadians(Math.clamp(lat, -85.0511, 85.0511));
+        return Math.clamp((int) Math.floor((1 - Math.log(Math.tan(r) + 1 / Math.cos(r)) / Math.PI) / 2 * n), 0, n - 1);
+    }
+
+    // ─── Storage and upstream ─────────────────────────────────────────────────
+
+    private MbTiles store(String source) {
+        if (!sources.containsKey(source)) {
+            throw new IllegalArgumentException("Source de tuiles inconnue : " + source);
+        }
+        return stores.computeIfAbsent(source, name -> {
+            try {
+                return new MbTiles(cacheDir.resolve(name + ".mbtiles"), name);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cache de tuiles illisible : " + name, e);
+            }
+        });
+    }
+
+    private Stats stats(String source) {
+        return stats.computeIfAbsent(source, k -> new Stats());
+    }
+
+    private void checkTile(int z, int x, int y) {
+        if (z < 0 || z > maxZoom || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tuile invalide : " + z + "/" + x + "/" + y);
+        }
+    }
+
+    private static byte[] read(MbTiles store, int z, int x, int y) {
+        try {
+            return store.get(z, x, y);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Lecture du cache de tuiles impossible", e);
+        }
+    }
+
+    private void write(String source, MbTiles store, int z, int x, int y, byte[] data) {
+        try {
+            if (store.count() == 0) store.metadataIfAbsent("format", format(data));
+            store.put(z, x, y, data);
+            if (store.sizeBytes() > maxBytes) {
+                // Evict down to 90 % so that eviction does not run on every miss
+                stats(source).evicted.addAndGet(store.evict(maxBytes * 9 / 10));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Écriture du cache de tuiles impossible", e);
+        }
+    }
+
+    /** The upstream tile, or null on 404 / 204. */
+    private byte[] fetch(String source, int z, int x, int y) {
+        String url = sources.get(source)
+                .replace("{z}", Integer.toString(z))
+                .replace("{x}", Integer.toString(x))
+                .replace("{y}", Integer.toString(y));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(15))
+                .header("User-Agent", userAgent)
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            if (status == 404 || status == 204) return null;
+            if (status != 200) throw new IOException("HTTP " + status + " pour " + source + " " + z + "/" + x + "/" + y);
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Requête de tuile interrompue", e));
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw e;
+        }
+    }
+
+    static String format(byte[] data) {
+        if (data.length > 3 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') return "png";
+        if (data.length > 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) return "jpg";
+        if (data.length > 11 && data[0] == 'R' && data[1] == 'I' && data[8] == 'W' && data[9] == 'E') return "webp";
+        return "pbf";
+    }
+
+    private static String contentType(byte[] data) {
+        return switch (format(data)) {
+            case "png"  -> "image/png";
+            case "jpg"  -> "image/jpeg";
+            case "webp" -> "image/webp";
+            default     -> "application/octet-stream";
+        };
+    }
+
+    @PreDestroy
+    public void close() {
+        seedExecutor.shutdownNow();
+        for (MbTiles store : stores.values()) {
+            try {
+                store.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ifn.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Names of the measurement columns of the tree table.
+ *
+ * The tree table is created from the Collect export, whose column names depend on the survey
+ * design; the first configured name of each kind that exists in the table is used.
+ */
+@Component
+public class TreeSchema {
+
+    /** Column names actually used in the tree table; height and essence may be null. */
+    public record Columns(String diameter, String height, String essence) {}
+
+    private final JdbcTemplate jdbc;
+    private final List<String> diameterColumns;
+    private final List<String> heightColumns;
+    private final List<String> essenceColumns;
+
+    public TreeSchema(
+        JdbcTemplate jdbc,
+        @Value("${app.dendro.tree.diameter-columns:tree_dbh,dbh,tree_diametre,diametre,tree_d130,d130}") List<String> diameterColumns,
+        @Value("${app.dendro.tree.height-columns:tree_height,height,tree_hauteur,hauteur,tree_ht,ht}") List<String> heightColumns,
+        @Value("${app.dendro.tree.essence-columns:tree_species_code,tree_species,species_code,species,tree_essence,essence}") List<String> essenceColumns
+    ) {
+        this.jdbc = jdbc;
+        this.diameterColumns = diameterColumns;
+        this.heightColumns = heightColumns;
+        this.essenceColumns = essenceColumns;
+    }
+
+    /**
+     * Resolved against the current table, so a column added by a later import is picked up.
+     *
+     * @throws IllegalStateException when no diameter column exists
+     */
+    public Columns columns() {
+        Set<String> present = jdbc.query("SELECT * FROM tree WHERE 1 = 0", (ResultSetExtractor<Set<String>>) rs -> {
+            ResultSetMetaData md = rs.getMetaData();
+            Set<String> names = new HashSet<>();
+            for (int i = 1; i <= md.getColumnCount(); i++) names.add(md.getColumnLabel(i).toLowerCase());
+            return names;
+        });
+        String diameter = firstPresent(diameterColumns, present);
+        if (diameter == null) {
+            throw new IllegalStateException("Colonne de diamètre introuvable dans la table tree (essayé : "
+                    + String.join(", ", diameterColumns) + ")");
+        }
+        return new Columns(diameter, firstPresent(heightColumns, present), firstPresent(essenceColumns, present));
+    }
+
+    /** Numeric value of a column imported as number or text; NaN when empty or unparsable. */
+    public static double number(ResultSet rs, int index) throws SQLException {
+        Object o = rs.getObject(index);
+        if (o instanceof Number n) return n.doubleValue();
+        if (o == null) return Double.NaN;
+        try {
+            return Double.parseDouble(o.toString().trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String firstPresent(List<String> candidates, Set<String> present) {
+        for (String c : candidates) {
+            String name = c.trim().toLowerCase();
+            if (present.contains(name)) return name;
+        }
+        return null;
+    }
+}
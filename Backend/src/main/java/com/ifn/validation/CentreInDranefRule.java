@@ -0,0 +1,45 @@
+package com.ifn.validation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The surveyed centre must exist and lie inside its DRANEF.
+ *
+ * No DRANEF boundary is stored in the database, so the DRANEF is approximated by the bounding
+ * box of its programmed placettes, widened by a margin. The DRANEF is the one of the programmed
+ * placette, or plot_dranef for a plot outside the programme.
+ */
+@Component
+public class CentreInDranefRule implements PlotRule {
+
+    private final double marginDeg;
+
+    public CentreInDranefRule(@Value("${app.validation.dranef-margin-deg:0.05}") double marginDeg) {
+        this.marginDeg = marginDeg;
+    }
+
+    @Override
+    public String code() {
+        return "centre_dranef";
+    }
+
+    @Override
+    public void check(PlotRow plot, ValidationContext context, List<Violation> out) {
+        if (!plot.hasCentre()) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR, "Coordonnées du centre manquantes", null));
+            return;
+        }
+        String dranef = context.dranefs().getOrDefault(plot.plotNoBase(), plot.dranef());
+        double[] box = dranef != null ? context.envelopes().get(dranef) : null;
+        if (box == null) return;
+
+        if (plot.x() < box[0] - marginDeg || plot.x() > box[2] + marginDeg
+                || plot.y() < box[1] - marginDeg || plot.y() > box[3] + marginDeg) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR,
+                    "Centre hors de l'emprise de la DRANEF " + dranef, null));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ifn.validation;
+
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Start and end dates must be real calendar dates, not in the future, with end ≥ start.
+ * A missing end date is accepted (survey still open).
+ */
+@Component
+public class DateConsistencyRule implements PlotRule {
+
+    @Override
+    public String code() {
+        return "dates";
+    }
+
+    @Override
+    public void check(PlotRow plot, ValidationContext context, List<Violation> out) {
+        LocalDate start = date(plot.startYear(), plot.startMonth(), plot.startDay());
+        if (start == null) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR, "Date de début absente ou invalide", null));
+            return;
+        }
+        if (start.isAfter(context.today())) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR, "Date de début dans le futur : " + start, null));
+        }
+
+        if (plot.endYear() == 0 && plot.endMonth() == 0 && plot.endDay() == 0) return;
+        LocalDate end = date(plot.endYear(), plot.endMonth(), plot.endDay());
+        if (end == null) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR, "Date de fin invalide", null));
+        } else if (end.isBefore(start)) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR,
+                    "Date de fin " + end + " antérieure à la date de début " + start,
+                    (double) (end.toEpochDay() - start.toEpochDay())));
+        }
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        if (year == 0) return null;
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
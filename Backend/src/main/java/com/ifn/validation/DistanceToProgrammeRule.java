@@ -0,0 +1,45 @@
+package com.ifn.validation;
+
+import com.ifn.geo.Geodesic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The surveyed centre must be close to the programmed centre of its placette.
+ * Plots outside the programme are reported once, as a warning.
+ */
+@Component
+public class DistanceToProgrammeRule implements PlotRule {
+
+    private final double maxDistanceM;
+
+    public DistanceToProgrammeRule(@Value("${app.validation.max-distance-m:100}") double maxDistanceM) {
+        this.maxDistanceM = maxDistanceM;
+    }
+
+    @Override
+    public String code() {
+        return "distance_centre";
+    }
+
+    @Override
+    public void check(PlotRow plot, ValidationContext context, List<Violation> out) {
+        double[] centre = context.centres().get(plot.plotNoBase());
+        if (centre == null) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.AVERTISSEMENT,
+                    "Placette " + plot.plotNoBase() + " absente du programme", null));
+            return;
+        }
+        if (!plot.hasCentre()) return;   // reported by centre_dranef
+        if (Double.isNaN(centre[0]) || Double.isNaN(centre[1])) return;   // nothing to measure against
+
+        double d = Geodesic.haversine(centre[0], centre[1], plot.x(), plot.y());
+        if (d > maxDistanceM) {
+            out.add(new Violation(plot.plotNo(), code(), Violation.ERREUR,
+                    String.format("Centre à %.0f m du centre programmé (max %.0f m)", d, maxDistanceM),
+                    Math.round(d * 10) / 10.0));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ifn.validation;
+
+/**
+ * Fields of one plot read by the validation rules.
+ * Missing coordinates are NaN; missing date parts are 0.
+ */
+public record PlotRow(
+        String plotNo,
+        String plotNoBase,
+        String kind,
+        String dranef,
+        double x,
+        double y,
+        int startYear, int startMonth, int startDay,
+        int endYear, int endMonth, int endDay
+) {
+    public boolean hasCentre() {
+        return !Double.isNaN(x) && !Double.isNaN(y);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ifn.validation;
+
+import java.util.List;
+
+/**
+ * One validation rule. Every Spring bean implementing this interface is run by
+ * PlotValidationService, so a new check only needs a new @Component.
+ *
+ * Implementations are called concurrently from several chunks and must be stateless.
+ */
+public interface PlotRule {
+
+    /** Stable identifier stored in plot_validation.rule, e.g. "distance_centre". */
+    String code();
+
+    /** Appends the violations of plot, if any, to out. */
+    void check(PlotRow plot, ValidationContext context, List<Violation> out);
+}
@@ -0,0 +1,19 @@
+package com.ifn.validation;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Reference data shared by all rules during one validation run, read once from ifn_programme.
+ *
+ * @param centres   programmed centre {x, y} per num_placette, {NaN, NaN} when not given
+ * @param dranefs   DRANEF of each num_placette
+ * @param envelopes bounding box {minX, minY, maxX, maxY} of the programmed centres of each DRANEF
+ * @param today     date of the run, for dates in the future
+ */
+public record ValidationContext(
+        Map<String, double[]> centres,
+        Map<String, String> dranefs,
+        Map<String, double[]> envelopes,
+        LocalDate today
+) {}
@@ -0,0 +1,11 @@
+package com.ifn.validation;
+
+/**
+ * A rule broken by one plot. measure is the measured quantity when the rule has one
+ * (e.g. the distance in metres), otherwise null.
+ */
+public record Violation(String plotNo, String rule, String severity, String message, Double measure) {
+
+    public static final String ERREUR = "erreur";
+    public static final String AVERTISSEMENT = "avertissement";
+}
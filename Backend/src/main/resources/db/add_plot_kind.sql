@@ -0,0 +1,47 @@
+-- ─────────────────────────────────────────────────────────────────────────────
+-- Persisted control-plot classification on plot
+--
+--   plot_kind     'R'  = regular visit        (plot_no = num_placette)
+--                 'C'  = inter-team control   (plot_no = num_placette || 'C')
+--                 'CS' = service control      (plot_no = num_placette || 'CS')
+--   plot_no_base  plot_no without the C / CS suffix (= ifn_programme.num_placette)
+--
+-- Both are STORED generated columns: PostgreSQL maintains them on every INSERT/UPDATE
+-- (ImportService, PlotService, Python sync script) and they can be indexed, unlike
+-- plot_no LIKE '%C' which forces a sequential scan.
+-- Safe to re-run.
+-- ─────────────────────────────────────────────────────────────────────────────
+
+-- Step 1: Generated columns
+ALTER TABLE plot ADD COLUMN IF NOT EXISTS plot_kind VARCHAR(2)
+    GENERATED ALWAYS AS (
+        CASE WHEN plot_no LIKE '%CS' THEN 'CS'
+             WHEN plot_no LIKE '%C'  THEN 'C'
+             ELSE 'R' END
+    ) STORED;
+
+ALTER TABLE plot ADD COLUMN IF NOT EXISTS plot_no_base VARCHAR(50)
+    GENERATED ALWAYS AS (
+        CASE WHEN plot_no LIKE '%CS' THEN LEFT(plot_no, LENGTH(plot_no) - 2)
+             WHEN plot_no LIKE '%C'  THEN LEFT(plot_no, LENGTH(plot_no) - 1)
+             ELSE plot_no END
+    ) STORED;
+
+-- Step 2: Indexes
+-- Dashboard counters and per-day series filter on kind, then read date_modified
+CREATE INDEX IF NOT EXISTS idx_plot_kind_date_modified ON plot (plot_kind, date_modified);
+-- Control ↔ base placette equi-joins
+CREATE INDEX IF NOT EXISTS idx_plot_no_base_kind ON plot (plot_no_base, plot_kind);
+
+-- Step 3: plot_controle now reads the persisted columns (p.* already carries plot_no_base)
+DROP VIEW IF EXISTS plot_controle;
+CREATE VIEW plot_controle AS
+SELECT p.*
+FROM plot p
+WHERE p.plot_kind = 'C';
+
+ANALYZE plot;
+
+-- ─── Verification ─────────────────────────────────────────────────────────────
+-- SELECT plot_kind, COUNT(*) FROM plot GROUP BY plot_kind;
+-- EXPLAIN SELECT COUNT(*) FROM plot WHERE plot_kind = 'C';
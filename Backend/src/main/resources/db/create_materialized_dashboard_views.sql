@@ -0,0 +1,36 @@
+-- ─────────────────────────────────────────────────────────────────────────────
+-- Materialised copies of the dashboard views
+--
+-- Each mv_* snapshots the v_* view of the same name so the dashboard stops re-running
+-- their joins on every request. DashboardViewService refreshes them with
+-- REFRESH MATERIALIZED VIEW CONCURRENTLY after imports and sync notifications,
+-- and reads the live v_* view while a snapshot is stale or its refresh failed.
+--
+-- CONCURRENTLY needs a UNIQUE index on plain columns covering every row;
+-- single-row views get a constant mv_key column for that purpose.
+-- Safe to re-run. Requires add_plot_kind.sql.
+-- ─────────────────────────────────────────────────────────────────────────────
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_kpi_global AS
+SELECT 1 AS mv_key, v.* FROM v_kpi_global v;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_kpi_global ON mv_kpi_global (mv_key);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_visites_par_jour AS
+SELECT * FROM v_visites_par_jour;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_visites_par_jour ON mv_visites_par_jour (date_visite);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_moy_jour_equipe AS
+SELECT * FROM v_moy_jour_equipe;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_moy_jour_equipe ON mv_moy_jour_equipe (date_visite, equipe);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_controle_par_equipe AS
+SELECT * FROM v_controle_par_equipe;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_controle_par_equipe ON mv_controle_par_equipe (equipe);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_controle_service_par_equipe AS
+SELECT * FROM v_controle_service_par_equipe;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_controle_service_par_equipe ON mv_controle_service_par_equipe (equipe);
+
+-- ─── Verification ─────────────────────────────────────────────────────────────
+-- SELECT matviewname, ispopulated FROM pg_matviews WHERE matviewname LIKE 'mv_%';
+-- REFRESH MATERIALIZED VIEW CONCURRENTLY mv_kpi_global;
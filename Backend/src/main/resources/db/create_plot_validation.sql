@@ -0,0 +1,24 @@
+-- ─────────────────────────────────────────────────────────────────────────────
+-- Violations of the plot validation rules (PlotValidationService)
+--
+-- One row per broken rule and plot. Rows of a plot are replaced each time it is
+-- validated: on every ZIP import for the imported plots, and for all plots on
+-- POST /api/validation/run.
+-- Safe to re-run.
+-- ─────────────────────────────────────────────────────────────────────────────
+
+CREATE TABLE IF NOT EXISTS plot_validation (
+    id            BIGSERIAL PRIMARY KEY,
+    plot_no       VARCHAR(50)  NOT NULL,
+    rule          VARCHAR(50)  NOT NULL,
+    severity      VARCHAR(20)  NOT NULL,
+    message       TEXT,
+    measure       DOUBLE PRECISION,
+    validated_at  TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_plot_validation_plot_no ON plot_validation (plot_no);
+CREATE INDEX IF NOT EXISTS idx_plot_validation_rule    ON plot_validation (rule);
+
+-- ─── Verification ─────────────────────────────────────────────────────────────
+-- SELECT rule, severity, COUNT(*) FROM plot_validation GROUP BY rule, severity;
@@ -0,0 +1,84 @@
+-- ─────────────────────────────────────────────────────────────────────────────
+-- Change log for the tablet delta sync (GET /api/sync/changes, SyncService)
+--
+-- One row per inserted, updated ('U') or deleted ('D') row of plot and
+-- ifn_programme, written by triggers so that ZIP imports, the sync script and
+-- manual fixes are all recorded.
+--
+-- xid is the id of the writing transaction. The version handed to the tablets is
+-- the xmin of a snapshot (oldest transaction still running): every transaction
+-- that commits afterwards has an xid at or above it. seq and changed_at cannot
+-- serve as that cursor: both are taken before commit, so a transaction still
+-- running may later commit a lower seq or an older changed_at.
+--
+-- plot.date_modified cannot serve as the cursor on its own: it is copied from
+-- collect.ofc_record (create_trigger_date_modified.sql) and may go backwards,
+-- and deletions leave no trace. The log is backfilled in date_modified order.
+--
+-- Rows older than app.sync.tombstone-retention-days are purged by the
+-- application; older tablets then get a full download.
+-- Safe to re-run.
+-- ─────────────────────────────────────────────────────────────────────────────
+
+CREATE TABLE IF NOT EXISTS sync_change_log (
+    seq         BIGSERIAL PRIMARY KEY,
+    entity      VARCHAR(20)  NOT NULL,      -- 'plot' | 'placette'
+    entity_key  VARCHAR(50)  NOT NULL,      -- plot_no | num_placette
+    op          CHAR(1)      NOT NULL,      -- 'U' upsert | 'D' delete
+    changed_at  TIMESTAMP    NOT NULL DEFAULT now(),
+    xid         BIGINT       NOT NULL DEFAULT pg_current_xact_id()::text::bigint
+);
+
+-- Logs created before the xid column: existing rows get the id of this transaction
+ALTER TABLE sync_change_log
+    ADD COLUMN IF NOT EXISTS xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX IF NOT EXISTS idx_sync_change_log_changed_at ON sync_change_log (changed_at);
+CREATE INDEX IF NOT EXISTS idx_sync_change_log_xid ON sync_change_log (xid);
+
+-- ─── Trigger function: TG_ARGV[0] = entity, TG_ARGV[1] = key column ──────────
+CREATE OR REPLACE FUNCTION public.log_sync_change()
+RETURNS TRIGGER AS $$
+DECLARE
+  v_old TEXT;
+  v_new TEXT;
+BEGIN
+  IF TG_OP <> 'INSERT' THEN v_old := to_jsonb(OLD) ->> TG_ARGV[1]; END IF;
+  IF TG_OP <> 'DELETE' THEN v_new := to_jsonb(NEW) ->> TG_ARGV[1]; END IF;
+
+  -- A renamed key is a delete of the old key
+  IF v_old IS NOT NULL AND v_old IS DISTINCT FROM v_new THEN
+    INSERT INTO sync_change_log (entity, entity_key, op) VALUES (TG_ARGV[0], v_old, 'D');
+  END IF;
+  IF v_new IS NOT NULL THEN
+    INSERT INTO sync_change_log (entity, entity_key, op) VALUES (TG_ARGV[0], v_new, 'U');
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_plot_sync_log ON plot;
+CREATE TRIGGER trg_plot_sync_log
+AFTER INSERT OR UPDATE OR DELETE ON plot
+FOR EACH ROW EXECUTE FUNCTION log_sync_change('plot', 'plot_no');
+
+DROP TRIGGER IF EXISTS trg_ifn_programme_sync_log ON ifn_programme;
+CREATE TRIGGER trg_ifn_programme_sync_log
+AFTER INSERT OR UPDATE OR DELETE ON ifn_programme
+FOR EACH ROW EXECUTE FUNCTION log_sync_change('placette', 'num_placette');
+
+-- ─── Backfill (first run only) ────────────────────────────────────────────────
+INSERT INTO sync_change_log (entity, entity_key, op, changed_at)
+SELECT 'placette', num_placette, 'U', now()
+FROM ifn_programme
+WHERE NOT EXISTS (SELECT 1 FROM sync_change_log);
+
+INSERT INTO sync_change_log (entity, entity_key, op, changed_at)
+SELECT 'plot', plot_no, 'U', now()
+FROM plot
+WHERE NOT EXISTS (SELECT 1 FROM sync_change_log WHERE entity = 'plot')
+ORDER BY date_modified NULLS FIRST, plot_no;
+
+-- ─── Verification ─────────────────────────────────────────────────────────────
+-- SELECT entity, op, COUNT(*), MAX(seq), MIN(xid) FROM sync_change_log GROUP BY entity, op;
+-- SELECT pg_snapshot_xmin(pg_current_snapshot());
@@ -1,15 +1,14 @@
 -- ─── View: plot_controle ──────────────────────────────────────────────────────
--- Contains only controlled placettes (plot_no ending with 'C').
--- The base placette ID is derived by stripping the trailing 'C'.
+-- Contains only controlled placettes (plot_kind = 'C', i.e. plot_no ending with 'C').
+-- plot_no_base (the placette ID without the trailing 'C') is a generated column of plot.
+-- Requires add_plot_kind.sql, which also (re)creates this view.
 -- ─────────────────────────────────────────────────────────────────────────────
 
-CREATE OR REPLACE VIEW plot_controle AS
-SELECT
-    p.*,
-    -- Base placette ID (without the trailing 'C')
-    LEFT(p.plot_no, LENGTH(p.plot_no) - 1) AS plot_no_base
+DROP VIEW IF EXISTS plot_controle;
+CREATE VIEW plot_controle AS
+SELECT p.*
 FROM plot p
-WHERE p.plot_no LIKE '%C';
+WHERE p.plot_kind = 'C';
 
 -- ─── Verification ─────────────────────────────────────────────────────────────
 -- SELECT plot_no, plot_no_base, plot_dranef, plot_dpanef,
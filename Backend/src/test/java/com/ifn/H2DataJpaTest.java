@@ -0,0 +1,21 @@
+package com.ifn;
+
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.lang.annotation.*;
+
+/**
+ * {@link DataJpaTest} on the embedded H2 database: the entity tables are created by Hibernate,
+ * then test-schema.sql adds the tables JPA does not map.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:test-schema.sql"
+})
+public @interface H2DataJpaTest {
+}
@@ -0,0 +1,62 @@
+package com.ifn.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitedDataSourceTests {
+
+	private final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(
+			new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1", "sa", ""), 2, 200);
+
+	@Test
+	void permitIsHeldUntilTheConnectionIsClosed() throws Exception {
+		try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+			assertThat(dataSource.active()).isEqualTo(2);
+			assertThat(a.createStatement().executeQuery("SELECT 1").next()).isTrue();
+			b.close();
+			b.close();                              // a second close() does not give a permit back twice
+			assertThat(dataSource.active()).isEqualTo(1);
+		}
+		assertThat(dataSource.active()).isZero();
+		assertThat(dataSource.acquired()).isEqualTo(2);
+	}
+
+	@Test
+	void callerTimesOutWhenAllPermitsAreTaken() throws Exception {
+		try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+			assertThatThrownBy(dataSource::getConnection)
+					.isInstanceOf(SQLTransientConnectionException.class)
+					.hasMessageContaining("2 requêtes SQL simultanées");
+		}
+		assertThat(dataSource.rejected()).isEqualTo(1);
+		assertThat(dataSource.active()).isZero();
+	}
+
+	@Test
+	void waitingCallerGetsThePermitOfAClosedConnection() throws Exception {
+		ConcurrencyLimitedDataSource slow = new ConcurrencyLimitedDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1", "sa", ""), 1, 5_000);
+		Connection held = slow.getConnection();
+		CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+		Thread.ofVirtual().start(() -> {
+			try (Connection c = slow.getConnection()) {
+				waiter.complete(c.isValid(1));
+			} catch (Exception e) {
+				waiter.completeExceptionally(e);
+			}
+		});
+		while (slow.waiting() == 0) Thread.onSpinWait();
+
+		held.close();
+		assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(slow.rejected()).isZero();
+	}
+}
@@ -0,0 +1,153 @@
+package com.ifn.config;
+
+import com.ifn.service.DataVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTests {
+
+	private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+	// Stand in for pg_current_wal_lsn() on the primary and pg_last_wal_replay_lsn() on the replica
+	private static final String PRIMARY_POSITION_QUERY = "SELECT lsn FROM wal";
+	private static final String REPLICA_POSITION_QUERY = "SELECT lsn FROM wal";
+	private static final long NO_BACKGROUND_CHECK = 3_600_000;
+
+	private final DataSource primary = database("primary");
+	private final DataSource replica = database("replica");
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void setUp() {
+		new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+		new JdbcTemplate(replica).update("INSERT INTO replica_lag VALUES (0.5)");
+		wal(primary, 100);
+		wal(replica, 100);
+		routing = routing(replica);
+		routing.checkLag();
+		jdbc = new JdbcTemplate(routing);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReplicaRoutingDataSource.clearRoute();
+		new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+		new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void readOnlyTransactionsReadFromTheReplica() {
+		assertThat(whoami(true)).isEqualTo("replica");
+		assertThat(whoami(false)).isEqualTo("primary");
+		assertThat(jdbc.queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+		assertThat(routing.replicaReads()).isEqualTo(1);
+	}
+
+	@Test
+	void requestRouteAppliesOutsideTransactions() {
+		ReplicaRoutingDataSource.setRoute(ReplicaRoutingDataSource.Route.REPLICA);
+		assertThat(jdbc.queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("replica");
+		assertThat(whoami(false)).isEqualTo("primary");          // a write transaction stays on the primary
+
+		ReplicaRoutingDataSource.setRoute(ReplicaRoutingDataSource.Route.PRIMARY);
+		assertThat(whoami(true)).isEqualTo("primary");
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 120");
+		routing.checkLag();
+		assertThat(routing.replicaUp()).isFalse();
+		assertThat(routing.lagSeconds()).isEqualTo(120.0);
+		assertThat(whoami(true)).isEqualTo("primary");
+		assertThat(routing.fallbacks()).isEqualTo(1);
+
+		new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 2");
+		routing.checkLag();
+		assertThat(whoami(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void unreachableReplicaFallsBackToPrimary() {
+		DataSource down = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/nowhere", "sa", "");
+		ReplicaRoutingDataSource routing = routing(down);
+		routing.checkLag();
+
+		assertThat(routing.replicaUp()).isFalse();
+		assertThat(routing.lagSeconds()).isNaN();
+		TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		tx.setReadOnly(true);
+		String name = tx.execute(s -> new JdbcTemplate(routing).queryForObject("SELECT name FROM whoami", String.class));
+		assertThat(name).isEqualTo("primary");
+	}
+
+	@Test
+	void replicaIsSkippedUntilItReplaysTheLastDataVersion() {
+		DataVersionService dataVersion = new DataVersionService(event -> {}, routing);
+
+		// An import commits on the primary; the replica, within max-lag-seconds, has not replayed it yet
+		wal(primary, 250);
+		new JdbcTemplate(primary).update("UPDATE whoami SET name = 'imported'");
+		dataVersion.bump();
+
+		// Read under the new version: the replica's rows would be older than its ETag
+		assertThat(routing.replicaUp()).isTrue();
+		assertThat(whoami(true)).isEqualTo("imported");
+		assertThat(routing.fallbacks()).isEqualTo(1);
+
+		wal(replica, 200);
+		routing.checkLag();
+		assertThat(whoami(true)).isEqualTo("imported");
+
+		wal(replica, 250);
+		routing.checkLag();
+		assertThat(whoami(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void readsStayOnThePrimaryUntilThePrimaryPositionIsKnown() {
+		DataSource noWal = new DriverManagerDataSource("jdbc:h2:mem:routing_nowal;DB_CLOSE_DELAY=-1", "sa", "");
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(noWal, replica, 30, NO_BACKGROUND_CHECK,
+				LAG_QUERY, PRIMARY_POSITION_QUERY, REPLICA_POSITION_QUERY);
+		routing.checkLag();
+
+		assertThat(routing.replicaUp()).isTrue();
+		assertThat(routing.replicaCaughtUp()).isFalse();
+	}
+
+	private ReplicaRoutingDataSource routing(DataSource replica) {
+		return new ReplicaRoutingDataSource(primary, replica, 30, NO_BACKGROUND_CHECK,
+				LAG_QUERY, PRIMARY_POSITION_QUERY, REPLICA_POSITION_QUERY);
+	}
+
+	private static void wal(DataSource db, long lsn) {
+		JdbcTemplate jdbc = new JdbcTemplate(db);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS wal (lsn BIGINT)");
+		jdbc.update("DELETE FROM wal");
+		jdbc.update("INSERT INTO wal VALUES (?)", lsn);
+	}
+
+	private String whoami(boolean readOnly) {
+		TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		tx.setReadOnly(readOnly);
+		return tx.execute(s -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+	}
+
+	private static DataSource database(String name) {
+		DataSource ds = new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(ds);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(10))");
+		jdbc.update("DELETE FROM whoami");
+		jdbc.update("INSERT INTO whoami VALUES (?)", name);
+		return ds;
+	}
+}
@@ -0,0 +1,104 @@
+package com.ifn.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Against a small bundle in a temporary directory, laid out like the build output:
+ * a hashed asset and road_graph.js, each with the .gz variant StaticPrecompressor writes.
+ */
+class StaticResourceConfigTests {
+
+	private static final String GRAPH = "window.ROAD_GRAPH = {};\n";
+
+	@TempDir
+	Path bundle;
+
+	private AnnotationConfigWebApplicationContext context;
+	private MockMvc mvc;
+
+	@Configuration
+	@EnableWebMvc
+	static class Mvc {
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Files.createDirectories(bundle.resolve("assets"));
+		write("assets/index-Ab12Cd34.js", "console.log('ifn');\n");
+		write("road_graph.js", GRAPH);
+
+		context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.getEnvironment().getPropertySources().addFirst(
+				new MapPropertySource("test", Map.of("app.static.location", bundle.toUri().toString())));
+		context.register(Mvc.class, StaticResourceConfig.class);
+		context.refresh();
+		mvc = MockMvcBuilders.webAppContextSetup(context).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		context.close();
+	}
+
+	/** Writes the file and its .gz variant. */
+	private void write(String name, String text) throws Exception {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		Files.write(bundle.resolve(name), bytes);
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(bundle.resolve(name + ".gz")))) {
+			out.write(bytes);
+		}
+	}
+
+	@Test
+	void hashedAssetsAreCachedForAYear() throws Exception {
+		mvc.perform(get("/assets/index-Ab12Cd34.js"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+	}
+
+	@Test
+	void roadGraphIsRevalidatedAgainstItsContentEtag() throws Exception {
+		String etag = mvc.perform(get("/road_graph.js"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(content().string(GRAPH))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/road_graph.js").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void gzipVariantIsServedToClientsThatAcceptIt() throws Exception {
+		mvc.perform(get("/road_graph.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+}
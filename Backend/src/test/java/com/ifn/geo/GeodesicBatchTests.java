@@ -0,0 +1,46 @@
+package com.ifn.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GeodesicBatchTests {
+
+	@Test
+	void vectorAndScalarPathsAgree() {
+		assumeTrue(GeodesicBatch.vectorAvailable(), "SIMD path built and tested with mvn -Pvector");
+
+		int n = 1_003;   // not a multiple of any vector length: exercises the scalar tail
+		Random random = new Random(42);
+		double[] lon1 = new double[n], lat1 = new double[n], lon2 = new double[n], lat2 = new double[n];
+		for (int i = 0; i < n; i++) {
+			lon1[i] = -13 + random.nextDouble() * 12;
+			lat1[i] = 21 + random.nextDouble() * 15;
+			lon2[i] = lon1[i] + (random.nextDouble() - 0.5) * 0.01;
+			lat2[i] = lat1[i] + (random.nextDouble() - 0.5) * 0.01;
+		}
+		double[] dVector = new double[n], bVector = new double[n], dScalar = new double[n], bScalar = new double[n];
+
+		GeodesicBatch.compute(lon1, lat1, lon2, lat2, dVector, bVector, n, true);
+		GeodesicBatch.scalar(lon1, lat1, lon2, lat2, dScalar, bScalar, n);
+
+		for (int i = 0; i < n; i++) {
+			assertThat(dVector[i]).isCloseTo(dScalar[i], within(1e-6));
+			assertThat(bVector[i]).isCloseTo(bScalar[i], within(1e-6));
+		}
+	}
+
+	@Test
+	void haversineAndVincentyAreCloseOverShortDistances() {
+		// Rabat → Kénitra, about 35 km
+		double h = Geodesic.haversine(-6.8498, 34.0209, -6.5802, 34.2610);
+		double v = Geodesic.vincenty(-6.8498, 34.0209, -6.5802, 34.2610);
+		assertThat(v).isCloseTo(h, within(h * 0.005));
+		assertThat(Geodesic.bearing(0, 0, 0, 1)).isCloseTo(0, within(1e-9));
+		assertThat(Geodesic.bearing(0, 0, 1, 0)).isCloseTo(90, within(1e-9));
+	}
+}
@@ -0,0 +1,29 @@
+package com.ifn.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineSimplifierTests {
+
+	@Test
+	void dropsVerticesWithinToleranceButKeepsPinnedOnes() {
+		// Nearly straight, then one real bend at x = 6
+		double[] line = {0, 0, 1, 0.01, 2, -0.01, 3, 0.02, 4, 0, 6, 2};
+
+		assertThat(LineSimplifier.douglasPeucker(line, 0.1, null))
+				.containsExactly(0, 0, 4, 0, 6, 2);
+
+		// Vertex 2 is a junction with another road: it must survive
+		boolean[] pinned = new boolean[6];
+		pinned[2] = true;
+		assertThat(LineSimplifier.douglasPeucker(line, 0.1, pinned))
+				.containsExactly(0, 0, 2, -0.01, 4, 0, 6, 2);
+	}
+
+	@Test
+	void shortLinesAreLeftAlone() {
+		double[] line = {0, 0, 1, 1};
+		assertThat(LineSimplifier.douglasPeucker(line, 10, null)).containsExactly(0, 0, 1, 1);
+	}
+}
@@ -0,0 +1,44 @@
+package com.ifn.repository;
+
+import com.ifn.H2DataJpaTest;
+import com.ifn.entity.Plot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2DataJpaTest
+@Import(KeysetQuery.class)
+class PlotRepositoryTests {
+
+	@Autowired
+	private PlotRepository repository;
+
+	@Autowired
+	private KeysetQuery keysetQuery;
+
+	private void save(String plotNo, String dpanef) {
+		Plot p = new Plot();
+		p.setPlotNo(plotNo);
+		p.setPlotDpanef(dpanef);
+		repository.save(p);
+	}
+
+	@Test
+	void keysetPagesWalkThePlotsInOrder() {
+		save("300", "Kénitra");
+		save("100", "Rabat");
+		save("200", "Kénitra");
+		save("100C", "Rabat");
+
+		List<Object[]> first = keysetQuery.after(Plot.class, "plotNo", "", List.of("plotDpanef"), 2);
+		assertThat(first).extracting(row -> row[0]).containsExactly("100", "100C");
+		assertThat(first.get(0)[1]).isEqualTo("Rabat");
+
+		List<Object[]> second = keysetQuery.after(Plot.class, "plotNo", "100C", List.of("plotDpanef"), 2);
+		assertThat(second).extracting(row -> row[0]).containsExactly("200", "300");
+	}
+}
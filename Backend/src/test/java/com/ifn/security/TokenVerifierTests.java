@@ -0,0 +1,85 @@
+package com.ifn.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenVerifierTests {
+
+	private static final String SECRET = "TestJwtSecretKeyForHmacSha256MustBeAtLeast32Chars";
+
+	private static final long NOW = 1_767_225_600_000L;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final Clock clock = mock(Clock.class);
+
+	@BeforeEach
+	void setUp() {
+		when(clock.millis()).thenReturn(NOW);
+	}
+
+	private double count(String result) {
+		return registry.get("jwt.verifications").tag("result", result).counter().count();
+	}
+
+	@Test
+	void repeatedTokenIsVerifiedOnceThenServedFromTheCache() {
+		JwtUtil jwt = new JwtUtil(SECRET, 60_000, clock);
+		TokenVerifier verifier = new TokenVerifier(jwt, registry, clock, 100);
+		String token = jwt.generate("admin");
+
+		assertThat(verifier.verify(token)).contains("admin");
+		assertThat(verifier.verify(token)).contains("admin");
+		assertThat(verifier.verify(token)).contains("admin");
+
+		assertThat(count("miss")).isEqualTo(1);
+		assertThat(count("hit")).isEqualTo(2);
+		assertThat(registry.get("jwt.verification").tag("cache", "hit").timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	void forgedOrTamperedTokensAreRejectedAndNotCached() {
+		JwtUtil jwt = new JwtUtil(SECRET, 60_000, clock);
+		TokenVerifier verifier = new TokenVerifier(jwt, registry, clock, 100);
+		String forged = new JwtUtil("AnotherSecretKeyForHmacSha256MustBeAtLeast32Chars", 60_000, clock).generate("admin");
+		String token = jwt.generate("admin");
+		int i = token.length() - 10;   // inside the signature
+		String tampered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+
+		assertThat(verifier.verify(forged)).isEmpty();
+		assertThat(verifier.verify(tampered)).isEmpty();
+		assertThat(verifier.verify("not a jwt")).isEmpty();
+		assertThat(count("invalid")).isEqualTo(3);
+		assertThat(verifier.cacheSize()).isZero();
+	}
+
+	@Test
+	void cachedTokenStopsWorkingAtItsExpiry() {
+		JwtUtil jwt = new JwtUtil(SECRET, 1_500, clock);   // exp is stored in whole seconds
+		TokenVerifier verifier = new TokenVerifier(jwt, registry, clock, 100);
+		String token = jwt.generate("admin");
+
+		assertThat(verifier.verify(token)).contains("admin");
+		when(clock.millis()).thenReturn(NOW + 1_600);
+		assertThat(verifier.verify(token)).isEmpty();
+		assertThat(count("expired")).isEqualTo(1);
+		assertThat(verifier.cacheSize()).isZero();
+	}
+
+	@Test
+	void cacheIsBounded() {
+		JwtUtil jwt = new JwtUtil(SECRET, 60_000, clock);
+		TokenVerifier verifier = new TokenVerifier(jwt, registry, clock, 2);
+
+		verifier.verify(jwt.generate("a"));
+		verifier.verify(jwt.generate("b"));
+		verifier.verify(jwt.generate("c"));
+		assertThat(verifier.cacheSize()).isEqualTo(2);
+	}
+}
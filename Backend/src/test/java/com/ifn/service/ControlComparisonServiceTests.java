@@ -0,0 +1,114 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@H2DataJpaTest
+class ControlComparisonServiceTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final TaskScheduler scheduler = mock(TaskScheduler.class);
+	private DataVersionService dataVersion;
+	private ControlComparisonService service;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('1', 'Equipe 01', 0, 0)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('2', 'Equipe 02', 0, 0)");
+		visit("1",   "1", "R",  500, "QsH");
+		visit("1C",  "1", "C",  530, "QsH");   // altitude off by 30 m
+		visit("1CS", "1", "CS", 505, "Pp");    // strate differs
+		visit("2C",  "2", "C",  100, "QsH");   // no regular visit: not compared
+		tree("1", 20);
+		tree("1", 30);
+		tree("1C", 25);
+
+		dataVersion = new DataVersionService(event -> {}, null);
+		service = new ControlComparisonService(jdbc, dataVersion,
+				new TreeSchema(jdbc, List.of("tree_dbh"), List.of("tree_height"), List.of("tree_species_code")),
+				scheduler, 20, 5, 10, 2);
+	}
+
+	private void visit(String plotNo, String base, String kind, int elevation, String stratum) {
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind, donnees_topographiques_plot_elevation, plot_stratum) VALUES (?, ?, ?, ?, ?)",
+				plotNo, base, kind, elevation, stratum);
+	}
+
+	private void tree(String plotNo, double d) {
+		jdbc.update("INSERT INTO tree (plot_plot_no, tree_dbh) VALUES (?, ?)", plotNo, d);
+	}
+
+	private ControlComparisonService.Comparison pair(String controle) {
+		return service.comparisons().stream().filter(c -> c.controle().equals(controle)).findFirst().orElseThrow();
+	}
+
+	@Test
+	void comparesEachControlWithItsRegularVisit() {
+		assertThat(service.comparisons()).extracting(ControlComparisonService.Comparison::controle)
+				.containsExactly("1C", "1CS");
+
+		ControlComparisonService.Comparison c = pair("1C");
+		assertThat(c.equipe()).isEqualTo("Equipe 01");
+		assertThat(c.deltas().get("altitude").ecart()).isEqualTo(30.0);
+		assertThat(c.deltas().get("altitude").horsTolerance()).isTrue();
+		assertThat(c.deltas().get("nb_tiges").ecart()).isEqualTo(-1.0);
+		assertThat(c.deltas().get("diametre_moyen").ecart()).isEqualTo(0.0);
+		assertThat(pair("1CS").deltas().get("strate").horsTolerance()).isTrue();
+
+		Map<String, Object> equipe = service.byEquipe().get(0);
+		assertThat(equipe.get("nb_paires")).isEqualTo(2);
+		assertThat(equipe.get("nb_paires_hors_tolerance")).isEqualTo(2L);
+	}
+
+	@Test
+	void recomputesOnlyPairsOfImportedPlacettes() {
+		assertThat(pair("1C").violations()).isGreaterThan(0);
+
+		jdbc.update("UPDATE plot SET donnees_topographiques_plot_elevation = 500 WHERE plot_no = '1C'");
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind) VALUES ('2', '2', 'R')");
+		service.onImported(new ImportService.Imported(Set.of("2")));
+		dataVersion.bump();
+
+		// Placette 2 is now paired; the pair of placette 1 was not part of the import and stays cached
+		assertThat(service.comparisons()).extracting(ControlComparisonService.Comparison::controle)
+				.containsExactly("1C", "1CS", "2C");
+		assertThat(pair("1C").deltas().get("altitude").ecart()).isEqualTo(30.0);
+
+		service.onImported(new ImportService.Imported(Set.of("1C")));
+		dataVersion.bump();
+		assertThat(pair("1C").deltas().get("altitude").ecart()).isEqualTo(0.0);
+	}
+
+	@Test
+	void dataChangeIsRefreshedOffTheCallerThread() {
+		service.comparisons();
+		jdbc.update("UPDATE plot SET donnees_topographiques_plot_elevation = 500 WHERE plot_no = '1C'");
+		dataVersion.bump();
+
+		service.onDataChanged(new DataVersionService.Changed(dataVersion.current()));
+		service.onDataChanged(new DataVersionService.Changed(dataVersion.current()));   // merged into the queued one
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(refresh.capture(), any(Instant.class));
+
+		refresh.getValue().run();
+		jdbc.update("UPDATE plot SET donnees_topographiques_plot_elevation = 900 WHERE plot_no = '1C'");   // no bump
+		assertThat(pair("1C").deltas().get("altitude").ecart()).isEqualTo(0.0);
+	}
+}
@@ -0,0 +1,128 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@H2DataJpaTest
+@SuppressWarnings("unchecked")
+class DendroServiceTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final TaskScheduler scheduler = mock(TaskScheduler.class);
+	private DataVersionService dataVersion;
+	private DendroService dendro;
+
+	@BeforeEach
+	void setUp() {
+		placette("1", "QsH", "Kénitra");
+		placette("2", "Pp", "Rabat");
+		plot("1", "R");
+		plot("2", "R");
+		plot("1C", "C");
+		tree("1", "Qs", 20, 10);
+		tree("1", "Qs", 40, 12);
+		tree("2", "Pp", 30, 15);
+		tree("1C", "Qs", 99, 20);   // control visit: never counted
+
+		dataVersion = new DataVersionService(event -> {}, null);
+		dendro = new DendroService(jdbc, transactionManager, dataVersion, treeSchema(), scheduler, 10, 0.5);
+	}
+
+	private TreeSchema treeSchema() {
+		return new TreeSchema(jdbc, List.of("tree_dbh"), List.of("tree_height"), List.of("tree_species_code"));
+	}
+
+	private void placette(String num, String strate, String dpanef) {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, strate_cartographique, dpanef, x_centre, y_centre) VALUES (?, ?, ?, 0, 0)", num, strate, dpanef);
+	}
+
+	private void plot(String plotNo, String kind) {
+		jdbc.update("INSERT INTO plot (plot_no, plot_kind) VALUES (?, ?)", plotNo, kind);
+	}
+
+	private void tree(String plotNo, String essence, double d, double h) {
+		jdbc.update("INSERT INTO tree (plot_plot_no, tree_species_code, tree_dbh, tree_height) VALUES (?, ?, ?, ?)", plotNo, essence, d, h);
+	}
+
+	private static Map<String, Object> row(Map<String, Object> summary, String group, String key) {
+		return ((List<Map<String, Object>>) summary.get(group)).stream()
+				.filter(r -> key.equals(r.get(group)))
+				.findFirst().orElseThrow();
+	}
+
+	@Test
+	void rollsUpRegularPlotsPerStrateEssenceAndDpanef() {
+		Map<String, Object> s = dendro.summary();
+		double areaHa = Math.PI * 10 * 10 / 10_000;
+
+		Map<String, Object> total = (Map<String, Object>) s.get("total");
+		assertThat(total.get("placettes")).isEqualTo(2);
+		assertThat(total.get("arbres")).isEqualTo(3L);
+		assertThat((double) total.get("n_ha")).isCloseTo(3 / (2 * areaHa), within(0.1));
+
+		Map<String, Object> qsh = row(s, "strate", "QsH");
+		assertThat(qsh.get("arbres")).isEqualTo(2L);
+		assertThat(qsh.get("dg_cm")).isEqualTo(Math.round(Math.sqrt((400 + 1600) / 2.0) * 10) / 10.0);
+		assertThat(row(s, "dpanef", "Rabat").get("arbres")).isEqualTo(1L);
+		assertThat(row(s, "essence", "Qs").get("placettes")).isEqualTo(1);
+		assertThat(((Map<String, Object>) s.get("recalcul")).get("mode")).isEqualTo("complet");
+	}
+
+	@Test
+	void rereadsOnlyImportedPlotsAfterAZipImport() {
+		dendro.summary();
+
+		tree("2", "Pp", 30, 15);
+		jdbc.update("UPDATE tree SET tree_dbh = 50 WHERE plot_plot_no = '1'");   // not part of the import
+		dendro.onImported(new ImportService.Imported(Set.of("2")));
+		dataVersion.bump();
+
+		Map<String, Object> s = dendro.summary();
+		assertThat(((Map<String, Object>) s.get("recalcul")).get("mode")).isEqualTo("incremental");
+		assertThat(row(s, "strate", "Pp").get("arbres")).isEqualTo(2L);
+		assertThat(row(s, "strate", "QsH").get("dg_cm")).isNotEqualTo(50.0);
+
+		dataVersion.bump();   // change from another source
+		s = dendro.summary();
+		assertThat(((Map<String, Object>) s.get("recalcul")).get("mode")).isEqualTo("complet");
+		assertThat(row(s, "strate", "QsH").get("dg_cm")).isEqualTo(50.0);
+	}
+
+	@Test
+	void dataChangeIsRecomputedOffTheCallerThread() {
+		dendro.summary();
+		tree("2", "Pp", 30, 15);
+		dataVersion.bump();
+
+		dendro.onDataChanged(new DataVersionService.Changed(dataVersion.current()));
+		dendro.onDataChanged(new DataVersionService.Changed(dataVersion.current()));   // merged into the queued one
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(refresh.capture(), any(Instant.class));
+
+		refresh.getValue().run();
+		jdbc.update("DELETE FROM tree");   // no bump: summary() serves what the background task built
+		assertThat(row(dendro.summary(), "strate", "Pp").get("arbres")).isEqualTo(2L);
+	}
+}
@@ -0,0 +1,126 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@H2DataJpaTest
+class ExportServiceTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	Path cacheDir;
+
+	private ExportService export;
+	private ExportService.Source placettes;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('1', 'Equipe 01', -6.5, 34.2)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('2', 'Equipe, 02', -6.4, 34.3)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('3', 'Equipe 02', -5.9, 33.9)");
+		export = new ExportService(jdbc, transactionManager, JsonMapper.builder().build(),
+				new DataVersionService(event -> {}, null), cacheDir);
+		placettes = export.source("placettes");
+	}
+
+	private String write(ExportService.Format format, String after, boolean gzip) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		export.write(placettes, format, after, gzip, out);
+		byte[] bytes = gzip
+				? new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes()
+				: out.toByteArray();
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void streamsCsvAndGeoJsonLinesResumingAfterAKey() throws Exception {
+		String csv = write(ExportService.Format.CSV, null, true);
+		assertThat(csv.lines()).hasSize(4);
+		assertThat(csv).contains("\"Equipe, 02\"");
+
+		String resumed = write(ExportService.Format.GEOJSONL, "1", false);
+		assertThat(resumed.lines()).hasSize(2);
+		assertThat(resumed.lines().findFirst().orElseThrow())
+				.startsWith("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[-6.4,34.3]}")
+				.contains("\"num_placette\":\"2\"");
+	}
+
+	@Test
+	void treeExportCannotResume() {
+		ExportService.Source tree = export.source("tree");
+		assertThatThrownBy(() -> export.write(tree, ExportService.Format.CSV, "1", false, new ByteArrayOutputStream()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("plot_plot_no n'est pas unique");
+	}
+
+	@Test
+	void writesAGeoPackageReadableBySqlite() throws Exception {
+		Path file = export.geoPackage(placettes);
+		assertThat(export.geoPackage(placettes)).isEqualTo(file);   // cached for the data version
+
+		try (Connection gpkg = DriverManager.getConnection("jdbc:sqlite:" + file);
+			 ResultSet rs = gpkg.createStatement().executeQuery(
+					 "SELECT (SELECT COUNT(*) FROM placettes), min_x, max_y, " +
+					 "(SELECT LENGTH(geom) FROM placettes LIMIT 1), (SELECT application_id FROM pragma_application_id) " +
+					 "FROM gpkg_contents WHERE table_name = 'placettes'")) {
+			assertThat(rs.next()).isTrue();
+			assertThat(rs.getInt(1)).isEqualTo(3);
+			assertThat(rs.getDouble(2)).isEqualTo(-6.5);
+			assertThat(rs.getDouble(3)).isEqualTo(34.3);
+			assertThat(rs.getInt(4)).isEqualTo(29);
+			assertThat(rs.getInt(5)).isEqualTo(0x47504B47);
+		}
+	}
+
+	@Test
+	void concurrentRequestsShareOneGeoPackageBuild() throws Exception {
+		List<CompletableFuture<Path>> requests = IntStream.range(0, 4)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+					try {
+						return export.geoPackage(placettes);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}))
+				.toList();
+		Set<Path> files = new HashSet<>();
+		for (CompletableFuture<Path> r : requests) files.add(r.get());
+
+		assertThat(files).hasSize(1);
+		try (Stream<Path> left = Files.list(cacheDir)) {
+			assertThat(left).containsExactlyElementsOf(files);
+		}
+	}
+}
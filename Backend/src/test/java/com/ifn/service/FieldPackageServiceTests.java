@@ -0,0 +1,147 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import com.ifn.geo.RoadNetwork;
+import com.ifn.repository.IfnProgrammeRepository;
+import com.ifn.repository.KeysetQuery;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2DataJpaTest
+class FieldPackageServiceTests {
+
+	// Two nodes near Kénitra, one near Rabat (≈ 50 km away), with trailing commas as in the real file
+	private static final String GRAPH = """
+			window.ROAD_GRAPH = {
+			  "-6.5,34.21": [34.21, -6.5, [["-6.49,34.2", 1000, 60], ["-6.8,34.0", 40000, 2400],]],
+			  "-6.49,34.2": [34.2, -6.49, [["-6.5,34.21", 1000, 60],]],
+			  "-6.8,34.0": [34.0, -6.8, [["-6.5,34.21", 40000, 2400],]],
+			};
+			""";
+
+	private static final String ROADS = """
+			window.ROADS_GEOJSON = {"type": "FeatureCollection", "features": [
+			  {"type": "Feature", "properties": {"t": "P"}, "geometry": {"type": "LineString",
+			    "coordinates": [[-6.5, 34.21], [-6.49, 34.2]]}},
+			  {"type": "Feature", "properties": {"t": "R"}, "geometry": {"type": "MultiLineString",
+			    "coordinates": [[[-6.8, 34.0], [-6.81, 34.01]]]}},
+			]};
+			""";
+
+	@Autowired
+	private IfnProgrammeRepository programmes;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@TempDir
+	Path cacheDir;
+
+	private final JsonMapper json = JsonMapper.builder().build();
+	private DataVersionService dataVersion;
+	private FieldPackageService packages;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('1', 'Equipe 01', -6.5, 34.208)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('2', 'Equipe 01', -6.48, 34.19)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('3', 'Equipe 02', -6.8, 34.0)");
+		dataVersion = new DataVersionService(event -> {}, null);
+		RoadNetwork roads = new RoadNetwork(
+				new ByteArrayResource(GRAPH.getBytes(StandardCharsets.UTF_8)),
+				new ByteArrayResource(ROADS.getBytes(StandardCharsets.UTF_8)));
+		IfnProgrammeService programmeService = new IfnProgrammeService(programmes,
+				new PlacetteBitmapIndex(programmes, new PlacetteStatusService(jdbc, dataVersion), dataVersion, null, false), new KeysetQuery(entityManager));
+		packages = new FieldPackageService(jdbc, programmeService, roads, dataVersion, json, cacheDir, 2000);
+	}
+
+	private Map<String, String> entries(Path zip) throws Exception {
+		Map<String, String> entries = new HashMap<>();
+		try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+			for (ZipEntry e; (e = in.getNextEntry()) != null; ) {
+				entries.put(e.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+
+	@Test
+	void packageIsClippedToTheEquipeSector() throws Exception {
+		FieldPackageService.Package p = packages.get("Equipe 01");
+		Map<String, String> entries = entries(p.file());
+
+		assertThat(entries).containsOnlyKeys(
+				"manifest.json", "placettes.geojson", "road_graph.js", "roads_geojson.js", "last_mile.json");
+
+		JsonNode manifest = json.readTree(entries.get("manifest.json"));
+		assertThat(manifest.get("placettes").asInt()).isEqualTo(2);
+		assertThat(manifest.get("noeuds").asInt()).isEqualTo(2);
+		assertThat(manifest.get("aretes").asInt()).isEqualTo(2);   // the edge to Rabat is dropped
+		assertThat(manifest.get("routes").asInt()).isEqualTo(1);
+
+		// Drop-in replacement for the browser files, readable by RoadNetwork itself
+		assertThat(entries.get("road_graph.js")).startsWith("window.ROAD_GRAPH = ").doesNotContain("-6.8,34.0");
+		RoadNetwork clipped = new RoadNetwork(
+				new ByteArrayResource(entries.get("road_graph.js").getBytes(StandardCharsets.UTF_8)),
+				new ByteArrayResource(entries.get("roads_geojson.js").getBytes(StandardCharsets.UTF_8)));
+		assertThat(clipped.graph().size()).isEqualTo(2);
+		assertThat(clipped.roads()).extracting(RoadNetwork.Road::type).containsExactly("P");
+
+		JsonNode lastMile = json.readTree(entries.get("last_mile.json"));
+		assertThat(lastMile.get("1").get("noeud").asString()).isEqualTo("-6.5,34.21");
+		assertThat(lastMile.get("2").get("noeud").asString()).isEqualTo("-6.49,34.2");
+	}
+
+	@Test
+	void packageIsReusedUntilItsPlacettesChange() {
+		FieldPackageService.Package first = packages.get("Equipe 01");
+		assertThat(packages.get("Equipe 01")).isSameAs(first);
+
+		// A change to another equipe bumps the version but not this package
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('4', 'Equipe 02', -6.81, 34.01)");
+		dataVersion.bump();
+		assertThat(packages.get("Equipe 01")).isSameAs(first);
+
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('5', 'Equipe 01', -6.49, 34.2)");
+		dataVersion.bump();
+		FieldPackageService.Package second = packages.get("Equipe 01");
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.fingerprint()).isNotEqualTo(first.fingerprint());
+		assertThat(Files.exists(second.file())).isTrue();
+		assertThat(Files.exists(first.file())).isTrue();    // may still be about to be downloaded
+
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('6', 'Equipe 01', -6.5, 34.21)");
+		dataVersion.bump();
+		FieldPackageService.Package third = packages.get("Equipe 01");
+		assertThat(Files.exists(first.file())).isFalse();
+		assertThat(Files.exists(second.file())).isTrue();
+		assertThat(Files.exists(third.file())).isTrue();
+	}
+
+	@Test
+	void buildAllCoversEveryEquipe() {
+		assertThat(packages.buildAll()).extracting(FieldPackageService.Package::equipe)
+				.containsExactly("Equipe 01", "Equipe 02");
+		assertThat(packages.ready()).hasSize(2);
+	}
+}
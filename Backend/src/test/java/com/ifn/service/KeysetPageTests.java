@@ -0,0 +1,96 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import com.ifn.repository.IfnProgrammeRepository;
+import com.ifn.repository.KeysetQuery;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@H2DataJpaTest
+@TestPropertySource(properties =
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ifn.service.KeysetPageTests$Sql")
+class KeysetPageTests {
+
+	/** The SQL sent by Hibernate, to check which columns a page selects. */
+	public static class Sql implements StatementInspector {
+
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@Autowired
+	private IfnProgrammeRepository programmes;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private IfnProgrammeService service;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, dpanef, equipe, x_centre, y_centre) VALUES ('3', 'Rabat', 'Equipe 02', -6.8, 34.0)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, dpanef, equipe, x_centre, y_centre) VALUES ('1', 'Kénitra', 'Equipe 01', -6.5, 34.2)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, dpanef, equipe, x_centre, y_centre) VALUES ('2', 'Kénitra', 'Equipe 01', -6.4, 34.3)");
+		DataVersionService dataVersion = new DataVersionService(event -> {}, null);
+		service = new IfnProgrammeService(programmes,
+				new PlacetteBitmapIndex(programmes, new PlacetteStatusService(jdbc, dataVersion), dataVersion, null, false),
+				new KeysetQuery(entityManager));
+		Sql.statements.clear();
+	}
+
+	@Test
+	void placettePagesWalkInKeyOrder() {
+		KeysetPage first = service.page(null, 2, null);
+		assertThat(first.items()).extracting(item -> item.get("numPlacette")).containsExactly("1", "2");
+		assertThat(first.items().getFirst()).containsEntry("dpanef", "Kénitra").containsEntry("xCentre", -6.5);
+		assertThat(first.items().getFirst()).hasSize(12);   // every PlacetteSummary field
+		assertThat(first.next()).isEqualTo("2");
+
+		KeysetPage second = service.page(first.next(), 2, null);
+		assertThat(second.items()).extracting(item -> item.get("numPlacette")).containsExactly("3");
+		assertThat(second.next()).isNull();
+	}
+
+	@Test
+	void selectedFieldsArePushedIntoSql() {
+		KeysetPage page = service.page(null, 10, "equipe, dpanef");
+
+		assertThat(page.items()).containsExactly(
+				Map.of("equipe", "Equipe 01", "dpanef", "Kénitra"),
+				Map.of("equipe", "Equipe 01", "dpanef", "Kénitra"),
+				Map.of("equipe", "Equipe 02", "dpanef", "Rabat"));
+		assertThat(page.items().getFirst().keySet()).containsExactly("equipe", "dpanef");
+
+		String select = Sql.statements.stream().filter(s -> s.contains("ifn_programme")).findFirst().orElseThrow();
+		String columns = select.substring(0, select.indexOf(" from ")).toLowerCase();
+		assertThat(columns).contains("num_placette", "equipe", "dpanef")
+				.doesNotContain("x_centre", "strate_cartographique", "altitude");
+	}
+
+	@Test
+	void unknownFieldIsRejected() {
+		assertThatThrownBy(() -> service.page(null, 10, "equipe,motDePasse"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Champ inconnu : motDePasse");
+	}
+}
@@ -0,0 +1,51 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@H2DataJpaTest
+class MeteredJdbcTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private SimpleMeterRegistry registry;
+	private MeteredJdbc metered;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		metered = new MeteredJdbc(jdbc, registry, 500);
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('1', 'Equipe 01', -6.5, 34.2)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('2', 'Equipe 01', -6.4, 34.3)");
+	}
+
+	@Test
+	void queriesAreTimedAndCountedByName() {
+		metered.queryForList("programme", "SELECT num_placette FROM ifn_programme");
+		metered.queryForList("programme", "SELECT num_placette FROM ifn_programme WHERE num_placette = ?", "1");
+		Long count = metered.queryForObject("programme.count", "SELECT COUNT(*) FROM ifn_programme", Long.class);
+
+		assertThat(count).isEqualTo(2L);
+		assertThat(registry.get("db.query").tags("query", "programme", "outcome", "success").timer().count()).isEqualTo(2);
+		assertThat(registry.get("db.query.rows").tag("query", "programme").summary().totalAmount()).isEqualTo(3);
+		assertThat(registry.get("db.query.rows").tag("query", "programme.count").summary().totalAmount()).isEqualTo(1);
+	}
+
+	@Test
+	void failedQueryIsTimedAsError() {
+		assertThatThrownBy(() -> metered.queryForList("broken", "SELECT * FROM no_such_table"))
+				.isInstanceOf(DataAccessException.class);
+
+		assertThat(registry.get("db.query").tags("query", "broken", "outcome", "error").timer().count()).isEqualTo(1);
+		assertThat(registry.find("db.query.rows").tag("query", "broken").summary()).isNull();
+	}
+}
@@ -0,0 +1,146 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import com.ifn.entity.IfnProgramme;
+import com.ifn.repository.IfnProgrammeRepository;
+import com.ifn.repository.PlacetteSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The bitmap index and the JPA Specification must select the same placettes.
+ */
+@H2DataJpaTest
+class PlacetteSearchTests {
+
+	@Autowired
+	private IfnProgrammeRepository programmes;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final TaskScheduler scheduler = mock(TaskScheduler.class);
+	private DataVersionService dataVersion;
+	private PlacetteStatusService statuses;
+	private PlacetteBitmapIndex index;
+
+	@BeforeEach
+	void setUp() {
+		placette("1", "Kénitra", "Equipe 01", "QsH", -6.5, 34.2);
+		placette("2", "Kénitra", "Equipe 01", "Pp",  -6.4, 34.3);
+		placette("3", "Kénitra", "Equipe 02", "QsH", -5.9, 33.9);
+		placette("4", "Rabat",   "Equipe 02", "QsH", -6.8, 34.0);
+		visit("2");
+		visit("3C");
+		dataVersion = new DataVersionService(event -> {}, null);
+		statuses = new PlacetteStatusService(jdbc, dataVersion);
+		index = new PlacetteBitmapIndex(programmes, statuses, dataVersion, scheduler, true);
+		index.rebuild();
+	}
+
+	private void placette(String num, String dpanef, String equipe, String strate, double x, double y) {
+		IfnProgramme p = new IfnProgramme();
+		p.setNumPlacette(num);
+		p.setDpanef(dpanef);
+		p.setEquipe(equipe);
+		p.setStrateCartographique(strate);
+		p.setXCentre(x);
+		p.setYCentre(y);
+		programmes.save(p);
+	}
+
+	// plot_kind / plot_no_base are generated columns in PostgreSQL (add_plot_kind.sql)
+	private void visit(String plotNo) {
+		String base = ControlComparisonService.plotNoBase(plotNo);
+		String kind = plotNo.equals(base) ? "R" : plotNo.substring(base.length());
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind) VALUES (?, ?, ?)", plotNo, base, kind);
+	}
+
+	private List<String> viaIndex(PlacetteFilter f) {
+		return index.query(f).orElseThrow().stream().map(IfnProgramme::getNumPlacette).toList();
+	}
+
+	private List<String> viaSpecification(PlacetteFilter f) {
+		return programmes.findAll(PlacetteSpecifications.of(f)).stream()
+				.map(IfnProgramme::getNumPlacette).sorted().toList();
+	}
+
+	@Test
+	void criteriaAreCombined() {
+		PlacetteFilter f = PlacetteFilter.of("Kénitra", null, null, "QsH", null, null, null, null);
+		assertThat(viaIndex(f)).containsExactly("1", "3");
+		assertThat(viaSpecification(f)).containsExactly("1", "3");
+	}
+
+	@Test
+	void bboxAndStatut() {
+		PlacetteFilter box = PlacetteFilter.of(null, null, null, null, null, null, "-6.6,34.1,-6.3,34.4", null);
+		assertThat(viaIndex(box)).containsExactly("1", "2");
+		assertThat(viaSpecification(box)).containsExactly("1", "2");
+
+		for (String statut : List.of("programmee", "visitee", "controle")) {
+			PlacetteFilter f = PlacetteFilter.of(null, null, null, null, null, null, null, statut);
+			assertThat(viaIndex(f)).isEqualTo(viaSpecification(f));
+		}
+		assertThat(viaIndex(PlacetteFilter.of(null, null, null, null, null, null, null, "controle")))
+				.containsExactly("3");
+	}
+
+	@Test
+	void statutFollowsThePlacetteStatusService() {
+		// A service control alone: plot_kind 'CS', no regular visit
+		visit("4CS");
+		dataVersion.bump();
+		index.rebuild();
+		for (String statut : List.of("programmee", "visitee", "controle")) {
+			PlacetteFilter f = PlacetteFilter.of(null, null, null, null, null, null, null, statut);
+			List<String> expected = List.of("1", "2", "3", "4").stream()
+					.filter(num -> statut.equals(statuses.current().containsKey(num)
+							? statuses.current().get(num).statut() : PlacetteFilter.PROGRAMMEE))
+					.toList();
+			assertThat(viaIndex(f)).isEqualTo(expected);
+			assertThat(viaSpecification(f)).isEqualTo(expected);
+		}
+		assertThat(viaIndex(PlacetteFilter.of(null, null, null, null, null, null, null, "controle")))
+				.containsExactly("3", "4");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void facetsIgnoreTheirOwnCriterion() {
+		PlacetteFilter f = PlacetteFilter.of("Kénitra", null, null, "QsH", null, null, null, null);
+		Map<String, Object> result = index.facets(f).orElseThrow();
+		Map<String, Map<String, Integer>> facets = (Map<String, Map<String, Integer>>) result.get("facets");
+
+		assertThat(result.get("total")).isEqualTo(2);
+		assertThat(facets.get("dpanef")).containsEntry("Kénitra", 2).containsEntry("Rabat", 1);
+		assertThat(facets.get("strate_cartographique")).containsEntry("QsH", 2).containsEntry("Pp", 1);
+		assertThat(facets.get("statut")).containsEntry("programmee", 1).containsEntry("controle", 1);
+	}
+
+	@Test
+	void databaseAnswersUntilTheIndexIsRebuilt() {
+		PlacetteFilter all = PlacetteFilter.of(null, null, null, null, null, null, null, null);
+		placette("5", "Rabat", "Equipe 02", "Pp", -6.9, 34.0);
+		dataVersion.bump();
+
+		// The previous snapshot would miss placette 5 under the new version
+		assertThat(index.query(all)).isEmpty();
+		verify(scheduler).schedule(any(Runnable.class), any(Instant.class));
+
+		index.rebuild();
+		assertThat(viaIndex(all)).containsExactly("1", "2", "3", "4", "5");
+	}
+}
@@ -0,0 +1,96 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import com.ifn.validation.CentreInDranefRule;
+import com.ifn.validation.DateConsistencyRule;
+import com.ifn.validation.DistanceToProgrammeRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2DataJpaTest
+@SuppressWarnings("unchecked")
+class PlotValidationServiceTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private PlotValidationService service;
+
+	@BeforeEach
+	void setUp() {
+		// Imported programmes may lack coordinates even though the entity requires them
+		jdbc.execute("ALTER TABLE ifn_programme ALTER COLUMN x_centre SET NULL");
+		jdbc.execute("ALTER TABLE ifn_programme ALTER COLUMN y_centre SET NULL");
+
+		placette("1", -6.50, 34.20);
+		placette("2", -6.00, 34.00);
+		plot("1", -6.5005, 34.2005, 2026, 3, 10, 2026, 3, 10);   // ~70 m away, dates fine
+		plot("2", -6.0100, 34.0000, 2026, 3, 12, 2026, 3, 11);   // ~920 m away, ends before it starts
+		plot("9", -2.0000, 30.0000, 2026, 2, 30, 0, 0, 0);       // outside the programme and the DRANEF, no Feb 30
+
+		service = new PlotValidationService(jdbc, List.of(
+				new CentreInDranefRule(0.05), new DistanceToProgrammeRule(100), new DateConsistencyRule()));
+	}
+
+	private void placette(String num, double x, double y) {
+		jdbc.update("INSERT INTO ifn_programme (num_placette, dranef, x_centre, y_centre) VALUES (?, 'Rabat', ?, ?)", num, x, y);
+	}
+
+	private void plot(String plotNo, double x, double y, int sy, int sm, int sd, int ey, int em, int ed) {
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind, plot_dranef, plot_coordinate_center_x, plot_coordinate_center_y, " +
+				"plot_date_start_year, plot_date_start_month, plot_date_start_day, plot_date_end_year, plot_date_end_month, plot_date_end_day) " +
+				"VALUES (?, ?, 'R', 'Rabat', ?, ?, ?, ?, ?, ?, ?, ?)",
+				plotNo, plotNo, x, y, sy, sm, sd, ey == 0 ? null : ey, em == 0 ? null : em, ed == 0 ? null : ed);
+	}
+
+	private List<String> violations(String plotNo) {
+		return jdbc.queryForList("SELECT rule FROM plot_validation WHERE plot_no = ? ORDER BY rule", String.class, plotNo);
+	}
+
+	@Test
+	void storesTheViolationsOfEveryRule() {
+		Map<String, Object> result = service.validateAll();
+
+		assertThat(result.get("placettes_validees")).isEqualTo(3);
+		assertThat(result.get("enregistre")).isEqualTo(true);
+		assertThat(violations("1")).isEmpty();
+		assertThat(violations("2")).containsExactly("dates", "distance_centre");
+		assertThat(violations("9")).containsExactly("centre_dranef", "dates", "distance_centre");
+
+		Map<String, Object> report = service.report("distance_centre", "erreur", null, null).orElseThrow();
+		assertThat(report.get("total")).isEqualTo(1);
+		assertThat(((List<Map<String, Object>>) report.get("violations")).get(0).get("plot_no")).isEqualTo("2");
+	}
+
+	@Test
+	void revalidatesOnlyTheGivenPlots() {
+		service.validateAll();
+		jdbc.update("UPDATE plot SET plot_date_end_day = 12 WHERE plot_no = '2'");
+		jdbc.update("UPDATE plot SET plot_date_start_day = 1 WHERE plot_no = '9'");
+
+		service.validate(Set.of("2"));
+
+		assertThat(violations("2")).containsExactly("distance_centre");
+		assertThat(violations("9")).contains("dates");   // not re-validated
+	}
+
+	@Test
+	void programmedPlacetteWithoutCentreIsIgnored() {
+		// Would stretch the Rabat envelope to (0, 0), hiding plot 9, and put plot 3 ~7 000 km away
+		jdbc.update("INSERT INTO ifn_programme (num_placette, dranef) VALUES ('3', 'Rabat')");
+		plot("3", -6.2000, 34.1000, 2026, 3, 10, 2026, 3, 10);
+
+		service.validateAll();
+
+		assertThat(violations("3")).isEmpty();
+		assertThat(violations("9")).contains("centre_dranef");
+	}
+}
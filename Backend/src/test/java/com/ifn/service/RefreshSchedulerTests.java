@@ -0,0 +1,109 @@
+package com.ifn.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshSchedulerTests {
+
+	/** A task handed to the scheduler, run only when the test advances the clock past it. */
+	private static final class Task {
+		final long at;
+		final Runnable runnable;
+		boolean cancelled;
+
+		Task(long at, Runnable runnable) {
+			this.at = at;
+			this.runnable = runnable;
+		}
+	}
+
+	// Stubs only what RefreshScheduler uses: getClock() and schedule(Runnable, Instant)
+	private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+	private final List<Task> tasks = new ArrayList<>();
+	private final List<Long> sent = new ArrayList<>();
+	private final List<Long> sentAt = new ArrayList<>();
+	private long now;
+
+	@BeforeEach
+	void setUp() {
+		Clock clock = mock(Clock.class);
+		when(clock.millis()).thenAnswer(inv -> now);
+		when(taskScheduler.getClock()).thenReturn(clock);
+		when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(inv -> {
+			Task task = new Task(inv.<Instant>getArgument(1).toEpochMilli(), inv.getArgument(0));
+			tasks.add(task);
+			ScheduledFuture<?> future = mock(ScheduledFuture.class);
+			when(future.cancel(anyBoolean())).thenAnswer(c -> task.cancelled = true);
+			return future;
+		});
+	}
+
+	/** Runs, in time order, every task due up to t, with the clock set to each task's time. */
+	private void advanceTo(long t) {
+		while (true) {
+			Task next = tasks.stream()
+					.filter(task -> task.at <= t && !task.cancelled)
+					.min(Comparator.comparingLong(task -> task.at))
+					.orElse(null);
+			if (next == null) break;
+			tasks.remove(next);
+			now = Math.max(now, next.at);
+			next.runnable.run();
+		}
+		tasks.removeIf(task -> task.cancelled);
+		now = t;
+	}
+
+	private RefreshScheduler scheduler(long minIntervalMs, long maxDelayMs) {
+		RefreshNotifier notifier = new RefreshNotifier() {
+			@Override
+			public void notifyRefresh(long version) {
+				sent.add(version);
+				sentAt.add(now);
+			}
+		};
+		return new RefreshScheduler(notifier, taskScheduler, minIntervalMs, maxDelayMs);
+	}
+
+	@Test
+	void burstIsCoalescedIntoOneEvent() {
+		RefreshScheduler scheduler = scheduler(100, 1_000);
+		for (int i = 0; i < 10; i++) {
+			advanceTo(i * 5);
+			scheduler.requestRefresh();
+		}
+
+		advanceTo(2_000);
+		assertThat(sent).containsExactly(1L);
+		assertThat(sentAt).containsExactly(145L);     // min-interval after the last request
+		assertThat(scheduler.currentVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	void steadyStreamIsFlushedAtMaxDelay() {
+		RefreshScheduler scheduler = scheduler(100, 300);
+		for (long t = 0; t < 1_000; t += 20) {
+			advanceTo(t);
+			scheduler.requestRefresh();
+		}
+		advanceTo(2_000);
+
+		// Requests every 20 ms never leave a 100 ms gap: each window is cut at max-delay
+		assertThat(sent).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(sentAt).containsExactly(300L, 600L, 900L, 1_080L);
+	}
+}
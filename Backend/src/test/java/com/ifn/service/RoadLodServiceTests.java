@@ -0,0 +1,71 @@
+package com.ifn.service;
+
+import com.ifn.geo.RoadNetwork;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * On the road files actually shipped in static/.
+ */
+class RoadLodServiceTests {
+
+	private final RoadNetwork network = new RoadNetwork(
+			new ClassPathResource("static/road_graph.js"), new ClassPathResource("static/roads_geojson.js"));
+	private final RoadLodService lod = new RoadLodService(network, JsonMapper.builder().build(), 6, 14, 1.0, 100);
+
+	private static long vertices(List<RoadNetwork.Road> roads) {
+		long n = 0;
+		for (RoadNetwork.Road r : roads) for (double[] line : r.lines()) n += line.length / 2;
+		return n;
+	}
+
+	private static Set<String> endpoints(List<RoadNetwork.Road> roads) {
+		Set<String> points = new HashSet<>();
+		for (RoadNetwork.Road r : roads) {
+			for (double[] line : r.lines()) {
+				points.add(line[0] + "," + line[1]);
+				points.add(line[line.length - 2] + "," + line[line.length - 1]);
+			}
+		}
+		return points;
+	}
+
+	@Test
+	void lowZoomsKeepFarFewerVertices() {
+		long full = vertices(network.roads());
+		long z8 = vertices(lod.roads(8));
+		long z12 = vertices(lod.roads(12));
+
+		assertThat(z8).isLessThan(full / 5);
+		assertThat(z12).isBetween(z8, full);
+		assertThat(lod.roads(16)).isSameAs(network.roads());
+	}
+
+	@Test
+	void junctionsSurviveSimplification() {
+		// Every endpoint of a kept line is an endpoint at full resolution, so lines still meet
+		assertThat(endpoints(network.roads())).containsAll(endpoints(lod.roads(8)));
+	}
+
+	@Test
+	void tilesAreEncodedOnceAndCached() {
+		// Zoom 10 tile in the middle of the network (-5.73 to -5.31, 34.11 to 34.74)
+		int x = TileService.tileX(-5.5, 10), y = TileService.tileY(34.4, 10);
+		byte[] mvt = lod.tile(10, x, y, RoadLodService.Format.MVT);
+		assertThat(mvt).isNotEmpty();
+		assertThat(mvt[0]).isEqualTo((byte) 0x1A);   // field 3 (layers), length-delimited
+		assertThat(new String(mvt, java.nio.charset.StandardCharsets.ISO_8859_1)).contains("routes");
+		assertThat(lod.tile(10, x, y, RoadLodService.Format.MVT)).isSameAs(mvt);
+
+		Map<String, Object> geoJson = lod.geoJson(new double[]{-5.6, 34.3, -5.4, 34.5}, 10);
+		assertThat((List<?>) geoJson.get("features")).isNotEmpty();
+	}
+}
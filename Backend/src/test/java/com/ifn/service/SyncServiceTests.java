@@ -0,0 +1,136 @@
+package com.ifn.service;
+
+import com.ifn.H2DataJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2DataJpaTest
+class SyncServiceTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private SyncService sync;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("DELETE FROM sync_change_log");
+		// Stands in for pg_snapshot_xmin(pg_current_snapshot())
+		jdbc.execute("CREATE TABLE IF NOT EXISTS test_snapshot (xmin BIGINT)");
+		jdbc.update("DELETE FROM test_snapshot");
+
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('1', 'Equipe 01', -6.5, 34.2)");
+		jdbc.update("INSERT INTO ifn_programme (num_placette, equipe, x_centre, y_centre) VALUES ('2', 'Equipe 01', -6.4, 34.3)");
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind) VALUES ('1', '1', 'R')");
+
+		sync = new SyncService(jdbc, new PlacetteStatusService(jdbc, new DataVersionService(event -> {}, null)),
+				"SELECT MAX(xmin) FROM test_snapshot", 30);
+	}
+
+	/** Log entry written by transaction xid an hour ago. */
+	private void log(String entity, String key, String op, long xid) {
+		log(entity, key, op, xid, Instant.now().minus(1, ChronoUnit.HOURS));
+	}
+
+	private void log(String entity, String key, String op, long xid, Instant at) {
+		jdbc.update("INSERT INTO sync_change_log (entity, entity_key, op, changed_at, xid) VALUES (?, ?, ?, ?, ?)",
+				entity, key, op, Timestamp.from(at), xid);
+	}
+
+	/** Oldest transaction still running when the next sync reads. */
+	private void snapshot(long xmin) {
+		jdbc.update("INSERT INTO test_snapshot (xmin) VALUES (?)", xmin);
+	}
+
+	private static List<Object> column(Object table, String name) {
+		SyncService.Table t = (SyncService.Table) table;
+		int i = t.colonnes().indexOf(name);
+		return t.lignes().stream().map(r -> r[i]).toList();
+	}
+
+	@Test
+	void firstSyncIsComplete() {
+		log("placette", "1", "U", 10);
+		log("placette", "2", "U", 10);
+		log("plot", "1", "U", 11);
+		snapshot(12);
+
+		Map<String, Object> full = sync.changes(0).orElseThrow();
+		assertThat(full.get("complet")).isEqualTo(true);
+		assertThat(full.get("version")).isEqualTo(12L);
+		assertThat(column(full.get("placettes"), "num_placette")).containsExactly("1", "2");
+		assertThat(column(full.get("plots"), "plot_no")).containsExactly("1");
+		assertThat(column(full.get("statuts"), "statut")).containsExactly(PlacetteFilter.VISITEE);
+	}
+
+	@Test
+	void deltaCoalescesPerKeyAndCarriesTombstones() {
+		log("plot", "1", "U", 10);
+
+		// Re-import of plot 1 (delete + insert), new control 1C, placette 2 removed
+		jdbc.update("INSERT INTO plot (plot_no, plot_no_base, plot_kind) VALUES ('1C', '1', 'C')");
+		jdbc.update("DELETE FROM ifn_programme WHERE num_placette = '2'");
+		log("plot", "1", "D", 11);
+		log("plot", "1", "U", 11);
+		log("plot", "1C", "U", 11);
+		log("placette", "2", "D", 12);
+		snapshot(13);
+
+		Map<String, Object> delta = sync.changes(11).orElseThrow();
+		assertThat(delta.get("complet")).isEqualTo(false);
+		assertThat(delta.get("version")).isEqualTo(13L);
+		assertThat(delta.get("nb_changements")).isEqualTo(4);
+		assertThat(column(delta.get("plots"), "plot_no")).containsExactly("1", "1C");
+		assertThat(column(delta.get("placettes"), "num_placette")).isEmpty();
+		assertThat(column(delta.get("statuts"), "statut")).containsExactly(PlacetteFilter.CONTROLE);
+		assertThat(((Map<?, ?>) delta.get("supprimes")).get("placette")).isEqualTo(List.of("2"));
+	}
+
+	@Test
+	void transactionCommittingLateIsNotSkipped() {
+		log("plot", "1", "U", 10);
+		snapshot(20);
+		long since = (Long) sync.changes(0).orElseThrow().get("version");
+
+		// Transaction 20 took seq 100 and was still running; 21 took seq 101 and committed first
+		jdbc.update("INSERT INTO sync_change_log (seq, entity, entity_key, op, xid) VALUES (101, 'placette', '1', 'U', 21)");
+		snapshot(20);
+		Map<String, Object> first = sync.changes(since).orElseThrow();
+		assertThat(column(first.get("placettes"), "num_placette")).containsExactly("1");
+		assertThat(first.get("version")).isEqualTo(20L);
+
+		// 20 commits afterwards, with a lower seq and an older changed_at than 21's entry
+		jdbc.update("INSERT INTO sync_change_log (seq, entity, entity_key, op, changed_at, xid) VALUES (100, 'placette', '2', 'U', ?, 20)",
+				Timestamp.from(Instant.now().minus(1, ChronoUnit.MINUTES)));
+		snapshot(22);
+		Map<String, Object> second = sync.changes((Long) first.get("version")).orElseThrow();
+		assertThat(second.get("complet")).isEqualTo(false);
+		assertThat(column(second.get("placettes"), "num_placette")).containsExactly("1", "2");
+		assertThat(second.get("version")).isEqualTo(22L);
+	}
+
+	@Test
+	void versionOutsideTheRetentionWindowGetsAFullDownload() {
+		log("plot", "1", "U", 10, Instant.now().minus(40, ChronoUnit.DAYS));
+		log("placette", "1", "U", 11, Instant.now().minus(35, ChronoUnit.DAYS));
+		log("placette", "2", "U", 12, Instant.now().minus(1, ChronoUnit.DAYS));
+		snapshot(13);
+
+		// Entries of the newest expired transaction are kept
+		assertThat(sync.purge()).isEqualTo(1);
+		assertThat(sync.changes(10).orElseThrow().get("complet")).isEqualTo(true);
+		assertThat(sync.changes(11).orElseThrow().get("complet")).isEqualTo(false);
+		// Newer than any snapshot of this database
+		assertThat(sync.changes(14).orElseThrow().get("complet")).isEqualTo(true);
+	}
+}
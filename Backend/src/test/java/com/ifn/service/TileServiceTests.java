@@ -0,0 +1,181 @@
+package com.ifn.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Against a local stub tile server: z/x/y.png answers a PNG-signed body of tileBytes bytes
+ * after upstreamDelayMs, except z = 0 which is a 404.
+ */
+class TileServiceTests {
+
+	@TempDir
+	Path cacheDir;
+
+	private HttpServer upstream;
+	private final AtomicInteger upstreamRequests = new AtomicInteger();
+	private volatile int tileBytes = 100;
+	private volatile long upstreamDelayMs = 0;
+
+	@BeforeEach
+	void startUpstream() throws Exception {
+		upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		upstream.setExecutor(Executors.newCachedThreadPool());
+		upstream.createContext("/", exchange -> {
+			upstreamRequests.incrementAndGet();
+			try {
+				Thread.sleep(upstreamDelayMs);
+			} catch (InterruptedException ignored) {
+			}
+			if (exchange.getRequestURI().getPath().startsWith("/0/")) {
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+			byte[] body = new byte[tileBytes];
+			body[0] = (byte) 0x89;
+			body[1] = 'P';
+			body[2] = 'N';
+			body[3] = 'G';
+			exchange.getResponseHeaders().add("Content-Type", "image/png");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		upstream.start();
+	}
+
+	@AfterEach
+	void stopUpstream() {
+		upstream.stop(0);
+	}
+
+	private TileService service(long maxSizeMb) {
+		return service(maxSizeMb, Set.of("stub"));
+	}
+
+	private TileService service(long maxSizeMb, Set<String> seedable) {
+		String url = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/{z}/{x}/{y}.png";
+		return new TileService(null, new TileService.TileSources(Map.of("stub", url), seedable),
+				cacheDir, maxSizeMb, 19, 1000, 2000, 2, 4, "test");
+	}
+
+	@Test
+	void missIsFetchedOnceThenServedFromTheCache() {
+		TileService tiles = service(10);
+
+		TileService.Tile first = tiles.tile("stub", 12, 2000, 1600).orElseThrow();
+		TileService.Tile second = tiles.tile("stub", 12, 2000, 1600).orElseThrow();
+
+		assertThat(first.cached()).isFalse();
+		assertThat(second.cached()).isTrue();
+		assertThat(second.contentType()).isEqualTo("image/png");
+		assertThat(second.data()).isEqualTo(first.data());
+		assertThat(upstreamRequests.get()).isEqualTo(1);
+
+		assertThat(tiles.tile("stub", 0, 0, 0)).isEmpty();   // upstream 404, not cached
+		assertThat(tiles.tile("stub", 0, 0, 0)).isEmpty();
+		assertThat(upstreamRequests.get()).isEqualTo(3);
+		tiles.close();
+	}
+
+	@Test
+	void concurrentMissesShareOneUpstreamRequest() throws Exception {
+		TileService tiles = service(10);
+		upstreamDelayMs = 300;
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<TileService.Tile>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return tiles.tile("stub", 14, 8000, 6500).orElseThrow();
+			}));
+		}
+		start.countDown();
+		for (Future<TileService.Tile> f : results) assertThat(f.get(10, TimeUnit.SECONDS).data()).hasSize(100);
+		pool.shutdown();
+
+		assertThat(upstreamRequests.get()).isEqualTo(1);
+		tiles.close();
+	}
+
+	@Test
+	void leastRecentlyUsedTilesAreEvictedAboveTheSizeLimit() {
+		TileService tiles = service(1);
+		tileBytes = 300 * 1024;
+
+		for (int x = 0; x < 4; x++) tiles.tile("stub", 10, x, 0);   // 1.2 MB > 1 MB
+
+		Map<String, Object> stats = tiles.stats().get(0);
+		assertThat((Long) stats.get("taille_octets")).isLessThanOrEqualTo(1024 * 1024 * 9 / 10);
+		assertThat(stats.get("evictions")).isEqualTo(1L);   // 900 KB left, under 90 % of the limit
+		assertThat(tiles.tile("stub", 10, 1, 0).orElseThrow().cached()).isTrue();
+		assertThat(tiles.tile("stub", 10, 3, 0).orElseThrow().cached()).isTrue();
+		assertThat(tiles.tile("stub", 10, 0, 0).orElseThrow().cached()).isFalse();
+		tiles.close();
+	}
+
+	@Test
+	void seedingPrefetchesEveryTileOfTheBbox() throws Exception {
+		TileService tiles = service(10);
+		double[] kenitra = {-6.7, 34.1, -6.4, 34.4};
+
+		TileService.SeedJob job = tiles.seed("stub", kenitra, 8, 11);
+		while (job.state().equals("en_cours")) Thread.sleep(20);
+		Map<String, Object> progress = job.toMap();
+		assertThat(progress.get("etat")).isEqualTo("termine");
+		assertThat(progress.get("telechargees")).isEqualTo(progress.get("total"));
+		assertThat(upstreamRequests.get()).isEqualTo(((Long) progress.get("total")).intValue());
+
+		TileService.SeedJob again = tiles.seed("stub", kenitra, 8, 11);
+		while (again.state().equals("en_cours")) Thread.sleep(20);
+		assertThat(again.toMap().get("deja_en_cache")).isEqualTo(progress.get("total"));
+		tiles.close();
+	}
+
+	@Test
+	void onlyTheLastFinishedJobsAreKept() throws Exception {
+		TileService tiles = service(10);
+		double[] kenitra = {-6.7, 34.1, -6.4, 34.4};
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			TileService.SeedJob job = tiles.seed("stub", kenitra, 8, 8);
+			while (job.toMap().get("fin") == null) Thread.sleep(20);
+			ids.add(job.id());
+		}
+		assertThat(tiles.jobs()).extracting(TileService.SeedJob::id).containsExactly(ids.get(1), ids.get(2), ids.get(3));
+		assertThat(tiles.job(ids.get(0))).isEmpty();
+		tiles.close();
+	}
+
+	@Test
+	void sourceNotFlaggedSeedableCannotBeSeeded() {
+		TileService tiles = service(10, Set.of());
+
+		assertThatThrownBy(() -> tiles.seed("stub", new double[]{-6.7, 34.1, -6.4, 34.4}, 8, 11))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Préchargement non autorisé pour la source stub");
+		assertThat(tiles.stats().get(0).get("prechargeable")).isEqualTo(false);
+		assertThat(upstreamRequests.get()).isZero();
+		assertThat(tiles.jobs()).isEmpty();
+		tiles.close();
+	}
+}
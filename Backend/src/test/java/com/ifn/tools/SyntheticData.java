@@ -0,0 +1,365 @@
+package com.ifn.tools;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic IFN campaign at any scale, shaped like the RSK programme: ifn_programme placettes
+ * grouped by equipe, the plots surveyed so far (with inter-team 'C' and service 'CS' controls),
+ * their trees, and Collect-style ZIP exports that /api/import/zip accepts.
+ *
+ * Every row is a pure function of (seed, placette index), so a range can be regenerated
+ * without keeping the campaign in memory and two runs with the same options are identical.
+ *
+ * Test code only: the benchmarks project gets it from the test jar (mvn -Pbenchmarks install).
+ *
+ * Command line (writes ifn_programme.csv, plot.csv and tree.csv for COPY, plus one Collect
+ * ZIP per zip-plots placettes under collect/):
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ifn.tools.SyntheticData \
+ *       -Dexec.args="--plots=100000 --seed=42 --out=target/synthetic --zip-plots=10000"
+ */
+public final class SyntheticData {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticData.class);
+
+    /**
+     * @param visited        share of placettes already surveyed
+     * @param controls       share of surveyed placettes with an inter-team control (C)
+     * @param serviceControls share of surveyed placettes with a service control (CS)
+     */
+    public record Options(int plots, long seed, double visited, double controls, double serviceControls,
+                          int treesPerPlot, int plotsPerEquipe, LocalDate start, int days) {
+
+        public static Options of(int plots) {
+            return new Options(plots, 42, 0.6, 0.05, 0.02, 12, 90, LocalDate.of(2026, 1, 12), 60);
+        }
+
+        public Options withSeed(long seed) {
+            return new Options(plots, seed, visited, controls, serviceControls, treesPerPlot, plotsPerEquipe, start, days);
+        }
+
+        public int equipes() {
+            return Math.max(1, (plots + plotsPerEquipe - 1) / plotsPerEquipe);
+        }
+    }
+
+    public static final List<String> PROGRAMME_COLUMNS = List.of(
+        "num_placette", "x_centre", "y_centre", "x_repere", "y_repere", "distance_repere", "azimut_repere",
+        "description_repere", "dranef", "dpanef", "equipe", "altitude", "exposition", "pente",
+        "strate_cartographique", "essence_group", "essence_abr"
+    );
+
+    public static final List<String> PLOT_COLUMNS = List.of(
+        "plot_no", "plot_coordinate_center_x", "plot_coordinate_center_y",
+        "plot_coordinate_acces_x", "plot_coordinate_acces_y", "plot_repere_coord_x", "plot_repere_coord_y",
+        "plot_distance_centre", "plot_azimut_centre",
+        "donnees_topographiques_plot_elevation", "donnees_topographiques_plot_pente",
+        "donnees_topographiques_plot_topo_exposition", "plot_stratum", "strate_terrain_essence",
+        "plot_accessibilite", "plot_accessibility_a_pied", "plot_center", "plot_dranef", "plot_dpanef",
+        "plot_date_start_year", "plot_date_start_month", "plot_date_start_day",
+        "plot_date_end_year", "plot_date_end_month", "plot_date_end_day", "plot_valide", "country_code"
+    );
+
+    /** PLOT_COLUMNS plus date_modified, which Collect exports leave to the database. */
+    public static final List<String> PLOT_DB_COLUMNS = append(PLOT_COLUMNS, "date_modified");
+
+    public static final List<String> TREE_COLUMNS = List.of(
+        "plot_plot_no", "tree_no", "tree_species_code", "tree_dbh", "tree_height"
+    );
+
+    // Campaign area (RSK and neighbouring DRANEF), one band of longitude per DRANEF
+    private static final double MIN_LON = -7.0, MAX_LON = -5.3, MIN_LAT = 33.5, MAX_LAT = 35.0;
+    private static final String[][] DRANEFS = {
+        {"Rabat-Salé-Kénitra", "Kénitra", "Sidi Kacem", "Sidi Slimane", "Khémisset", "Rabat"},
+        {"Tanger-Tétouan-Al Hoceima", "Larache", "Ouezzane", "Chefchaouen", "Tétouan"},
+        {"Fès-Meknès", "Meknès", "Ifrane", "Taza", "Sefrou"},
+    };
+    // {essence_abr / strate_terrain_essence, essence_group, typical dbh cm, typical height m}
+    private static final String[][] ESSENCES = {
+        {"Cl", "Chênes", "38", "11"}, {"Cv", "Chênes", "26", "8"}, {"Eu", "Eucalyptus", "22", "18"},
+        {"Pm", "Résineux", "30", "14"}, {"Ta", "Résineux", "18", "6"}, {"Ce", "Résineux", "45", "22"},
+        {"Mat", "Matorral", "8", "3"},
+    };
+    private static final double[] ESSENCE_WEIGHTS = {0.30, 0.12, 0.22, 0.12, 0.12, 0.04, 0.08};
+
+    private final Options options;
+
+    public SyntheticData(Options options) {
+        this.options = options;
+    }
+
+    public Options options() {
+        return options;
+    }
+
+    // ─── Rows ─────────────────────────────────────────────────────────────────
+
+    public static String numPlacette(int i) {
+        return String.format("2%011d", 6_000_000_000L + i);
+    }
+
+    /** The ifn_programme row of placette i, in PROGRAMME_COLUMNS order. */
+    public Object[] programme(int i) {
+        Placette p = placette(i);
+        SplittableRandom r = random(i, 1);
+        double distance = 20 + r.nextDouble() * 60;
+        double azimut = r.nextDouble() * 400;
+        return new Object[]{
+            p.num, p.lon, p.lat, round6(p.lon - 0.0004), round6(p.lat - 0.0003), round1(distance), round1(azimut),
+            r.nextBoolean() ? "Borne forestière" : "Angle de piste", p.dranef, p.dpanef, p.equipe,
+            p.altitude, p.exposition, p.pente, p.essence[0] + (1 + r.nextInt(4)), p.essence[1], p.essence[0]
+        };
+    }
+
+    /** Surveyed plot rows of placette i in PLOT_DB_COLUMNS order: none, R, or R with C / CS controls. */
+    public List<Object[]> plots(int i) {
+        Placette p = placette(i);
+        if (!p.visited) return List.of();
+        SplittableRandom r = random(i, 2);
+        List<Object[]> rows = new ArrayList<>(3);
+        rows.add(plot(p, "", p.visitedAt, r));
+        if (r.nextDouble() < options.controls()) {
+            rows.add(plot(p, "C", p.visitedAt.plusDays(3 + r.nextInt(20)).plusHours(1), r));
+        }
+        if (r.nextDouble() < options.serviceControls()) {
+            rows.add(plot(p, "CS", p.visitedAt.plusDays(5 + r.nextInt(30)).plusHours(2), r));
+        }
+        return rows;
+    }
+
+    /** Tree rows of one plot row of placette i (controls re-measure the same trees). */
+    public List<Object[]> trees(int i, String plotNo) {
+        Placette p = placette(i);
+        SplittableRandom same = random(i, 3);
+        SplittableRandom noise = new SplittableRandom(plotNo.hashCode() * 31L + options.seed());
+        int n = "Mat".equals(p.essence[0]) ? 0 : 1 + same.nextInt(options.treesPerPlot() * 2);
+        double dbh = Double.parseDouble(p.essence[2]);
+        double height = Double.parseDouble(p.essence[3]);
+        List<Object[]> rows = new ArrayList<>(n);
+        for (int t = 1; t <= n; t++) {
+            double d = Math.max(7.5, dbh * (0.5 + same.nextDouble()));
+            double h = Math.max(1.5, height * (0.6 + 0.4 * d / dbh) * (0.9 + 0.2 * same.nextDouble()));
+            rows.add(new Object[]{
+                plotNo, t, p.essence[0],
+                round1(d * (0.97 + 0.06 * noise.nextDouble())), round1(h * (0.95 + 0.1 * noise.nextDouble()))
+            });
+        }
+        return rows;
+    }
+
+    private Object[] plot(Placette p, String suffix, LocalDateTime at, SplittableRandom r) {
+        LocalDateTime end = at.plusMinutes(40 + r.nextInt(150));
+        boolean accessible = r.nextDouble() < 0.9;
+        // GPS error of a few metres around the programmed centre
+        double lon = round6(p.lon + (r.nextDouble() - 0.5) * 0.0002);
+        double lat = round6(p.lat + (r.nextDouble() - 0.5) * 0.0002);
+        return new Object[]{
+            p.num + suffix, lon, lat, round6(lon - 0.002), round6(lat - 0.0015), round6(p.lon - 0.0004), round6(p.lat - 0.0003),
+            round1(20 + r.nextDouble() * 60), r.nextInt(400),
+            p.altitude + r.nextInt(-10, 11), p.pente + r.nextInt(-3, 4) * 1.0, p.exposition,
+            p.essence[0] + (1 + r.nextInt(4)), p.essence[0],
+            accessible ? 1 : 0, accessible ? r.nextInt(3) : 0, accessible, p.dranef, p.dpanef,
+            at.getYear(), at.getMonthValue(), at.getDayOfMonth(),
+            end.getYear(), end.getMonthValue(), end.getDayOfMonth(),
+            r.nextDouble() < 0.95, 504,
+            Timestamp.valueOf(end)
+        };
+    }
+
+    private record Placette(String num, double lon, double lat, String dranef, String dpanef, String equipe,
+                            int altitude, int exposition, int pente, String[] essence,
+                            boolean visited, LocalDateTime visitedAt) {}
+
+    private Placette placette(int i) {
+        SplittableRandom r = random(i, 0);
+        int equipes = options.equipes();
+        int equipe = i % equipes;
+
+        // Each equipe works a cell of an equipes-wide grid over the campaign area
+        int cols = (int) Math.ceil(Math.sqrt(equipes));
+        int rows = (equipes + cols - 1) / cols;
+        double cellW = (MAX_LON - MIN_LON) / cols, cellH = (MAX_LAT - MIN_LAT) / rows;
+        double lon = MIN_LON + (equipe % cols + r.nextDouble()) * cellW;
+        double lat = MIN_LAT + (equipe / cols + r.nextDouble()) * cellH;
+
+        String[] dranef = DRANEFS[Math.min(DRANEFS.length - 1, (int) ((lon - MIN_LON) / (MAX_LON - MIN_LON) * DRANEFS.length))];
+        String dpanef = dranef[1 + (int) ((lat - MIN_LAT) / (MAX_LAT - MIN_LAT) * (dranef.length - 1) * 0.999)];
+
+        double pick = r.nextDouble();
+        int e = 0;
+        for (double acc = ESSENCE_WEIGHTS[0]; e < ESSENCES.length - 1 && pick > acc; acc += ESSENCE_WEIGHTS[++e]) {}
+
+        boolean visited = r.nextDouble() < options.visited();
+        // Equipes survey on working days, earlier placettes of their list first
+        int day = (int) Math.min(options.days() - 1, (long) (i / equipes) * options.days() / Math.max(1, options.plotsPerEquipe()));
+        LocalDate date = options.start().plusDays(day + day / 5 * 2);
+        LocalDateTime at = date.atTime(8 + r.nextInt(8), r.nextInt(60), r.nextInt(60));
+
+        return new Placette(numPlacette(i), round6(lon), round6(lat), dranef[0], dpanef,
+                String.format("Equipe N°%02d", equipe + 1), 20 + r.nextInt(1800), r.nextInt(360), r.nextInt(60),
+                ESSENCES[e], visited, at);
+    }
+
+    private SplittableRandom random(int i, int stream) {
+        return new SplittableRandom(options.seed() * 0x9E3779B97F4A7C15L + i * 4L + stream);
+    }
+
+    // ─── Streams ──────────────────────────────────────────────────────────────
+
+    public void forEachProgramme(Consumer<Object[]> sink) {
+        for (int i = 0; i < options.plots(); i++) sink.accept(programme(i));
+    }
+
+    /** Plot rows of placettes [from, to). */
+    public void forEachPlot(int from, int to, Consumer<Object[]> sink) {
+        for (int i = from; i < to; i++) plots(i).forEach(sink);
+    }
+
+    /** Tree rows of the plots of placettes [from, to). */
+    public void forEachTree(int from, int to, Consumer<Object[]> sink) {
+        for (int i = from; i < to; i++) {
+            for (Object[] plot : plots(i)) trees(i, (String) plot[0]).forEach(sink);
+        }
+    }
+
+    // ─── Sinks ────────────────────────────────────────────────────────────────
+
+    /** Inserts the whole campaign through batched INSERTs; ifn_programme, plot and tree must exist. */
+    public void insert(JdbcTemplate jdbc) {
+        insert(jdbc, "ifn_programme", PROGRAMME_COLUMNS, this::forEachProgramme);
+        insert(jdbc, "plot", PLOT_DB_COLUMNS, sink -> forEachPlot(0, options.plots(), sink));
+        insert(jdbc, "tree", TREE_COLUMNS, sink -> forEachTree(0, options.plots(), sink));
+    }
+
+    private static void insert(JdbcTemplate jdbc, String table, List<String> columns, Consumer<Consumer<Object[]>> rows) {
+        String sql = "INSERT INTO " + table + " (" + String.join(",", columns) + ") VALUES ("
+                + String.join(",", Collections.nCopies(columns.size(), "?")) + ")";
+        List<Object[]> batch = new ArrayList<>(5000);
+        rows.accept(row -> {
+            batch.add(row);
+            if (batch.size() == 5000) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) jdbc.batchUpdate(sql, batch);
+    }
+
+    /** Collect export of placettes [from, to): plot.csv and tree.csv, as ImportService reads them. */
+    public byte[] collectZip(int from, int to) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeCollectZip(bytes, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeCollectZip(OutputStream out, int from, int to) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("plot.csv"));
+            writeCsv(zip, PLOT_COLUMNS, sink -> forEachPlot(from, to, sink));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("tree.csv"));
+            writeCsv(zip, TREE_COLUMNS, sink -> forEachTree(from, to, sink));
+            zip.closeEntry();
+        }
+    }
+
+    /** Rows (longer rows are cut to the header) as CSV; the stream is flushed, not closed. */
+    private static void writeCsv(OutputStream out, List<String> columns, Consumer<Consumer<Object[]>> rows) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(columns.toArray(String[]::new)).build());
+        try {
+            rows.accept(row -> {
+                try {
+                    for (int c = 0; c < columns.size(); c++) printer.print(row[c]);
+                    printer.println();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        printer.flush();
+    }
+
+    public void writeTo(Path dir, int zipPlots) throws IOException {
+        Files.createDirectories(dir.resolve("collect"));
+        try (OutputStream out = Files.newOutputStream(dir.resolve("ifn_programme.csv"))) {
+            writeCsv(out, PROGRAMME_COLUMNS, this::forEachProgramme);
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve("plot.csv"))) {
+            writeCsv(out, PLOT_DB_COLUMNS, sink -> forEachPlot(0, options.plots(), sink));
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve("tree.csv"))) {
+            writeCsv(out, TREE_COLUMNS, sink -> forEachTree(0, options.plots(), sink));
+        }
+        for (int from = 0, n = 1; from < options.plots(); from += zipPlots, n++) {
+            try (OutputStream out = Files.newOutputStream(dir.resolve("collect").resolve(String.format("collect-export-%04d.zip", n)))) {
+                writeCollectZip(out, from, Math.min(options.plots(), from + zipPlots));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plots = 10_000;
+        long seed = 42;
+        Path out = Path.of("target/synthetic");
+        int zipPlots = 10_000;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            switch (kv[0]) {
+                case "plots" -> plots = Integer.parseInt(kv[1]);
+                case "seed" -> seed = Long.parseLong(kv[1]);
+                case "out" -> out = Path.of(kv[1]);
+                case "zip-plots" -> zipPlots = Integer.parseInt(kv[1]);
+                default -> throw new IllegalArgumentException("Option inconnue : " + arg);
+            }
+        }
+        long start = System.currentTimeMillis();
+        new SyntheticData(Options.of(plots).withSeed(seed)).writeTo(out, zipPlots);
+        log.info("{} placettes -> {} ({} ms)", plots, out.toAbsolutePath(), System.currentTimeMillis() - start);
+    }
+
+    // ─── Helpers ──────────────────────────────────────────────────────────────
+
+    private static List<String> append(List<String> list, String item) {
+        List<String> out = new ArrayList<>(list);
+        out.add(item);
+        return List.copyOf(out);
+    }
+
+    private static double round1(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+
+    private static double round6(double v) {
+        return Math.round(v * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ifn.tools;
+
+import com.ifn.H2DataJpaTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2DataJpaTest
+class SyntheticDataTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final SyntheticData data = new SyntheticData(SyntheticData.Options.of(2_000));
+
+	@Test
+	void rowsArePureFunctionsOfSeedAndIndex() {
+		SyntheticData again = new SyntheticData(SyntheticData.Options.of(2_000));
+		assertThat(again.programme(1234)).containsExactly(data.programme(1234));
+		assertThat(again.plots(1234)).usingRecursiveComparison().isEqualTo(data.plots(1234));
+
+		SyntheticData other = new SyntheticData(SyntheticData.Options.of(2_000).withSeed(7));
+		assertThat(other.programme(1234)).isNotEqualTo(data.programme(1234));
+	}
+
+	@Test
+	void campaignHasVisitsControlsAndTrees() {
+		List<String> plotNos = new ArrayList<>();
+		data.forEachPlot(0, 2_000, row -> plotNos.add((String) row[0]));
+		long regular = plotNos.stream().filter(p -> !p.endsWith("C") && !p.endsWith("CS")).count();
+		long controls = plotNos.stream().filter(p -> p.endsWith("C")).count();
+		long serviceControls = plotNos.stream().filter(p -> p.endsWith("CS")).count();
+
+		assertThat(regular).isBetween(1_100L, 1_300L);          // 60 % visited
+		assertThat(controls).isBetween(25L, 100L);               // 5 % of visits
+		assertThat(serviceControls).isBetween(5L, 50L);          // 2 % of visits
+		assertThat(data.options().equipes()).isEqualTo(23);
+
+		// A control re-measures the trees of its placette
+		String control = plotNos.stream().filter(p -> p.endsWith("C")).findFirst().orElseThrow();
+		int i = (int) (Long.parseLong(control.substring(0, control.length() - 1)) - 206_000_000_000L);
+		assertThat(data.trees(i, control)).hasSameSizeAs(data.trees(i, SyntheticData.numPlacette(i)));
+	}
+
+	@Test
+	void insertFillsTheTables() {
+		jdbc.execute("DELETE FROM tree");
+		SyntheticData small = new SyntheticData(SyntheticData.Options.of(300));
+		small.insert(jdbc);
+
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM ifn_programme", Integer.class)).isEqualTo(300);
+		assertThat(jdbc.queryForObject("SELECT COUNT(DISTINCT equipe) FROM ifn_programme", Integer.class)).isEqualTo(4);
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM plot WHERE date_modified IS NOT NULL", Integer.class))
+				.isEqualTo(jdbc.queryForObject("SELECT COUNT(*) FROM plot", Integer.class))
+				.isGreaterThan(150);
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM tree", Integer.class)).isGreaterThan(1_000);
+	}
+
+	@Test
+	void collectZipHasPlotAndTreeCsv() throws IOException {
+		Map<String, String> entries = new HashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(data.collectZip(0, 100)))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+
+		assertThat(entries).containsOnlyKeys("plot.csv", "tree.csv");
+		assertThat(entries.get("plot.csv")).startsWith(String.join(",", SyntheticData.PLOT_COLUMNS) + "\r\n");
+		assertThat(entries.get("tree.csv")).startsWith(String.join(",", SyntheticData.TREE_COLUMNS) + "\r\n");
+		List<Object[]> plots = new ArrayList<>();
+		data.forEachPlot(0, 100, plots::add);
+		assertThat(entries.get("plot.csv").split("\r\n")).hasSize(plots.size() + 1);
+	}
+}
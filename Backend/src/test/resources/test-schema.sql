@@ -0,0 +1,32 @@
+-- Tables the JPA entities do not map, for @H2DataJpaTest. Run after Hibernate's create-drop;
+-- the PostgreSQL definitions are in src/main/resources/db.
+
+-- From the Collect export; its columns are looked up at runtime (see TreeSchema)
+CREATE TABLE IF NOT EXISTS tree (
+    plot_plot_no      VARCHAR(50),
+    tree_no           INTEGER,
+    tree_species_code VARCHAR(10),
+    tree_dbh          DOUBLE PRECISION,
+    tree_height       DOUBLE PRECISION
+);
+
+-- create_sync_change_log.sql; filled by triggers in PostgreSQL
+CREATE TABLE IF NOT EXISTS sync_change_log (
+    seq        BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity     VARCHAR(20) NOT NULL,
+    entity_key VARCHAR(50) NOT NULL,
+    op         CHAR(1) NOT NULL,
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    xid        BIGINT NOT NULL
+);
+
+-- create_plot_validation.sql
+CREATE TABLE IF NOT EXISTS plot_validation (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    plot_no      VARCHAR(50) NOT NULL,
+    rule         VARCHAR(50) NOT NULL,
+    severity     VARCHAR(20) NOT NULL,
+    message      TEXT,
+    measure      DOUBLE PRECISION,
+    validated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
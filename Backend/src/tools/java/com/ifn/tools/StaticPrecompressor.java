@@ -0,0 +1,101 @@
+package com.ifn.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time tool: writes a .gz (and a .br when the brotli CLI is installed) next to every
+ * compressible file of the static bundle, so EncodedResourceResolver can serve them.
+ *
+ * Run by exec-maven-plugin during prepare-package on target/classes/static, as a single source
+ * file (java StaticPrecompressor.java), so it is never compiled into the application jar.
+ * A variant is kept only when it is smaller than the original.
+ */
+public final class StaticPrecompressor {
+
+    private static final Set<String> EXTENSIONS = Set.of("js", "css", "html", "json", "svg");
+    private static final long MIN_SIZE = 1024;
+
+    private StaticPrecompressor() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path root = Path.of(args.length > 0 ? args[0] : "target/classes/static");
+        if (!Files.isDirectory(root)) {
+            System.out.println("[precompress] " + root + " absent, nothing to do");
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).filter(StaticPrecompressor::compressible).toList();
+        }
+
+        boolean brotli = brotliAvailable();
+        if (!brotli) System.out.println("[precompress] brotli CLI not found, gzip variants only");
+
+        long before = 0, afterGz = 0;
+        for (Path file : files) {
+            long size = Files.size(file);
+            before  += size;
+            afterGz += gzip(file, size);
+            if (brotli) brotli(file, size);
+        }
+        System.out.printf("[precompress] %d files, %d KB -> %d KB gzip%n",
+                files.size(), before / 1024, afterGz / 1024);
+    }
+
+    private static boolean compressible(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !EXTENSIONS.contains(name.substring(dot + 1).toLowerCase())) return false;
+        try {
+            return Files.size(file) >= MIN_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long gzip(Path file, long originalSize) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 64 * 1024) {
+            { def.setLevel(Deflater.BEST_COMPRESSION); }
+        }) {
+            Files.copy(file, out);
+        }
+        return keepIfSmaller(target, originalSize);
+    }
+
+    private static void brotli(Path file, long originalSize) throws IOException, InterruptedException {
+        Path target = file.resolveSibling(file.getFileName() + ".br");
+        Process p = new ProcessBuilder("brotli", "-f", "-q", "11", "-o", target.toString(), file.toString())
+                .inheritIO()
+                .start();
+        if (p.waitFor() == 0) keepIfSmaller(target, originalSize);
+        else Files.deleteIfExists(target);
+    }
+
+    private static long keepIfSmaller(Path variant, long originalSize) throws IOException {
+        long size = Files.size(variant);
+        if (size < originalSize) return size;
+        Files.delete(variant);
+        return originalSize;
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process p = new ProcessBuilder("brotli", "--version").redirectErrorStream(true).start();
+            p.getInputStream().transferTo(OutputStream.nullOutputStream());
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+}
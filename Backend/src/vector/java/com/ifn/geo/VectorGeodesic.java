@@ -0,0 +1,52 @@
+package com.ifn.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.*;
+
+/**
+ * SIMD version of {@link GeodesicBatch#scalar}, on the JDK Vector API.
+ *
+ * Compiled only by the "vector" Maven profile, and loaded only when the jdk.incubator.vector
+ * module is present (see GeodesicBatch); the tail that does not fill a whole vector goes
+ * through the scalar formulas.
+ */
+final class VectorGeodesic {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double TO_RAD = Math.PI / 180;
+    private static final double TO_DEG = 180 / Math.PI;
+
+    private VectorGeodesic() {}
+
+    static void compute(double[] lon1, double[] lat1, double[] lon2, double[] lat2,
+                        double[] distance, double[] bearing, int n) {
+        int i = 0;
+        int upper = SPECIES.loopBound(n);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector phi1 = DoubleVector.fromArray(SPECIES, lat1, i).mul(TO_RAD);
+            DoubleVector phi2 = DoubleVector.fromArray(SPECIES, lat2, i).mul(TO_RAD);
+            DoubleVector dLambda = DoubleVector.fromArray(SPECIES, lon2, i)
+                    .sub(DoubleVector.fromArray(SPECIES, lon1, i)).mul(TO_RAD);
+
+            DoubleVector cos1 = phi1.lanewise(COS);
+            DoubleVector cos2 = phi2.lanewise(COS);
+            DoubleVector sinPhi = phi2.sub(phi1).mul(0.5).lanewise(SIN);
+            DoubleVector sinLambda = dLambda.mul(0.5).lanewise(SIN);
+            DoubleVector a = sinPhi.mul(sinPhi).add(cos1.mul(cos2).mul(sinLambda).mul(sinLambda));
+            a.sqrt().min(1.0).lanewise(ASIN).mul(2 * Geodesic.EARTH_RADIUS_M).intoArray(distance, i);
+
+            DoubleVector y = dLambda.lanewise(SIN).mul(cos2);
+            DoubleVector x = cos1.mul(phi2.lanewise(SIN)).sub(phi1.lanewise(SIN).mul(cos2).mul(dLambda.lanewise(COS)));
+            DoubleVector b = y.lanewise(ATAN2, x).mul(TO_DEG);
+            VectorMask<Double> negative = b.compare(LT, 0.0);
+            b.lanewise(ADD, 360.0, negative).intoArray(bearing, i);
+        }
+        for (; i < n; i++) {
+            distance[i] = Geodesic.haversine(lon1[i], lat1[i], lon2[i], lat2[i]);
+            bearing[i] = Geodesic.bearing(lon1[i], lat1[i], lon2[i], lat2[i]);
+        }
+    }
+}
@@ -18,10 +18,27 @@ cp -r dist/* "$ROOT/Backend/src/main/resources/static/"
 
 echo "=== 3/4  Building backend JAR ==="
 cd "$ROOT/Backend"
-./mvnw clean package -DskipTests -q
+PROFILES=""
+# VECTOR=1: SIMD geodesic batches (profile "vector"); the service must then run java with
+# --add-modules jdk.incubator.vector
+if [ "$VECTOR" = "1" ]; then
+  PROFILES="-Pvector"
+fi
+if [ "$STARTUP" = "1" ]; then
+  # Startup-optimised build (AOT + CDS archive, Backend/pom.xml profile "startup")
+  ./mvnw clean verify -Pstartup $PROFILES -DskipTests -q
+else
+  ./mvnw clean package $PROFILES -DskipTests -q
+fi
 
 echo "=== 4/4  Copying JAR to deployment folder ==="
-cp target/*.jar "$DEPLOY/"
+if [ "$STARTUP" = "1" ]; then
+  # Jar, lib/ and application.jsa; the service must run the jar from this folder with
+  # -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=startup
+  cp -r target/application/. "$DEPLOY/"
+else
+  cp target/*.jar "$DEPLOY/"
+fi
 
 echo ""
 echo "=== Done! Restart the service to apply changes ==="